@@ -0,0 +1,27 @@
+package com.solekta.solekta.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Point-in-time counters of a {@link TinyLfuCache}. Weights are estimated bytes.
+ */
+@Getter
+@AllArgsConstructor
+public class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long evictedWeight;
+    private final long invalidations;
+    private final long expirations;
+    private final int entries;
+    private final long weight;
+    private final long maximumWeight;
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,186 @@
+package com.solekta.solekta.cache;
+
+import com.solekta.solekta.dto.CursorPage;
+import com.solekta.solekta.dto.ProductSummaryDTO;
+import com.solekta.solekta.model.Category;
+import com.solekta.solekta.model.Product;
+import com.solekta.solekta.model.RentalService;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of the catalog services, keyed by entity id or by
+ * query shape (query name plus arguments). Values are shared between requests,
+ * so callers must treat them as read-only. The services invalidate it from their
+ * write methods:
+ * <ul>
+ *   <li>a product write drops that product and every product listing, plus the
+ *       category listings that depend on which categories have products;</li>
+ *   <li>a category write drops that category, every category listing and every
+ *       product entry, since products carry their category name;</li>
+ *   <li>a service write drops that service and every service listing.</li>
+ * </ul>
+ * Those invalidations only reach this instance's cache. Writes made on another
+ * instance, or straight in the database, are picked up once the entry expires
+ * (app.catalog.cache.ttl-ms), so replicas serve catalog data at most that stale.
+ * Setting app.catalog.cache.max-bytes to 0 disables caching.
+ */
+@Component
+@Slf4j
+public class CatalogCache {
+
+    public enum Region { PRODUCT, CATEGORY, SERVICE }
+
+    public static final String BY_ID = "id";
+
+    // Category listings whose contents change when a product moves in or out of a category
+    public static final Set<String> PRODUCT_DEPENDENT_CATEGORY_QUERIES = Set.of("withProducts", "withoutProducts");
+
+    private static final int KEY_OVERHEAD = 64;
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 8;
+
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @ToString
+    public static final class Key {
+        private final Region region;
+        private final String query;
+        // Id, single argument or Arrays.asList of arguments; may be null
+        private final Object argument;
+    }
+
+    private final TinyLfuCache<Key, Object> cache;
+
+    public CatalogCache(@Value("${app.catalog.cache.max-bytes:67108864}") long maxBytes,
+                        @Value("${app.catalog.cache.ttl-ms:60000}") long ttlMs) {
+        this.cache = maxBytes > 0
+                ? new TinyLfuCache<>(maxBytes, CatalogCache::weigh, TimeUnit.MILLISECONDS.toNanos(ttlMs))
+                : null;
+        log.info("Catalog cache {}", maxBytes > 0
+                ? "bounded to " + maxBytes + " bytes, entries expire after " + ttlMs + " ms" : "disabled");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Region region, String query, Object argument, Supplier<T> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+        return (T) cache.get(new Key(region, query, argument), key -> loader.get());
+    }
+
+    public <T> Optional<T> getById(Region region, Long id, Supplier<Optional<T>> loader) {
+        return get(region, BY_ID, id, loader);
+    }
+
+    public void invalidateProduct(Long productId) {
+        if (cache == null) {
+            return;
+        }
+        cache.invalidate(new Key(Region.PRODUCT, BY_ID, productId));
+        cache.invalidateIf(key -> key.region == Region.PRODUCT && !BY_ID.equals(key.query)
+                || key.region == Region.CATEGORY && PRODUCT_DEPENDENT_CATEGORY_QUERIES.contains(key.query));
+    }
+
+    // Same as invalidateProduct for each id, with one pass over the listings
+    public void invalidateProducts(Collection<Long> productIds) {
+        if (cache == null) {
+            return;
+        }
+        for (Long productId : productIds) {
+            cache.invalidate(new Key(Region.PRODUCT, BY_ID, productId));
+        }
+        cache.invalidateIf(key -> key.region == Region.PRODUCT && !BY_ID.equals(key.query)
+                || key.region == Region.CATEGORY && PRODUCT_DEPENDENT_CATEGORY_QUERIES.contains(key.query));
+    }
+
+    public void invalidateCategory(Long categoryId) {
+        if (cache == null) {
+            return;
+        }
+        cache.invalidate(new Key(Region.CATEGORY, BY_ID, categoryId));
+        cache.invalidateIf(key -> key.region == Region.PRODUCT
+                || key.region == Region.CATEGORY && !BY_ID.equals(key.query));
+    }
+
+    public void invalidateService(Long serviceId) {
+        if (cache == null) {
+            return;
+        }
+        cache.invalidate(new Key(Region.SERVICE, BY_ID, serviceId));
+        cache.invalidateIf(key -> key.region == Region.SERVICE && !BY_ID.equals(key.query));
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public CacheStats stats() {
+        return cache != null ? cache.stats() : new CacheStats(0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    // Rough retained size in bytes; strings are counted as compact Latin-1
+    static int weigh(Key key, Object value) {
+        long bytes = KEY_OVERHEAD + sizeOf(key.query) + sizeOf(key.argument) + sizeOf(value);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String s) {
+            return 40 + s.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Enum<?>) {
+            return OBJECT_OVERHEAD;
+        }
+        if (value instanceof Optional<?> optional) {
+            return OBJECT_OVERHEAD + sizeOf(optional.orElse(null));
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = 40;
+            for (Object element : collection) {
+                bytes += REFERENCE_SIZE + sizeOf(element);
+            }
+            return bytes;
+        }
+        if (value instanceof CursorPage<?> page) {
+            return 32 + sizeOf(page.getItems()) + sizeOf(page.getNextCursor());
+        }
+        if (value instanceof ProductSummaryDTO summary) {
+            return 80 + sizeOf(summary.getProductName()) + sizeOf(summary.getBrand())
+                    + sizeOf(summary.getCategoryName()) + sizeOf(summary.getImageUrl());
+        }
+        if (value instanceof Product product) {
+            // The category is shared with other entries and not counted here
+            return 120 + sizeOf(product.getProductName()) + sizeOf(product.getProductDescription())
+                    + sizeOf(product.getLaptopSpec()) + sizeOf(product.getBrand()) + sizeOf(product.getImageUrls())
+                    + sizeOf(product.getImageHash()) + sizeOf(product.getImageFileName())
+                    + sizeOf(product.getImageContentType());
+        }
+        if (value instanceof Category category) {
+            return 48 + sizeOf(category.getCategoryName()) + sizeOf(category.getDescription());
+        }
+        if (value instanceof RentalService service) {
+            return 160 + sizeOf(service.getServiceName()) + sizeOf(service.getDescription())
+                    + sizeOf(service.getCategory()) + sizeOf(service.getImageHash())
+                    + sizeOf(service.getImageFileName()) + sizeOf(service.getImageContentType());
+        }
+        return 64;
+    }
+}
@@ -0,0 +1,102 @@
+package com.solekta.solekta.cache;
+
+/**
+ * Count-min sketch of 4-bit counters used as the TinyLFU admission filter. Each
+ * long packs sixteen counters and every key maps to one counter in each of four
+ * rows. Once the number of increments reaches ten times the table width all
+ * counters are halved, so popularity decays and old hot keys make room for new ones.
+ * Not thread-safe; {@link TinyLfuCache} only calls it under its own lock.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_TABLE_SIZE = 1 << 24;
+
+    private long[] table = new long[0];
+    private int tableMask;
+    private int sampleSize;
+    private int additions;
+
+    /**
+     * Grow the table so it can tell roughly {@code expectedEntries} keys apart.
+     * Growing discards the collected counts.
+     */
+    void ensureCapacity(int expectedEntries) {
+        int size = Math.min(Integer.highestOneBit(Math.max(expectedEntries, 16) - 1) << 1, MAX_TABLE_SIZE);
+        if (size <= table.length) {
+            return;
+        }
+        table = new long[size];
+        tableMask = size - 1;
+        sampleSize = 10 * size;
+        additions = 0;
+    }
+
+    int tableSize() {
+        return table.length;
+    }
+
+    int frequency(Object key) {
+        if (table.length == 0) {
+            return 0;
+        }
+        long hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long slot = slot(hash, row);
+            int shift = counterShift(slot);
+            frequency = Math.min(frequency, (int) ((table[index(slot)] >>> shift) & 0xfL));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        if (table.length == 0) {
+            return;
+        }
+        long hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long slot = slot(hash, row);
+            int index = index(slot);
+            int shift = counterShift(slot);
+            if (((table[index] >>> shift) & 0xfL) < 15) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    // Halve every counter; the sample count shrinks with it
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private long slot(long hash, int row) {
+        long slot = (hash + SEEDS[row]) * SEEDS[row];
+        return slot + (slot >>> 32);
+    }
+
+    private int index(long slot) {
+        return (int) slot & tableMask;
+    }
+
+    // Top four bits of the slot pick one of the sixteen counters in the long
+    private static int counterShift(long slot) {
+        return (int) (slot >>> 60) << 2;
+    }
+
+    private static long spread(int hashCode) {
+        long h = hashCode * 0x9e3779b97f4a7c15L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,153 @@
+package com.solekta.solekta.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version counters behind the ETag / Last-Modified validators of the
+ * catalog and order reads. Each scope keeps one stamp per written entity and one
+ * for the whole collection; writes bump them, reads only look them up, so a 304
+ * is answered without touching the database.
+ *
+ * Entities that were not written since startup share the scope's floor stamp,
+ * and ETags carry a per-boot prefix so validators from a previous run never match.
+ * Bumps run after the surrounding transaction commits: a reader that sees the new
+ * stamp is guaranteed to also see the new rows. The ETag carries the version and
+ * changes on every write; Last-Modified is the commit time and never runs ahead of
+ * the clock, so two writes within one second share it and clients that only send
+ * If-Modified-Since may miss the second one until the next write.
+ *
+ * Stamps are per instance and only see writes made on it. Every scope is bumped
+ * every app.http.validators.max-age-ms, so a client revalidating against another
+ * instance's write gets a fresh body within that interval.
+ */
+@Component
+public class ResourceVersions {
+
+    public enum Scope { PRODUCT, CATEGORY, SERVICE, ORDER }
+
+    // Past this many tracked entities a scope folds them into its floor
+    private static final int MAX_TRACKED_ENTITIES = 100_000;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Stamp {
+        private final long version;
+        // Epoch millis
+        private final long lastModified;
+        // Weak validator, quoted and prefixed with W/
+        private final String etag;
+    }
+
+    private static final class ScopeVersions {
+        final Map<Long, Stamp> entities = new ConcurrentHashMap<>();
+        volatile Stamp floor;
+        volatile Stamp collection;
+    }
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Scope, ScopeVersions> scopes = new EnumMap<>(Scope.class);
+
+    public ResourceVersions() {
+        Stamp initial = nextStamp();
+        for (Scope scope : Scope.values()) {
+            ScopeVersions versions = new ScopeVersions();
+            versions.floor = initial;
+            versions.collection = initial;
+            scopes.put(scope, versions);
+        }
+    }
+
+    public Stamp entity(Scope scope, Long id) {
+        ScopeVersions versions = scopes.get(scope);
+        Stamp floor = versions.floor;
+        Stamp stamp = id != null ? versions.entities.get(id) : null;
+        return stamp != null && stamp.getVersion() > floor.getVersion() ? stamp : floor;
+    }
+
+    public Stamp collection(Scope scope) {
+        return scopes.get(scope).collection;
+    }
+
+    public void productChanged(Long productId) {
+        afterCommit(() -> entityChanged(Scope.PRODUCT, productId));
+    }
+
+    // Product JSON carries the category name, so every product moves with it
+    public void categoryChanged(Long categoryId) {
+        afterCommit(() -> {
+            entityChanged(Scope.CATEGORY, categoryId);
+            scopeChanged(Scope.PRODUCT);
+        });
+    }
+
+    public void serviceChanged(Long serviceId) {
+        afterCommit(() -> entityChanged(Scope.SERVICE, serviceId));
+    }
+
+    public void orderChanged(Long orderId) {
+        afterCommit(() -> entityChanged(Scope.ORDER, orderId));
+    }
+
+    // For changes made behind the services' back, e.g. direct database edits or other instances
+    @Scheduled(initialDelayString = "${app.http.validators.max-age-ms:60000}",
+            fixedDelayString = "${app.http.validators.max-age-ms:60000}")
+    public void allChanged() {
+        for (Scope scope : Scope.values()) {
+            scopeChanged(scope);
+        }
+    }
+
+    private void entityChanged(Scope scope, Long id) {
+        ScopeVersions versions = scopes.get(scope);
+        synchronized (versions) {
+            Stamp stamp = nextStamp();
+            if (id != null) {
+                versions.entities.put(id, stamp);
+            }
+            versions.collection = stamp;
+            if (versions.entities.size() > MAX_TRACKED_ENTITIES) {
+                versions.floor = stamp;
+                versions.entities.clear();
+            }
+        }
+    }
+
+    private void scopeChanged(Scope scope) {
+        ScopeVersions versions = scopes.get(scope);
+        synchronized (versions) {
+            Stamp stamp = nextStamp();
+            versions.floor = stamp;
+            versions.collection = stamp;
+            versions.entities.clear();
+        }
+    }
+
+    private Stamp nextStamp() {
+        long version = sequence.incrementAndGet();
+        return new Stamp(version, System.currentTimeMillis(), "W/\"" + bootId + "-" + version + "\"");
+    }
+
+    private static void afterCommit(Runnable bump) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+}
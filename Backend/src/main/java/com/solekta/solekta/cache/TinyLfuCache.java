@@ -0,0 +1,321 @@
+package com.solekta.solekta.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Weight-bounded W-TinyLFU cache. New entries land in a small LRU window (1% of
+ * the weight); entries leaving the window only enter the main segmented LRU if
+ * the {@link FrequencySketch} says they are requested more often than the main
+ * victim they would displace. One-off reads such as scans over rarely visited
+ * pages therefore cannot flush the popular entries. The main space is split 20/80
+ * into a probation and a protected segment; a hit in probation promotes the entry.
+ *
+ * With an expiry, entries older than it are dropped when next read, whether or not
+ * anything invalidated them.
+ *
+ * All operations take the cache's monitor, which is fine for the read rates of the
+ * catalog; loaders run outside of it.
+ */
+public final class TinyLfuCache<K, V> {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        int weight;
+        // System.nanoTime() after which the value is stale; unused without an expiry
+        long expiresAt;
+        Segment segment;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    // Circular doubly linked list with a sentinel; head.next is the LRU end
+    private static final class AccessOrder<K, V> {
+        final Node<K, V> head = new Node<>(null, null, 0);
+        long weight;
+
+        AccessOrder() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        Node<K, V> first() {
+            return head.next == head ? null : head.next;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            weight += node.weight;
+        }
+
+        void unlink(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void clear() {
+            head.prev = head;
+            head.next = head;
+            weight = 0;
+        }
+    }
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    // 0 keeps entries until evicted or invalidated
+    private final long expireAfterWriteNanos;
+
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+    private final FrequencySketch sketch = new FrequencySketch();
+    private final AccessOrder<K, V> window = new AccessOrder<>();
+    private final AccessOrder<K, V> probation = new AccessOrder<>();
+    private final AccessOrder<K, V> protectedOrder = new AccessOrder<>();
+
+    // Bumped on every invalidation so in-flight loads do not resurrect stale values
+    private long epoch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long evictedWeight;
+    private long invalidations;
+    private long expirations;
+
+    public TinyLfuCache(long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+        this(maximumWeight, weigher, 0);
+    }
+
+    public TinyLfuCache(long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher,
+                        long expireAfterWriteNanos) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
+        if (expireAfterWriteNanos < 0) {
+            throw new IllegalArgumentException("Expiry must not be negative");
+        }
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * PROTECTED_PERCENT / 100;
+        this.weigher = weigher;
+        sketch.ensureCapacity(16);
+    }
+
+    public synchronized V getIfPresent(K key) {
+        sketch.increment(key);
+        Node<K, V> node = data.get(key);
+        if (node != null && isExpired(node)) {
+            data.remove(key);
+            orderOf(node.segment).unlink(node);
+            expirations++;
+            node = null;
+        }
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onHit(node);
+        return node.value;
+    }
+
+    /**
+     * Return the cached value, or load, cache and return it. Concurrent misses on
+     * the same key may both call the loader. A null result is returned but not cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long loadEpoch;
+        synchronized (this) {
+            V cached = getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadEpoch = epoch;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                // An invalidation ran while loading; the value may predate it
+                if (epoch == loadEpoch) {
+                    put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        int weight = weigher.applyAsInt(key, value);
+        Node<K, V> existing = data.get(key);
+        if (existing != null) {
+            AccessOrder<K, V> order = orderOf(existing.segment);
+            order.unlink(existing);
+            existing.value = value;
+            existing.weight = weight;
+            existing.expiresAt = expiresAt();
+            order.addLast(existing);
+        } else {
+            if (weight > maximumWeight) {
+                return;
+            }
+            Node<K, V> node = new Node<>(key, value, weight);
+            node.expiresAt = expiresAt();
+            node.segment = Segment.WINDOW;
+            window.addLast(node);
+            data.put(key, node);
+            if (data.size() > sketch.tableSize()) {
+                sketch.ensureCapacity(data.size());
+            }
+        }
+        evict();
+    }
+
+    public synchronized void invalidate(K key) {
+        epoch++;
+        Node<K, V> node = data.remove(key);
+        if (node != null) {
+            orderOf(node.segment).unlink(node);
+            invalidations++;
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<? super K> predicate) {
+        epoch++;
+        Iterator<Node<K, V>> it = data.values().iterator();
+        while (it.hasNext()) {
+            Node<K, V> node = it.next();
+            if (predicate.test(node.key)) {
+                it.remove();
+                orderOf(node.segment).unlink(node);
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        epoch++;
+        invalidations += data.size();
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedOrder.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, evictedWeight, invalidations, expirations, data.size(),
+                window.weight + probation.weight + protectedOrder.weight, maximumWeight);
+    }
+
+    private long expiresAt() {
+        return expireAfterWriteNanos > 0 ? System.nanoTime() + expireAfterWriteNanos : 0;
+    }
+
+    private boolean isExpired(Node<K, V> node) {
+        return expireAfterWriteNanos > 0 && System.nanoTime() - node.expiresAt > 0;
+    }
+
+    private void onHit(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW -> {
+                window.unlink(node);
+                window.addLast(node);
+            }
+            case PROBATION -> {
+                probation.unlink(node);
+                node.segment = Segment.PROTECTED;
+                protectedOrder.addLast(node);
+                // Demote the protected LRU entries back to probation when it overflows
+                while (protectedOrder.weight > protectedMaximum) {
+                    Node<K, V> demoted = protectedOrder.first();
+                    protectedOrder.unlink(demoted);
+                    demoted.segment = Segment.PROBATION;
+                    probation.addLast(demoted);
+                }
+            }
+            case PROTECTED -> {
+                protectedOrder.unlink(node);
+                protectedOrder.addLast(node);
+            }
+        }
+    }
+
+    private void evict() {
+        long mainMaximum = maximumWeight - windowMaximum;
+        while (window.weight > windowMaximum) {
+            Node<K, V> candidate = window.first();
+            window.unlink(candidate);
+            if (admit(candidate, mainMaximum)) {
+                candidate.segment = Segment.PROBATION;
+                probation.addLast(candidate);
+            } else {
+                remove(candidate);
+            }
+        }
+        // Shrinking entries from put() can still leave the main space over budget
+        while (probation.weight + protectedOrder.weight > mainMaximum) {
+            remove(mainVictim());
+        }
+    }
+
+    // TinyLFU admission: evict main victims while the candidate is more popular, else reject it
+    private boolean admit(Node<K, V> candidate, long mainMaximum) {
+        if (candidate.weight > mainMaximum) {
+            return false;
+        }
+        int candidateFrequency = sketch.frequency(candidate.key);
+        while (probation.weight + protectedOrder.weight + candidate.weight > mainMaximum) {
+            Node<K, V> victim = mainVictim();
+            if (candidateFrequency <= sketch.frequency(victim.key)) {
+                return false;
+            }
+            remove(victim);
+        }
+        return true;
+    }
+
+    private Node<K, V> mainVictim() {
+        Node<K, V> victim = probation.first();
+        return victim != null ? victim : protectedOrder.first();
+    }
+
+    private void remove(Node<K, V> node) {
+        if (node.next != null) {
+            orderOf(node.segment).unlink(node);
+        }
+        data.remove(node.key);
+        evictions++;
+        evictedWeight += node.weight;
+    }
+
+    private AccessOrder<K, V> orderOf(Segment segment) {
+        return switch (segment) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            case PROTECTED -> protectedOrder;
+        };
+    }
+}
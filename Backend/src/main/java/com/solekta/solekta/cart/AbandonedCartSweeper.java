@@ -0,0 +1,169 @@
+package com.solekta.solekta.cart;
+
+import com.solekta.solekta.service.SchedulerLeaseService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes carts nobody has touched for app.cart.sweep.ttl-days. Candidates are read
+ * in (updated_at, id) keyset order off idx_shopping_carts_updated_at and deleted in
+ * batches of app.cart.sweep.batch-size, each batch in its own short transaction, so
+ * the sweep never holds locks on more than one batch of carts. Only the node holding
+ * the "cart-sweeper" lease runs it.
+ *
+ * A cart touched after it was selected is re-checked under its row lock and kept.
+ * Works in both cart modes: the write-behind flush re-creates a resident cart whose
+ * row was swept.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.cart.sweep.enabled", havingValue = "true", matchIfMissing = true)
+public class AbandonedCartSweeper {
+
+    static final String LEASE = "cart-sweeper";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLeaseService leaseService;
+
+    @Value("${app.cart.sweep.ttl-days:30}")
+    private int ttlDays;
+
+    @Value("${app.cart.sweep.batch-size:500}")
+    private int batchSize;
+
+    // Caps one run; whatever is left waits for the next one
+    @Value("${app.cart.sweep.max-batches:200}")
+    private int maxBatches;
+
+    @Value("${app.cart.sweep.lease-ms:900000}")
+    private long leaseMs;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong skippedRuns = new AtomicLong();
+    private final AtomicLong cartsPurged = new AtomicLong();
+    private final AtomicLong itemsPurged = new AtomicLong();
+    private final AtomicLong totalDurationMs = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastCartsPurged;
+    private volatile long lastDurationMs;
+
+    public AbandonedCartSweeper(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                SchedulerLeaseService leaseService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.leaseService = leaseService;
+    }
+
+    @Scheduled(initialDelayString = "${app.cart.sweep.initial-delay-ms:300000}",
+               fixedDelayString = "${app.cart.sweep.interval-ms:3600000}")
+    public void sweep() {
+        runs.incrementAndGet();
+        if (!leaseService.tryAcquire(LEASE, Duration.ofMillis(leaseMs))) {
+            skippedRuns.incrementAndGet();
+            log.debug("Cart sweep skipped, lease held by another node");
+            return;
+        }
+        try {
+            purge(LocalDateTime.now().minusDays(ttlDays));
+        } catch (RuntimeException e) {
+            log.error("Cart sweep failed", e);
+        } finally {
+            leaseService.release(LEASE);
+        }
+    }
+
+    /**
+     * Deletes carts last updated before the cutoff and returns how many were deleted.
+     */
+    public long purge(LocalDateTime cutoff) {
+        long started = System.nanoTime();
+        Timestamp before = Timestamp.valueOf(cutoff);
+        Timestamp lastUpdatedAt = null;
+        long lastId = 0;
+        long carts = 0;
+        long items = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Candidate> candidates = nextBatch(before, lastUpdatedAt, lastId);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            Candidate last = candidates.get(candidates.size() - 1);
+            lastUpdatedAt = last.updatedAt();
+            lastId = last.id();
+            long[] deleted = transactionTemplate.execute(status -> delete(candidates, before));
+            items += deleted[0];
+            carts += deleted[1];
+            if (candidates.size() < batchSize) {
+                break;
+            }
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        cartsPurged.addAndGet(carts);
+        itemsPurged.addAndGet(items);
+        totalDurationMs.addAndGet(elapsedMs);
+        lastRunAt = LocalDateTime.now();
+        lastCartsPurged = carts;
+        lastDurationMs = elapsedMs;
+        if (carts > 0) {
+            log.info("Swept {} abandoned carts ({} lines) idle since {} in {} ms", carts, items, cutoff, elapsedMs);
+        }
+        return carts;
+    }
+
+    public SweepStats stats() {
+        return new SweepStats(runs.get(), skippedRuns.get(), cartsPurged.get(), itemsPurged.get(),
+                totalDurationMs.get(), lastRunAt, lastCartsPurged, lastDurationMs);
+    }
+
+    private record Candidate(long id, Timestamp updatedAt) {
+    }
+
+    private List<Candidate> nextBatch(Timestamp before, Timestamp lastUpdatedAt, long lastId) {
+        if (lastUpdatedAt == null) {
+            return jdbcTemplate.query(
+                    "SELECT id, updated_at FROM shopping_carts WHERE updated_at < ? " +
+                    "ORDER BY updated_at, id LIMIT ?",
+                    (rs, i) -> new Candidate(rs.getLong("id"), rs.getTimestamp("updated_at")),
+                    before, batchSize);
+        }
+        return jdbcTemplate.query(
+                "SELECT id, updated_at FROM shopping_carts WHERE updated_at < ? " +
+                "AND (updated_at > ? OR (updated_at = ? AND id > ?)) ORDER BY updated_at, id LIMIT ?",
+                (rs, i) -> new Candidate(rs.getLong("id"), rs.getTimestamp("updated_at")),
+                before, lastUpdatedAt, lastUpdatedAt, lastId, batchSize);
+    }
+
+    // Returns {lines deleted, carts deleted}
+    private long[] delete(List<Candidate> candidates, Timestamp before) {
+        String in = String.join(",", Collections.nCopies(candidates.size(), "?"));
+        Object[] ids = candidates.stream().map(Candidate::id).toArray();
+        Object[] lockArgs = new Object[ids.length + 1];
+        System.arraycopy(ids, 0, lockArgs, 0, ids.length);
+        lockArgs[ids.length] = before;
+        // Lock the carts and keep only those still idle, so a concurrent update wins
+        List<Long> stale = jdbcTemplate.queryForList(
+                "SELECT id FROM shopping_carts WHERE id IN (" + in + ") AND updated_at < ? FOR UPDATE",
+                Long.class, lockArgs);
+        if (stale.isEmpty()) {
+            return new long[]{0, 0};
+        }
+        String staleIn = String.join(",", Collections.nCopies(stale.size(), "?"));
+        Object[] staleIds = stale.toArray();
+        int lines = jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id IN (" + staleIn + ")", staleIds);
+        int carts = jdbcTemplate.update("DELETE FROM shopping_carts WHERE id IN (" + staleIn + ")", staleIds);
+        return new long[]{lines, carts};
+    }
+}
@@ -0,0 +1,116 @@
+package com.solekta.solekta.cart;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes dirty carts to shopping_carts / cart_items with JDBC batches: one
+ * statement per step for the whole set of carts instead of a round trip per
+ * entity. Each cart's lines are replaced wholesale, since the in-memory cart
+ * is the source of truth while the write-behind mode is on.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "write-behind")
+public class CartFlushWriter {
+
+    private static final String INSERT_ITEM = "INSERT INTO cart_items (cart_id, item_type, product_id, product_name, " +
+            "product_sku, quantity, service_id, service_name, rental_period, rental_period_type, unit_price, total_price, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Joins the caller's transaction if there is one. Returns the cart id of every
+     * written cart by customer id, including carts inserted by this call (new carts
+     * and carts whose row was swept in the meantime).
+     */
+    @Transactional
+    public Map<Long, Long> write(List<CartState> carts) {
+        Map<Long, Long> cartIds = new HashMap<>();
+        List<CartState> existing = new ArrayList<>();
+        List<CartState> missing = new ArrayList<>();
+        for (CartState cart : carts) {
+            (cart.getCartId() != null ? existing : missing).add(cart);
+        }
+        if (!existing.isEmpty()) {
+            List<Object[]> touched = new ArrayList<>();
+            for (CartState cart : existing) {
+                touched.add(new Object[]{Timestamp.valueOf(cart.getUpdatedAt()), cart.getLastSyncVersion(),
+                        cart.getItemCount(), cart.getSubtotal(), cart.getCartVersion(), cart.getCartId()});
+            }
+            int[] updated = jdbcTemplate.batchUpdate("UPDATE shopping_carts SET updated_at = ?, last_sync_version = ?, " +
+                    "item_count = ?, subtotal = ?, version = ? WHERE id = ?", touched);
+            for (int i = 0; i < existing.size(); i++) {
+                CartState cart = existing.get(i);
+                // 0 rows: the row was swept as abandoned while the cart stayed resident
+                if (updated[i] == 0) {
+                    missing.add(cart);
+                } else {
+                    cartIds.put(cart.getCustomerId(), cart.getCartId());
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<Object[]> newCarts = new ArrayList<>();
+            for (CartState cart : missing) {
+                newCarts.add(new Object[]{cart.getCustomerId(),
+                        Timestamp.valueOf(cart.getCreatedAt()), Timestamp.valueOf(cart.getUpdatedAt()),
+                        cart.getLastSyncVersion(), cart.getItemCount(), cart.getSubtotal(), cart.getCartVersion()});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO shopping_carts (customer_id, created_at, updated_at, last_sync_version, " +
+                    "item_count, subtotal, version) VALUES (?, ?, ?, ?, ?, ?, ?)", newCarts);
+            List<Object> customerIds = newCarts.stream().map(row -> row[0]).toList();
+            jdbcTemplate.query("SELECT id, customer_id FROM shopping_carts WHERE customer_id IN ("
+                            + String.join(",", Collections.nCopies(customerIds.size(), "?")) + ")",
+                    rs -> {
+                        cartIds.put(rs.getLong("customer_id"), rs.getLong("id"));
+                    },
+                    customerIds.toArray());
+        }
+
+        List<Object[]> cleared = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        for (CartState cart : carts) {
+            Long cartId = cartIds.get(cart.getCustomerId());
+            cleared.add(new Object[]{cartId});
+            for (CartLine line : cart.getLines()) {
+                items.add(itemRow(cartId, line));
+            }
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM cart_items WHERE cart_id = ?", cleared);
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ITEM, items);
+        }
+        return cartIds;
+    }
+
+    // Same placeholder product_id / service_id / quantity as CartItem.validateItemType
+    private static Object[] itemRow(Long cartId, CartLine line) {
+        return new Object[]{
+                cartId,
+                line.getItemType().name(),
+                line.isService() ? -1L : line.getProductId(),
+                line.getProductName(),
+                line.getProductSku(),
+                line.isService() ? 1 : line.getQuantity(),
+                line.isService() ? line.getServiceId() : -1L,
+                line.getServiceName(),
+                line.getRentalPeriod(),
+                line.getRentalPeriodType() != null ? line.getRentalPeriodType().name() : null,
+                line.getUnitPrice(),
+                line.getTotalPrice()
+        };
+    }
+}
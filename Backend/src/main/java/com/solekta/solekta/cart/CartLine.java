@@ -0,0 +1,81 @@
+package com.solekta.solekta.cart;
+
+import com.solekta.solekta.dto.CartItemDTO;
+import com.solekta.solekta.model.CartItem;
+import com.solekta.solekta.model.RentalService;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable copy of one cart_items row, held by a {@link CartState}.
+ */
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+public final class CartLine {
+
+    private final CartItem.ItemType itemType;
+
+    private final Long productId;
+    private final String productName;
+    private final String productSku;
+    private final Integer quantity;
+
+    private final Long serviceId;
+    private final String serviceName;
+    private final Integer rentalPeriod;
+    private final RentalService.RentalPeriodType rentalPeriodType;
+
+    private final BigDecimal unitPrice;
+
+    public static CartLine of(CartItem item) {
+        return CartLine.builder()
+                .itemType(item.getItemType())
+                .productId(item.isProduct() ? item.getProductId() : null)
+                .productName(item.getProductName())
+                .productSku(item.getProductSku())
+                .quantity(item.isProduct() ? item.getQuantity() : null)
+                .serviceId(item.isService() ? item.getServiceId() : null)
+                .serviceName(item.getServiceName())
+                .rentalPeriod(item.getRentalPeriod())
+                .rentalPeriodType(item.getRentalPeriodType())
+                .unitPrice(item.getUnitPrice())
+                .build();
+    }
+
+    public boolean isProduct() {
+        return itemType == CartItem.ItemType.PRODUCT;
+    }
+
+    public boolean isService() {
+        return itemType == CartItem.ItemType.SERVICE;
+    }
+
+    // Same rule as CartItem.calculateTotalPrice
+    public BigDecimal getTotalPrice() {
+        Integer units = isService() ? rentalPeriod : quantity;
+        return unitPrice != null && units != null ? unitPrice.multiply(BigDecimal.valueOf(units)) : BigDecimal.ZERO;
+    }
+
+    public CartItemDTO toDTO() {
+        CartItemDTO dto = new CartItemDTO();
+        dto.setItemType(itemType);
+        dto.setUnitPrice(unitPrice);
+        dto.setTotalPrice(getTotalPrice());
+        if (isProduct()) {
+            dto.setProductId(productId);
+            dto.setProductName(productName != null ? productName : "Unknown Product");
+            dto.setProductSku(productSku != null ? productSku : "N/A");
+            dto.setQuantity(quantity);
+        } else {
+            dto.setServiceId(serviceId);
+            dto.setServiceName(serviceName != null ? serviceName : "Unknown Service");
+            dto.setRentalPeriod(rentalPeriod);
+            dto.setRentalPeriodType(rentalPeriodType);
+        }
+        return dto;
+    }
+}
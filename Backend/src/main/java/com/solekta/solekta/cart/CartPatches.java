@@ -0,0 +1,65 @@
+package com.solekta.solekta.cart;
+
+import com.solekta.solekta.dto.CartPatchOperation;
+import com.solekta.solekta.dto.CartPatchRequest;
+import com.solekta.solekta.model.CartItem;
+
+import java.util.List;
+
+/**
+ * Validation and keying of PATCH /api/cart operations, shared by both cart modes.
+ */
+public final class CartPatches {
+
+    public static final int MAX_OPERATIONS = 100;
+
+    private CartPatches() {
+    }
+
+    public static List<CartPatchOperation> validate(CartPatchRequest request) {
+        List<CartPatchOperation> operations = request.getOperations() != null ? request.getOperations() : List.of();
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_OPERATIONS + " operations per request");
+        }
+        for (CartPatchOperation operation : operations) {
+            if (operation.getAction() == null) {
+                throw new IllegalArgumentException("Every operation needs an action");
+            }
+            if (operation.getItemType() == null) {
+                operation.setItemType(CartItem.ItemType.PRODUCT);
+            }
+            boolean changes = operation.getAction() != CartPatchOperation.Action.REMOVE;
+            if (operation.isService()) {
+                if (operation.getServiceId() == null) {
+                    throw new IllegalArgumentException("Service operations need a serviceId");
+                }
+                if (changes && (operation.getRentalPeriod() == null || operation.getRentalPeriod() <= 0)) {
+                    throw new IllegalArgumentException("Service " + operation.getServiceId() + " needs a positive rentalPeriod");
+                }
+            } else {
+                if (operation.getProductId() == null) {
+                    throw new IllegalArgumentException("Product operations need a productId");
+                }
+                boolean adds = operation.getAction() == CartPatchOperation.Action.ADD;
+                if (changes && (operation.getQuantity() == null || adds && operation.getQuantity() <= 0)) {
+                    throw new IllegalArgumentException("Product " + operation.getProductId() + " needs a positive quantity");
+                }
+            }
+        }
+        return operations;
+    }
+
+    public static String key(CartPatchOperation operation) {
+        return CartSyncItems.key(operation.getItemType(), operation.getProductId(), operation.getServiceId());
+    }
+
+    // Ids of the products (or services) the operations may add, for one batched name lookup
+    public static List<Long> addedIds(List<CartPatchOperation> operations, boolean services) {
+        return operations.stream()
+                .filter(operation -> operation.getAction() == CartPatchOperation.Action.ADD)
+                .filter(operation -> operation.isService() == services)
+                .map(operation -> services ? operation.getServiceId() : operation.getProductId())
+                .distinct()
+                .toList();
+    }
+}
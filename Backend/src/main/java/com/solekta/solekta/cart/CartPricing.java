@@ -0,0 +1,206 @@
+package com.solekta.solekta.cart;
+
+import com.solekta.solekta.dto.CartItemDTO;
+import com.solekta.solekta.dto.CatalogPrice;
+import com.solekta.solekta.event.CatalogChangedEvent;
+import com.solekta.solekta.exception.ResourceNotFoundException;
+import com.solekta.solekta.model.CartItem;
+import com.solekta.solekta.model.RentalService;
+import com.solekta.solekta.repository.ProductRepository;
+import com.solekta.solekta.repository.ServiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Authoritative cart prices. The server never takes a price from the client: cart
+ * lines are priced from an in-memory {@link PriceSnapshot}, so pricing a cart costs
+ * no database reads. The snapshot is replaced atomically, one entry at a time, after
+ * each product or service write committed on this node, and reloaded in full every
+ * app.cart.pricing.reload-interval-ms to pick up writes made on other nodes.
+ *
+ * Checkout does not trust the snapshot: {@link #revalidate} prices the order from
+ * the database, with one query per item type for the whole cart.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartPricing {
+
+    private final ProductRepository productRepository;
+    private final ServiceRepository serviceRepository;
+
+    private final AtomicReference<PriceSnapshot> current = new AtomicReference<>();
+
+    /**
+     * Result of {@link #revalidate}: the cart subtotal at current database prices
+     * and how many lines had a stale price.
+     */
+    public record Revalidation(BigDecimal subtotal, int changedLines) {
+    }
+
+    /**
+     * Reads run under the same lock as {@link #onCatalogChanged}, so a write never
+     * lands before a reload that read older rows and is never lost while the first
+     * load is running.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.cart.pricing.reload-interval-ms:60000}",
+            fixedDelayString = "${app.cart.pricing.reload-interval-ms:60000}")
+    public synchronized void load() {
+        long start = System.currentTimeMillis();
+        PriceSnapshot previous = current.get();
+        PriceSnapshot loaded = read(previous != null ? previous.getVersion() + 1 : 1,
+                productRepository.findAllPrices(), serviceRepository.findAllPrices());
+        current.set(loaded);
+        log.debug("Loaded {} cart prices in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Reads and applies one write under the lock: a later read sees at least what
+     * an earlier one saw, so two commits to the same entry cannot apply out of order.
+     * Writes before the first load are skipped; that load reads them anyway.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (current.get() == null) {
+            return;
+        }
+        Long id = event.getEntityId();
+        switch (event.getEntityType()) {
+            case PRODUCT -> {
+                List<CatalogPrice> rows = productRepository.findPrices(List.of(id));
+                BigDecimal price = rows.isEmpty() ? null : rows.get(0).getPrice();
+                current.updateAndGet(snapshot -> snapshot.withProduct(id, price));
+            }
+            case SERVICE -> {
+                List<CatalogPrice> rows = serviceRepository.findPrices(List.of(id));
+                CatalogPrice row = rows.isEmpty() ? null : rows.get(0);
+                current.updateAndGet(snapshot -> row != null
+                        ? snapshot.withService(id, row.getPrice(), row.getPricePerHour())
+                        : snapshot.withService(id, null, null));
+            }
+            default -> {
+                // Categories carry no prices
+            }
+        }
+    }
+
+    public PriceSnapshot snapshot() {
+        PriceSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            // Used before startup finished loading
+            synchronized (this) {
+                if (current.get() == null) {
+                    load();
+                }
+            }
+            snapshot = current.get();
+        }
+        return snapshot;
+    }
+
+    public BigDecimal productPrice(Long productId) {
+        return productPrice(snapshot(), productId);
+    }
+
+    public BigDecimal servicePrice(Long serviceId, RentalService.RentalPeriodType periodType) {
+        return servicePrice(snapshot(), serviceId, periodType);
+    }
+
+    public BigDecimal price(CartItem.ItemType type, Long productId, Long serviceId,
+                            RentalService.RentalPeriodType periodType) {
+        return type == CartItem.ItemType.SERVICE ? servicePrice(serviceId, periodType) : productPrice(productId);
+    }
+
+    /**
+     * Re-prices checkout lines in place at the prices in the database, in a single
+     * pass, and returns the resulting subtotal. The snapshot may lag writes made on
+     * other nodes, so it is not used here. Fails when a line's product or service is gone.
+     */
+    public Revalidation revalidate(List<CartItemDTO> lines) {
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> serviceIds = new HashSet<>();
+        for (CartItemDTO line : lines) {
+            if (line.isService()) {
+                serviceIds.add(line.getServiceId());
+            } else {
+                productIds.add(line.getProductId());
+            }
+        }
+        PriceSnapshot prices = read(0,
+                productIds.isEmpty() ? List.of() : productRepository.findPrices(productIds),
+                serviceIds.isEmpty() ? List.of() : serviceRepository.findPrices(serviceIds));
+
+        BigDecimal subtotal = BigDecimal.ZERO;
+        int changed = 0;
+        for (CartItemDTO line : lines) {
+            BigDecimal unitPrice;
+            long units;
+            if (line.isService()) {
+                unitPrice = servicePrice(prices, line.getServiceId(), line.getRentalPeriodType());
+                units = line.getRentalPeriod();
+            } else {
+                unitPrice = productPrice(prices, line.getProductId());
+                units = line.getQuantity();
+            }
+            BigDecimal totalPrice = unitPrice.multiply(BigDecimal.valueOf(units));
+            if (line.getUnitPrice() == null || unitPrice.compareTo(line.getUnitPrice()) != 0) {
+                changed++;
+                line.setUnitPrice(unitPrice);
+            }
+            line.setTotalPrice(totalPrice);
+            subtotal = subtotal.add(totalPrice);
+        }
+        return new Revalidation(subtotal, changed);
+    }
+
+    private static PriceSnapshot read(long version, List<CatalogPrice> productRows, List<CatalogPrice> serviceRows) {
+        Map<Long, BigDecimal> products = new HashMap<>();
+        for (CatalogPrice row : productRows) {
+            if (row.getPrice() != null) {
+                products.put(row.getId(), PriceSnapshot.money(row.getPrice()));
+            }
+        }
+        Map<Long, PriceSnapshot.ServicePrice> services = new HashMap<>();
+        for (CatalogPrice row : serviceRows) {
+            if (row.getPrice() != null) {
+                services.put(row.getId(), new PriceSnapshot.ServicePrice(row.getPrice(), row.getPricePerHour()));
+            }
+        }
+        return new PriceSnapshot(version, products, services);
+    }
+
+    private static BigDecimal productPrice(PriceSnapshot snapshot, Long productId) {
+        BigDecimal price = snapshot.productPrice(productId);
+        if (price == null) {
+            throw new ResourceNotFoundException("Product not found with ID: " + productId);
+        }
+        return price;
+    }
+
+    private static BigDecimal servicePrice(PriceSnapshot snapshot, Long serviceId,
+                                           RentalService.RentalPeriodType periodType) {
+        BigDecimal price = snapshot.servicePrice(serviceId, periodType);
+        if (price == null) {
+            if (snapshot.hasService(serviceId)) {
+                throw new IllegalArgumentException("Service " + serviceId + " cannot be rented " +
+                        (periodType == RentalService.RentalPeriodType.HOURLY ? "hourly" : "daily"));
+            }
+            throw new ResourceNotFoundException("Service not found with ID: " + serviceId);
+        }
+        return price;
+    }
+}
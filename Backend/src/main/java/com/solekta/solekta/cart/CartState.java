@@ -0,0 +1,101 @@
+package com.solekta.solekta.cart;
+
+import com.solekta.solekta.dto.CartDTO;
+import com.solekta.solekta.dto.CartSummaryDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of a customer's cart as held by a {@link CartStore}.
+ * Every mutation returns a new snapshot with a higher version; the store
+ * compares versions to tell carts with unflushed changes from clean ones.
+ */
+@Getter
+@AllArgsConstructor
+public final class CartState {
+
+    // Null until the cart has been written to shopping_carts
+    private final Long cartId;
+    private final Long customerId;
+    private final List<CartLine> lines;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    // 0 for a cart as loaded from the database
+    private final long version;
+    // Epoch millis of the last load or mutation, for idle eviction
+    private final long lastUsed;
+    // Last client version applied by /api/cart/sync
+    private final Long lastSyncVersion;
+    // shopping_carts.version when the cart was loaded
+    private final long baseVersion;
+
+    public static CartState empty(Long customerId) {
+        LocalDateTime now = LocalDateTime.now();
+        return new CartState(null, customerId, List.of(), now, now, 0, System.currentTimeMillis(), null, 0);
+    }
+
+    public static CartState loaded(Long cartId, Long customerId, List<CartLine> lines, LocalDateTime createdAt,
+                                   LocalDateTime updatedAt, Long lastSyncVersion, Long storedVersion) {
+        return new CartState(cartId, customerId, List.copyOf(lines), createdAt, updatedAt, 0,
+                System.currentTimeMillis(), lastSyncVersion, storedVersion != null ? storedVersion : 0);
+    }
+
+    public CartState withLines(List<CartLine> newLines) {
+        return withSync(newLines, lastSyncVersion);
+    }
+
+    public CartState withSync(List<CartLine> newLines, Long syncVersion) {
+        return new CartState(cartId, customerId, List.copyOf(newLines), createdAt, LocalDateTime.now(),
+                version + 1, System.currentTimeMillis(), syncVersion, baseVersion);
+    }
+
+    // Does not count as a change: the id only becomes known once the cart is flushed
+    public CartState withCartId(Long newCartId) {
+        return new CartState(newCartId, customerId, lines, createdAt, updatedAt, version, lastUsed, lastSyncVersion,
+                baseVersion);
+    }
+
+    // Same rules as CartService: products count by quantity, each service once
+    public int getItemCount() {
+        int itemCount = 0;
+        for (CartLine line : lines) {
+            itemCount += line.isService() ? 1 : line.getQuantity();
+        }
+        return itemCount;
+    }
+
+    public BigDecimal getSubtotal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (CartLine line : lines) {
+            subtotal = subtotal.add(line.getTotalPrice());
+        }
+        return subtotal;
+    }
+
+    // Value of shopping_carts.version once this snapshot is flushed
+    public long getCartVersion() {
+        return baseVersion + version;
+    }
+
+    public CartSummaryDTO toSummary() {
+        return new CartSummaryDTO(cartId, getItemCount(), getSubtotal(), getCartVersion(), updatedAt);
+    }
+
+    public CartDTO toDTO() {
+        CartDTO dto = new CartDTO();
+        dto.setId(cartId);
+        dto.setCustomerId(customerId);
+        dto.setCreatedAt(createdAt);
+        dto.setUpdatedAt(updatedAt);
+        dto.setItemCount(getItemCount());
+        dto.setSubtotal(getSubtotal());
+        dto.setVersion(getCartVersion());
+        dto.setCartItems(lines.stream().map(CartLine::toDTO).collect(Collectors.toList()));
+        return dto;
+    }
+}
@@ -0,0 +1,42 @@
+package com.solekta.solekta.cart;
+
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds live carts keyed by customer id for the write-behind cart mode, along
+ * with the set of carts whose changes have not been flushed to MySQL yet.
+ * Implementations must apply {@link #compute} atomically per customer; a
+ * Redis-backed store can do so with WATCH/MULTI on the cart key.
+ */
+public interface CartStore {
+
+    /**
+     * Resident cart of the customer, or null.
+     */
+    CartState get(Long customerId);
+
+    /**
+     * Atomically replaces the customer's cart with the result of the function,
+     * which receives null when no cart is resident and must not return null.
+     * The cart becomes dirty when the returned version differs from the current one.
+     */
+    CartState compute(Long customerId, UnaryOperator<CartState> function);
+
+    Set<Long> dirtyCustomerIds();
+
+    boolean isDirty(Long customerId);
+
+    /**
+     * Clears the dirty flag if the cart is still at the given version, i.e. was
+     * not changed again while it was being flushed.
+     */
+    void markClean(Long customerId, long version);
+
+    /**
+     * Drops clean carts not used since the given epoch millis; returns how many.
+     */
+    int evictIdle(long usedBefore);
+
+    int size();
+}
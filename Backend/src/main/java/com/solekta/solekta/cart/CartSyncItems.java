@@ -0,0 +1,63 @@
+package com.solekta.solekta.cart;
+
+import com.solekta.solekta.dto.CartItemDTO;
+import com.solekta.solekta.model.CartItem;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates the client cart sent to /api/cart/sync and keys it the same way as
+ * stored lines, so both cart modes diff against it identically.
+ */
+public final class CartSyncItems {
+
+    private CartSyncItems() {
+    }
+
+    public static String key(CartItem.ItemType type, Long productId, Long serviceId) {
+        return type == CartItem.ItemType.SERVICE ? "S" + serviceId : "P" + productId;
+    }
+
+    /**
+     * Desired lines by key, in request order. Repeated products add up their
+     * quantities; for a repeated service the last entry wins.
+     */
+    public static Map<String, CartItemDTO> normalize(List<CartItemDTO> items) {
+        Map<String, CartItemDTO> desired = new LinkedHashMap<>();
+        if (items == null) {
+            return desired;
+        }
+        for (CartItemDTO item : items) {
+            boolean service = item.getItemType() == CartItem.ItemType.SERVICE;
+            if (service) {
+                if (item.getServiceId() == null || item.getRentalPeriod() == null || item.getRentalPeriod() <= 0) {
+                    throw new IllegalArgumentException("Service lines need a serviceId and a positive rentalPeriod");
+                }
+            } else if (item.getProductId() == null || item.getProductId() <= 0
+                    || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Product lines need a productId and a positive quantity");
+            }
+            CartItem.ItemType type = service ? CartItem.ItemType.SERVICE : CartItem.ItemType.PRODUCT;
+            desired.merge(key(type, item.getProductId(), item.getServiceId()), copy(item, type), (previous, next) -> {
+                if (!service) {
+                    next.setQuantity(previous.getQuantity() + next.getQuantity());
+                }
+                return next;
+            });
+        }
+        return desired;
+    }
+
+    private static CartItemDTO copy(CartItemDTO item, CartItem.ItemType type) {
+        CartItemDTO copy = new CartItemDTO();
+        copy.setItemType(type);
+        copy.setProductId(type == CartItem.ItemType.PRODUCT ? item.getProductId() : null);
+        copy.setQuantity(type == CartItem.ItemType.PRODUCT ? item.getQuantity() : null);
+        copy.setServiceId(type == CartItem.ItemType.SERVICE ? item.getServiceId() : null);
+        copy.setRentalPeriod(item.getRentalPeriod());
+        copy.setRentalPeriodType(item.getRentalPeriodType());
+        return copy;
+    }
+}
@@ -0,0 +1,84 @@
+package com.solekta.solekta.cart;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-node {@link CartStore}. ConcurrentHashMap locks per bin, so only
+ * customers hashing to the same bin ever contend, and reads take no lock.
+ * Dirty flags are changed inside the map's per-key compute, which keeps them
+ * consistent with the cart version they describe.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "write-behind")
+public class InMemoryCartStore implements CartStore {
+
+    private final ConcurrentHashMap<Long, CartState> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public CartState get(Long customerId) {
+        return carts.get(customerId);
+    }
+
+    @Override
+    public CartState compute(Long customerId, UnaryOperator<CartState> function) {
+        return carts.compute(customerId, (id, current) -> {
+            CartState next = Objects.requireNonNull(function.apply(current), "cart state");
+            long currentVersion = current != null ? current.getVersion() : 0;
+            if (next.getVersion() != currentVersion) {
+                dirty.add(id);
+            }
+            return next;
+        });
+    }
+
+    @Override
+    public Set<Long> dirtyCustomerIds() {
+        return Set.copyOf(dirty);
+    }
+
+    @Override
+    public boolean isDirty(Long customerId) {
+        return dirty.contains(customerId);
+    }
+
+    @Override
+    public void markClean(Long customerId, long version) {
+        carts.computeIfPresent(customerId, (id, current) -> {
+            if (current.getVersion() == version) {
+                dirty.remove(id);
+            }
+            return current;
+        });
+    }
+
+    @Override
+    public int evictIdle(long usedBefore) {
+        int evicted = 0;
+        for (Long customerId : carts.keySet()) {
+            boolean[] removed = new boolean[1];
+            carts.computeIfPresent(customerId, (id, current) -> {
+                if (!dirty.contains(id) && current.getLastUsed() < usedBefore) {
+                    removed[0] = true;
+                    return null;
+                }
+                return current;
+            });
+            if (removed[0]) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    @Override
+    public int size() {
+        return carts.size();
+    }
+}
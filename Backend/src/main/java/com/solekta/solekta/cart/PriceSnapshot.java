@@ -0,0 +1,86 @@
+package com.solekta.solekta.cart;
+
+import com.solekta.solekta.model.RentalService;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable price list of the whole catalog at one version. Every change produces a
+ * new snapshot with the next version, so a reader holding one snapshot prices a
+ * whole cart consistently even while the catalog is being edited.
+ */
+public final class PriceSnapshot {
+
+    private final long version;
+    private final Map<Long, BigDecimal> products;
+    private final Map<Long, ServicePrice> services;
+
+    record ServicePrice(BigDecimal perDay, BigDecimal perHour) {
+    }
+
+    PriceSnapshot(long version, Map<Long, BigDecimal> products, Map<Long, ServicePrice> services) {
+        this.version = version;
+        this.products = Map.copyOf(products);
+        this.services = Map.copyOf(services);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return products.size() + services.size();
+    }
+
+    /**
+     * Unit price of a product, or null when it does not exist or has no price.
+     */
+    public BigDecimal productPrice(Long productId) {
+        return productId != null ? products.get(productId) : null;
+    }
+
+    /**
+     * Price per hour or per day of a service, or null when it does not exist or is
+     * not offered for that period type.
+     */
+    public BigDecimal servicePrice(Long serviceId, RentalService.RentalPeriodType periodType) {
+        ServicePrice price = serviceId != null ? services.get(serviceId) : null;
+        if (price == null) {
+            return null;
+        }
+        return periodType == RentalService.RentalPeriodType.HOURLY ? price.perHour() : price.perDay();
+    }
+
+    boolean hasService(Long serviceId) {
+        return serviceId != null && services.containsKey(serviceId);
+    }
+
+    // Null price removes the entry
+    PriceSnapshot withProduct(Long productId, BigDecimal price) {
+        Map<Long, BigDecimal> next = new HashMap<>(products);
+        if (price != null) {
+            next.put(productId, money(price));
+        } else {
+            next.remove(productId);
+        }
+        return new PriceSnapshot(version + 1, next, services);
+    }
+
+    // Null perDay removes the entry
+    PriceSnapshot withService(Long serviceId, BigDecimal perDay, BigDecimal perHour) {
+        Map<Long, ServicePrice> next = new HashMap<>(services);
+        if (perDay != null) {
+            next.put(serviceId, new ServicePrice(perDay, perHour));
+        } else {
+            next.remove(serviceId);
+        }
+        return new PriceSnapshot(version + 1, products, next);
+    }
+
+    static BigDecimal money(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP);
+    }
+}
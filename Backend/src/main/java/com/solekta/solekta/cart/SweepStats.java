@@ -0,0 +1,24 @@
+package com.solekta.solekta.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Point-in-time counters of the {@link AbandonedCartSweeper} on this node. Runs
+ * skipped because another node held the lease are counted but purge nothing.
+ */
+@Getter
+@AllArgsConstructor
+public class SweepStats {
+
+    private final long runs;
+    private final long skippedRuns;
+    private final long cartsPurged;
+    private final long itemsPurged;
+    private final long totalDurationMs;
+    private final LocalDateTime lastRunAt;
+    private final long lastCartsPurged;
+    private final long lastDurationMs;
+}
@@ -0,0 +1,494 @@
+package com.solekta.solekta.cart;
+
+import com.solekta.solekta.dto.CartDTO;
+import com.solekta.solekta.dto.CartItemDTO;
+import com.solekta.solekta.dto.CartLineRef;
+import com.solekta.solekta.dto.CartPatchOperation;
+import com.solekta.solekta.dto.CartPatchRequest;
+import com.solekta.solekta.dto.CartSummaryDTO;
+import com.solekta.solekta.dto.SyncCartRequest;
+import com.solekta.solekta.exception.ResourceNotFoundException;
+import com.solekta.solekta.model.CartItem;
+import com.solekta.solekta.model.RentalService;
+import com.solekta.solekta.repository.ShoppingCartRepository;
+import com.solekta.solekta.service.CartLineResolver;
+import com.solekta.solekta.service.CartOperations;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cart mode that keeps live carts in a {@link CartStore} and writes them behind:
+ * cart clicks only touch memory, and dirty carts are flushed to MySQL in JDBC batches
+ * every app.cart.flush-interval-ms and on shutdown. Checkout empties the cart once
+ * its order has committed. A cart is loaded from MySQL the first time it is used.
+ *
+ * Assumes a single application instance owns the carts; changes made within the
+ * last flush interval are lost if the process dies without a clean shutdown.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "write-behind")
+public class WriteBehindCartService implements CartOperations {
+
+    private final CartStore cartStore;
+    private final CartFlushWriter flushWriter;
+    private final ShoppingCartRepository cartRepository;
+    private final CartLineResolver cartLineResolver;
+    private final CartPricing cartPricing;
+
+    @Value("${app.cart.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${app.cart.idle-eviction-ms:1800000}")
+    private long idleEvictionMs;
+
+    public WriteBehindCartService(CartStore cartStore, CartFlushWriter flushWriter,
+                                  ShoppingCartRepository cartRepository, CartLineResolver cartLineResolver,
+                                  CartPricing cartPricing) {
+        this.cartStore = cartStore;
+        this.flushWriter = flushWriter;
+        this.cartRepository = cartRepository;
+        this.cartLineResolver = cartLineResolver;
+        this.cartPricing = cartPricing;
+    }
+
+    @Override
+    public CartDTO getCartByCustomerId(Long customerId) {
+        return load(customerId).toDTO();
+    }
+
+    @Override
+    public CartSummaryDTO getCartSummary(Long customerId) {
+        CartState resident = cartStore.get(customerId);
+        if (resident != null) {
+            return resident.toSummary();
+        }
+        CartSummaryDTO summary = cartRepository.findSummaryByCustomerId(customerId).orElse(null);
+        if (summary == null) {
+            return new CartSummaryDTO(null, 0, BigDecimal.ZERO, 0L, null);
+        }
+        // Carts from before the totals columns existed need their lines
+        return summary.getItemCount() != null ? summary : load(customerId).toSummary();
+    }
+
+    @Override
+    public CartDTO addItemToCart(Long customerId, Long productId, Integer quantity) {
+        BigDecimal unitPrice = cartPricing.productPrice(productId);
+        CartLineRef product = cartLineResolver.product(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
+
+        CartState cart = mutate(customerId, lines -> {
+            int index = indexOfProduct(lines, productId);
+            if (index >= 0) {
+                CartLine existing = lines.get(index);
+                lines.set(index, existing.toBuilder().quantity(existing.getQuantity() + quantity)
+                        .unitPrice(unitPrice).build());
+            } else {
+                lines.add(CartLine.builder()
+                        .itemType(CartItem.ItemType.PRODUCT)
+                        .productId(productId)
+                        .productName(product.getName())
+                        .productSku(product.getSku() != null ? product.getSku() : "N/A")
+                        .quantity(quantity)
+                        .unitPrice(unitPrice)
+                        .build());
+            }
+        });
+        log.info("Added item {} to cart for customer {}", productId, customerId);
+        return cart.toDTO();
+    }
+
+    @Override
+    public CartDTO updateCartItem(Long customerId, Long productId, Integer quantity) {
+        CartState cart = mutate(customerId, lines -> {
+            int index = indexOfProduct(lines, productId);
+            if (index < 0) {
+                throw new ResourceNotFoundException("Cart item not found");
+            }
+            if (quantity <= 0) {
+                lines.remove(index);
+            } else {
+                lines.set(index, priced(lines.get(index).toBuilder().quantity(quantity).build()));
+            }
+        });
+        log.info("Updated cart item {} for customer {}", productId, customerId);
+        return cart.toDTO();
+    }
+
+    @Override
+    public void removeItemFromCart(Long customerId, Long productId) {
+        mutate(customerId, lines -> lines.removeIf(line -> line.isProduct() && productId.equals(line.getProductId())));
+        log.info("Removed item {} from cart for customer {}", productId, customerId);
+    }
+
+    @Override
+    public CartDTO addServiceToCart(Long customerId, Long serviceId, Integer rentalPeriod,
+                                    RentalService.RentalPeriodType periodType) {
+        BigDecimal unitPrice = cartPricing.servicePrice(serviceId, periodType);
+        CartLineRef service = cartLineResolver.service(serviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Service not found with ID: " + serviceId));
+
+        CartState cart = mutate(customerId, lines -> {
+            int index = indexOfService(lines, serviceId);
+            if (index >= 0) {
+                lines.set(index, lines.get(index).toBuilder()
+                        .rentalPeriod(rentalPeriod)
+                        .rentalPeriodType(periodType)
+                        .unitPrice(unitPrice)
+                        .build());
+            } else {
+                lines.add(CartLine.builder()
+                        .itemType(CartItem.ItemType.SERVICE)
+                        .serviceId(serviceId)
+                        .serviceName(service.getName())
+                        .rentalPeriod(rentalPeriod)
+                        .rentalPeriodType(periodType)
+                        .unitPrice(unitPrice)
+                        .build());
+            }
+        });
+        log.info("Added service {} to cart for customer {} with rental period {} {}",
+                serviceId, customerId, rentalPeriod, periodType);
+        return cart.toDTO();
+    }
+
+    @Override
+    public CartDTO removeServiceFromCart(Long customerId, Long serviceId) {
+        CartState cart = mutate(customerId, lines -> {
+            int index = indexOfService(lines, serviceId);
+            if (index < 0) {
+                throw new ResourceNotFoundException("Service not found in cart");
+            }
+            lines.remove(index);
+        });
+        log.info("Removed service {} from cart for customer {}", serviceId, customerId);
+        return cart.toDTO();
+    }
+
+    @Override
+    public CartDTO syncCart(Long customerId, SyncCartRequest request) {
+        Map<String, CartItemDTO> desired = CartSyncItems.normalize(request.getItems());
+        Long version = request.getVersion();
+        // Names for every requested line, resolved before taking the per-customer update
+        Map<Long, Optional<CartLineRef>> products = cartLineResolver.products(desired.values().stream()
+                .filter(CartItemDTO::isProduct).map(CartItemDTO::getProductId).toList());
+        Map<Long, Optional<CartLineRef>> services = cartLineResolver.services(desired.values().stream()
+                .filter(CartItemDTO::isService).map(CartItemDTO::getServiceId).toList());
+
+        CartState loaded = load(customerId);
+        CartState cart = cartStore.compute(customerId, current -> {
+            CartState base = current != null ? current : loaded;
+            if (version != null && base.getLastSyncVersion() != null && version <= base.getLastSyncVersion()) {
+                return base;
+            }
+            Map<String, CartLine> stored = new HashMap<>();
+            for (CartLine line : base.getLines()) {
+                stored.put(CartSyncItems.key(line.getItemType(), line.getProductId(), line.getServiceId()), line);
+            }
+            List<CartLine> lines = new ArrayList<>();
+            for (Map.Entry<String, CartItemDTO> entry : desired.entrySet()) {
+                CartLine existing = stored.get(entry.getKey());
+                CartItemDTO wanted = entry.getValue();
+                CartLine line = existing != null ? synced(existing, wanted) : newLine(wanted, products, services);
+                if (line != null) {
+                    lines.add(line);
+                }
+            }
+            return base.withSync(lines, version != null ? version : base.getLastSyncVersion());
+        });
+        log.info("Synced cart for customer {} ({} lines)", customerId, cart.getLines().size());
+        return cart.toDTO();
+    }
+
+    @Override
+    public CartDTO patchCart(Long customerId, CartPatchRequest request) {
+        List<CartPatchOperation> operations = CartPatches.validate(request);
+        Map<Long, Optional<CartLineRef>> products = cartLineResolver.products(CartPatches.addedIds(operations, false));
+        Map<Long, Optional<CartLineRef>> services = cartLineResolver.services(CartPatches.addedIds(operations, true));
+
+        // Runs as one per-customer update: an operation that throws leaves the cart untouched
+        CartState cart = mutate(customerId, lines -> {
+            for (CartPatchOperation operation : operations) {
+                int index = operation.isService() ? indexOfService(lines, operation.getServiceId())
+                        : indexOfProduct(lines, operation.getProductId());
+                CartLine line = index >= 0 ? lines.get(index) : null;
+                switch (operation.getAction()) {
+                    case ADD -> {
+                        if (line == null) {
+                            CartLineRef ref = (operation.isService() ? services.get(operation.getServiceId())
+                                    : products.get(operation.getProductId()))
+                                    .orElseThrow(() -> new ResourceNotFoundException(operation.isService()
+                                            ? "Service not found with ID: " + operation.getServiceId()
+                                            : "Product not found with ID: " + operation.getProductId()));
+                            lines.add(newLine(ref, operation.getItemType(), operation.getQuantity(),
+                                    operation.getRentalPeriod(), operation.getRentalPeriodType()));
+                        } else if (line.isService()) {
+                            lines.set(index, priced(line.toBuilder().rentalPeriod(operation.getRentalPeriod())
+                                    .rentalPeriodType(operation.getRentalPeriodType()).build()));
+                        } else {
+                            lines.set(index, priced(line.toBuilder()
+                                    .quantity(line.getQuantity() + operation.getQuantity()).build()));
+                        }
+                    }
+                    case UPDATE -> {
+                        if (line == null) {
+                            throw new ResourceNotFoundException(operation.isService()
+                                    ? "Service not found in cart" : "Cart item not found");
+                        }
+                        if (line.isService()) {
+                            lines.set(index, priced(line.toBuilder().rentalPeriod(operation.getRentalPeriod())
+                                    .rentalPeriodType(operation.getRentalPeriodType()).build()));
+                        } else if (operation.getQuantity() <= 0) {
+                            lines.remove(index);
+                        } else {
+                            lines.set(index, priced(line.toBuilder().quantity(operation.getQuantity()).build()));
+                        }
+                    }
+                    case REMOVE -> {
+                        if (line != null) {
+                            lines.remove(index);
+                        } else if (operation.isService()) {
+                            throw new ResourceNotFoundException("Service not found in cart");
+                        }
+                    }
+                }
+            }
+        });
+        log.info("Applied {} cart operations for customer {}", operations.size(), customerId);
+        return cart.toDTO();
+    }
+
+    @Override
+    public void clearCart(Long customerId) {
+        mutate(customerId, List::clear);
+        log.info("Cleared cart for customer {}", customerId);
+    }
+
+    /**
+     * The in-memory cart is not rolled back with the checkout, so the ordered lines
+     * are removed only once the order has committed. If the cart is still at the
+     * version the order was built from it is emptied; otherwise only lines still
+     * exactly as ordered are removed. The emptied cart reaches MySQL with the next
+     * scheduled flush.
+     */
+    @Override
+    public void clearOrderedCart(CartDTO orderedCart) {
+        Long customerId = orderedCart.getCustomerId();
+        long orderedVersion = orderedCart.getVersion();
+        Map<String, CartItemDTO> ordered = new HashMap<>();
+        for (CartItemDTO item : orderedCart.getCartItems()) {
+            ordered.put(CartSyncItems.key(item.getItemType(), item.getProductId(), item.getServiceId()), item);
+        }
+        afterCommit(() -> {
+            CartState loaded = load(customerId);
+            CartState cart = cartStore.compute(customerId, current -> {
+                CartState base = current != null ? current : loaded;
+                if (base.getCartVersion() == orderedVersion) {
+                    return base.withLines(List.of());
+                }
+                List<CartLine> remaining = new ArrayList<>();
+                for (CartLine line : base.getLines()) {
+                    CartItemDTO item = ordered.get(
+                            CartSyncItems.key(line.getItemType(), line.getProductId(), line.getServiceId()));
+                    if (item == null || !isAsOrdered(line, item)) {
+                        remaining.add(line);
+                    }
+                }
+                return remaining.size() == base.getLines().size() ? base : base.withLines(remaining);
+            });
+            log.info("Cleared ordered cart for customer {} ({} lines left)", customerId, cart.getLines().size());
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:5000}")
+    public void flushDirty() {
+        List<CartState> batch = new ArrayList<>();
+        for (Long customerId : cartStore.dirtyCustomerIds()) {
+            CartState cart = cartStore.get(customerId);
+            if (cart != null) {
+                batch.add(cart);
+            }
+            if (batch.size() >= flushBatchSize) {
+                writeQuietly(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeQuietly(batch);
+        }
+        int evicted = cartStore.evictIdle(System.currentTimeMillis() - idleEvictionMs);
+        if (evicted > 0) {
+            log.debug("Evicted {} idle carts, {} resident", evicted, cartStore.size());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int dirty = cartStore.dirtyCustomerIds().size();
+        if (dirty > 0) {
+            log.info("Flushing {} carts before shutdown", dirty);
+            flushDirty();
+        }
+    }
+
+    // ===== Internals =====
+
+    private CartState load(Long customerId) {
+        CartState resident = cartStore.get(customerId);
+        if (resident != null) {
+            return resident;
+        }
+        CartState loaded = cartRepository.findWithItemsByCustomerId(customerId)
+                .map(cart -> CartState.loaded(cart.getId(), customerId,
+                        cart.getCartItems().stream().map(CartLine::of).toList(),
+                        cart.getCreatedAt(), cart.getUpdatedAt(), cart.getLastSyncVersion(), cart.getVersion()))
+                .orElseGet(() -> CartState.empty(customerId));
+        // Another request may have loaded it meanwhile; keep theirs
+        return cartStore.compute(customerId, current -> current != null ? current : loaded);
+    }
+
+    private interface LinesMutation {
+        void apply(List<CartLine> lines);
+    }
+
+    private CartState mutate(Long customerId, LinesMutation mutation) {
+        CartState loaded = load(customerId);
+        UnaryOperator<CartState> update = current -> {
+            CartState base = current != null ? current : loaded;
+            List<CartLine> lines = new ArrayList<>(base.getLines());
+            mutation.apply(lines);
+            return base.withLines(lines);
+        };
+        return cartStore.compute(customerId, update);
+    }
+
+    private void writeQuietly(List<CartState> carts) {
+        try {
+            write(carts);
+        } catch (RuntimeException e) {
+            // Carts stay dirty and are retried on the next tick
+            log.warn("Failed to flush {} carts: {}", carts.size(), e.getMessage(), e);
+        }
+    }
+
+    private void write(List<CartState> carts) {
+        Map<Long, Long> cartIds = flushWriter.write(carts);
+        afterCommit(() -> {
+            for (CartState cart : carts) {
+                Long cartId = cartIds.get(cart.getCustomerId());
+                if (cartId != null && !cartId.equals(cart.getCartId())) {
+                    // New or re-created after a sweep; dirty carts are never evicted, so it is still resident
+                    cartStore.compute(cart.getCustomerId(), current -> current == null ? cart.withCartId(cartId)
+                            : current.withCartId(cartId));
+                }
+                cartStore.markClean(cart.getCustomerId(), cart.getVersion());
+            }
+        });
+    }
+
+    private static boolean isAsOrdered(CartLine line, CartItemDTO item) {
+        return line.isService()
+                ? Objects.equals(line.getRentalPeriod(), item.getRentalPeriod())
+                        && line.getRentalPeriodType() == item.getRentalPeriodType()
+                : Objects.equals(line.getQuantity(), item.getQuantity());
+    }
+
+    // Applies the client's quantity / rental period; a changed line is re-priced
+    private CartLine synced(CartLine existing, CartItemDTO wanted) {
+        if (existing.isService()) {
+            if (wanted.getRentalPeriod().equals(existing.getRentalPeriod())
+                    && wanted.getRentalPeriodType() == existing.getRentalPeriodType()) {
+                return existing;
+            }
+            return priced(existing.toBuilder().rentalPeriod(wanted.getRentalPeriod())
+                    .rentalPeriodType(wanted.getRentalPeriodType()).build());
+        }
+        if (wanted.getQuantity().equals(existing.getQuantity())) {
+            return existing;
+        }
+        return priced(existing.toBuilder().quantity(wanted.getQuantity()).build());
+    }
+
+    // Current catalog price; snapshot lookups are in-memory, so this is safe inside compute
+    private CartLine priced(CartLine line) {
+        return line.toBuilder().unitPrice(cartPricing.price(line.getItemType(), line.getProductId(),
+                line.getServiceId(), line.getRentalPeriodType())).build();
+    }
+
+    // Null when the product or service no longer exists; such lines are dropped from the sync
+    private CartLine newLine(CartItemDTO wanted, Map<Long, Optional<CartLineRef>> products,
+                             Map<Long, Optional<CartLineRef>> services) {
+        Optional<CartLineRef> ref = wanted.isService() ? services.get(wanted.getServiceId())
+                : products.get(wanted.getProductId());
+        return ref.map(found -> newLine(found, wanted.getItemType(), wanted.getQuantity(), wanted.getRentalPeriod(),
+                wanted.getRentalPeriodType())).orElse(null);
+    }
+
+    private CartLine newLine(CartLineRef ref, CartItem.ItemType type, Integer quantity, Integer rentalPeriod,
+                             RentalService.RentalPeriodType periodType) {
+        BigDecimal unitPrice = cartPricing.price(type, ref.getId(), ref.getId(), periodType);
+        return type == CartItem.ItemType.SERVICE
+                ? CartLine.builder()
+                        .itemType(CartItem.ItemType.SERVICE)
+                        .serviceId(ref.getId())
+                        .serviceName(ref.getName())
+                        .rentalPeriod(rentalPeriod)
+                        .rentalPeriodType(periodType)
+                        .unitPrice(unitPrice)
+                        .build()
+                : CartLine.builder()
+                        .itemType(CartItem.ItemType.PRODUCT)
+                        .productId(ref.getId())
+                        .productName(ref.getName())
+                        .productSku(ref.getSku() != null ? ref.getSku() : "N/A")
+                        .quantity(quantity)
+                        .unitPrice(unitPrice)
+                        .build();
+    }
+
+    private static int indexOfProduct(List<CartLine> lines, Long productId) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isProduct() && productId.equals(lines.get(i).getProductId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfService(List<CartLine> lines, Long serviceId) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isService() && serviceId.equals(lines.get(i).getServiceId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.solekta.solekta.config;
+
+import com.solekta.solekta.model.CartItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepares cart_items for the {@link CartItem#LINE_CONSTRAINT} unique key. Rows saved
+ * before the key existed may leave the unused id NULL, which the key treats as distinct,
+ * and may hold the same line twice, in which case ddl-auto=update fails to add the key
+ * and only logs it. Before the app takes traffic this fills the sentinels, keeps the
+ * oldest row of every duplicated line and adds the key if it is still missing.
+ *
+ * Carts that lost a duplicate keep their stored totals until their next write; checkout
+ * re-prices every line anyway.
+ */
+@Component
+@Slf4j
+public class CartLineKeyMigration implements SmartInitializingSingleton {
+
+    private static final String BACKFILL_PRODUCT_LINES =
+            "UPDATE cart_items SET service_id = -1 WHERE item_type = 'PRODUCT' AND service_id IS NULL";
+    private static final String BACKFILL_SERVICE_LINES =
+            "UPDATE cart_items SET product_id = -1 WHERE item_type = 'SERVICE' AND product_id IS NULL";
+    private static final String COUNT_DUPLICATED_LINES =
+            "SELECT COUNT(*) FROM (SELECT 1 FROM cart_items GROUP BY cart_id, product_id, service_id "
+                    + "HAVING COUNT(*) > 1) duplicated";
+    // The derived table lets MySQL read cart_items while deleting from it
+    private static final String DELETE_DUPLICATES =
+            "DELETE FROM cart_items WHERE id NOT IN (SELECT id FROM (SELECT MIN(id) AS id FROM cart_items "
+                    + "GROUP BY cart_id, product_id, service_id) kept)";
+    private static final String COUNT_KEY =
+            "SELECT COUNT(*) FROM information_schema.table_constraints WHERE LOWER(table_schema) = LOWER(SCHEMA()) "
+                    + "AND LOWER(table_name) = 'cart_items' AND LOWER(constraint_name) = ?";
+    private static final String ADD_KEY =
+            "ALTER TABLE cart_items ADD CONSTRAINT " + CartItem.LINE_CONSTRAINT
+                    + " UNIQUE (cart_id, product_id, service_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CartLineKeyMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            int backfilled = jdbcTemplate.update(BACKFILL_PRODUCT_LINES) + jdbcTemplate.update(BACKFILL_SERVICE_LINES);
+            if (backfilled > 0) {
+                log.info("Filled the unused line id of {} cart items", backfilled);
+            }
+            Integer duplicated = jdbcTemplate.queryForObject(COUNT_DUPLICATED_LINES, Integer.class);
+            if (duplicated != null && duplicated > 0) {
+                int deleted = jdbcTemplate.update(DELETE_DUPLICATES);
+                log.warn("Deleted {} duplicate cart items across {} cart lines", deleted, duplicated);
+            }
+            Integer keys = jdbcTemplate.queryForObject(COUNT_KEY, Integer.class, CartItem.LINE_CONSTRAINT);
+            if (keys == null || keys == 0) {
+                jdbcTemplate.execute(ADD_KEY);
+                log.info("Added unique key {} to cart_items", CartItem.LINE_CONSTRAINT);
+            }
+        } catch (DataAccessException e) {
+            // Without the key concurrent adds can store one line twice
+            log.warn("Could not prepare cart_items for {}: {}", CartItem.LINE_CONSTRAINT, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.solekta.solekta.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Driver settings that belong with the code rather than in every deployment's URL.
+ */
+@Configuration
+public class DatabaseConfig {
+
+    /**
+     * Connector/J sends a JDBC batch as separate INSERTs unless rewriteBatchedStatements
+     * is on; with it, a hibernate.jdbc.batch_size batch becomes one multi-row INSERT.
+     */
+    @Bean
+    public static BeanPostProcessor mysqlBatchRewrite() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && dataSource.getJdbcUrl() != null
+                        && dataSource.getJdbcUrl().startsWith("jdbc:mysql:")) {
+                    dataSource.addDataSourceProperty("rewriteBatchedStatements", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
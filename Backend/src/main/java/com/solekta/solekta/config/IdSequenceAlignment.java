@@ -0,0 +1,66 @@
+package com.solekta.solekta.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Orders, order items and payments used to get AUTO_INCREMENT ids and now take them
+ * from pooled sequences, which MySQL stores as one-row tables (orders_seq, ...).
+ * Before the app takes traffic, each sequence is moved past the highest id already
+ * in its table, so existing databases never hand out an id twice.
+ *
+ * Dialects with native sequences (H2 in tests) skip the step, since Hibernate uses real
+ * sequences there instead of the tables. Otherwise a failed alignment stops startup:
+ * running on with a sequence below the existing ids would fail or collide on insert.
+ */
+@Component
+@Slf4j
+public class IdSequenceAlignment implements SmartInitializingSingleton {
+
+    // Matches allocationSize on the entities
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String[][] SEQUENCES = {
+            {"orders", "orders_seq"},
+            {"order_items", "order_items_seq"},
+            {"payment_transactions", "payment_transactions_seq"}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public IdSequenceAlignment(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        if (dialect.getSequenceSupport().supportsSequences()) {
+            log.debug("{} has native sequences, skipping id sequence alignment", dialect.getClass().getSimpleName());
+            return;
+        }
+        for (String[] sequence : SEQUENCES) {
+            try {
+                Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + sequence[0], Long.class);
+                // Clears the next block whether the optimizer hands out ids below or above next_val
+                long floor = (maxId != null ? maxId : 0) + ALLOCATION_SIZE + 1;
+                int moved = jdbcTemplate.update("UPDATE " + sequence[1] + " SET next_val = ? WHERE next_val < ?",
+                        floor, floor);
+                if (moved > 0) {
+                    log.info("Moved {} past existing {} ids (next_val = {})", sequence[1], sequence[0], floor);
+                }
+            } catch (DataAccessException e) {
+                throw new IllegalStateException("Could not move " + sequence[1] + " past existing "
+                        + sequence[0] + " ids", e);
+            }
+        }
+    }
+}
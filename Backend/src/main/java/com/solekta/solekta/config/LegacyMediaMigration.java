@@ -0,0 +1,133 @@
+package com.solekta.solekta.config;
+
+import com.solekta.solekta.dto.StoredMedia;
+import com.solekta.solekta.service.MediaStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves image and receipt bytes left in the old LONGBLOB columns into the media store,
+ * receipts into its non-public receipt root. Rows are copied one at a time as a stream,
+ * then the blob column is cleared, so the migration is restartable and never holds more
+ * than one image in flight. Receipts stored in the public root before receipts had their
+ * own are moved over as well, unless a product or service image has the same bytes.
+ */
+@Component
+@Slf4j
+public class LegacyMediaMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MediaStorageService mediaStorageService;
+
+    @Value("${app.media.migrate-legacy-blobs:true}")
+    private boolean enabled;
+
+    public LegacyMediaMigration(JdbcTemplate jdbcTemplate, MediaStorageService mediaStorageService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mediaStorageService = mediaStorageService;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        migrateTable("product", "product_id", "image", false);
+        migrateTable("service", "service_id", "image", false);
+        migrateTable("orders", "id", "bank_transfer_receipt", true);
+        movePublicReceipts();
+    }
+
+    private void movePublicReceipts() {
+        List<String> hashes;
+        try {
+            hashes = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT o.bank_transfer_receipt_hash FROM orders o "
+                            + "WHERE o.bank_transfer_receipt_hash IS NOT NULL "
+                            + "AND NOT EXISTS (SELECT 1 FROM product p WHERE p.image_hash = o.bank_transfer_receipt_hash) "
+                            + "AND NOT EXISTS (SELECT 1 FROM service s WHERE s.image_hash = o.bank_transfer_receipt_hash)",
+                    String.class);
+        } catch (DataAccessException e) {
+            log.warn("Could not list receipts to move out of the public media store: {}", e.getMessage());
+            return;
+        }
+        int moved = 0;
+        for (String hash : hashes) {
+            try {
+                if (mediaStorageService.moveToReceipts(hash)) {
+                    moved++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to move receipt {} out of the public media store: {}", hash, e.getMessage());
+            }
+        }
+        if (moved > 0) {
+            log.info("Moved {} receipts out of the public media store", moved);
+        }
+    }
+
+    // Columns are <prefix>_data (the blob), <prefix>_hash, <prefix>_size and <prefix>_content_type
+    private void migrateTable(String table, String idColumn, String prefix, boolean receipts) {
+        List<Long> ids;
+        try {
+            ids = jdbcTemplate.queryForList(
+                    "SELECT " + idColumn + " FROM " + table
+                            + " WHERE " + prefix + "_data IS NOT NULL AND " + prefix + "_hash IS NULL",
+                    Long.class);
+        } catch (DataAccessException e) {
+            // Fresh schemas never had the legacy column
+            log.debug("No legacy {}_data column on {}: {}", prefix, table, e.getMessage());
+            return;
+        }
+
+        if (ids.isEmpty()) {
+            return;
+        }
+        log.info("Migrating {} legacy {} blobs from {} to the media store", ids.size(), prefix, table);
+
+        int migrated = 0;
+        for (Long id : ids) {
+            try {
+                StoredMedia media = jdbcTemplate.query(
+                        "SELECT " + prefix + "_data, " + prefix + "_content_type FROM " + table
+                                + " WHERE " + idColumn + " = ?",
+                        rs -> {
+                            if (!rs.next()) {
+                                return null;
+                            }
+                            try (InputStream in = rs.getBinaryStream(1)) {
+                                if (in == null) {
+                                    return null;
+                                }
+                                return receipts
+                                        ? mediaStorageService.storeReceipt(in, rs.getString(2))
+                                        : mediaStorageService.store(in, rs.getString(2));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        },
+                        id);
+                if (media == null) {
+                    continue;
+                }
+                jdbcTemplate.update(
+                        "UPDATE " + table + " SET " + prefix + "_hash = ?, " + prefix + "_size = ?, "
+                                + prefix + "_content_type = ?, " + prefix + "_data = NULL WHERE " + idColumn + " = ?",
+                        media.getHash(), media.getSize(), media.getContentType(), id);
+                migrated++;
+            } catch (RuntimeException e) {
+                log.warn("Failed to migrate {} for {} {}: {}", prefix, table, id, e.getMessage());
+            }
+        }
+        log.info("Migrated {} of {} legacy {} blobs from {}", migrated, ids.size(), prefix, table);
+    }
+}
@@ -0,0 +1,43 @@
+package com.solekta.solekta.config;
+
+import com.solekta.solekta.model.ProductSpec;
+import com.solekta.solekta.repository.ProductSpecRepository;
+import com.solekta.solekta.search.LaptopSpecParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills product_spec for products saved before the table existed, and re-parses
+ * rows written by an older {@link LaptopSpecParser#VERSION}.
+ */
+@Component
+@Slf4j
+public class ProductSpecBackfill implements CommandLineRunner {
+
+    private final ProductSpecRepository productSpecRepository;
+
+    public ProductSpecBackfill(ProductSpecRepository productSpecRepository) {
+        this.productSpecRepository = productSpecRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        List<Object[]> rows = productSpecRepository.findUnparsedSpecs(LaptopSpecParser.VERSION);
+        if (!rows.isEmpty()) {
+            List<ProductSpec> specs = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                specs.add(LaptopSpecParser.parse((Long) row[0], (String) row[1]));
+            }
+            productSpecRepository.saveAll(specs);
+            log.info("Parsed laptop specs of {} products (parser version {})", specs.size(), LaptopSpecParser.VERSION);
+        }
+        int orphans = productSpecRepository.deleteOrphans();
+        if (orphans > 0) {
+            log.info("Removed {} orphaned product specs", orphans);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.solekta.solekta.config;
+
+import com.solekta.solekta.util.SnowflakeIdGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies app.ids.node-id to the shared {@link SnowflakeIdGenerator} behind order and
+ * payment numbers. Every instance writing to the same database needs its own value.
+ */
+@Configuration
+@Slf4j
+public class SnowflakeNodeConfig {
+
+    // -1 derives one from host name and process id
+    @Value("${app.ids.node-id:-1}")
+    private int nodeId;
+
+    @PostConstruct
+    public void configure() {
+        int effective = nodeId >= 0 ? nodeId : SnowflakeIdGenerator.defaultNodeId();
+        SnowflakeIdGenerator.configureShared(effective);
+        if (nodeId < 0) {
+            log.info("Using derived Snowflake node id {}; set app.ids.node-id when running several instances", effective);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.solekta.solekta.controller;
 
+import com.solekta.solekta.cache.CacheStats;
+import com.solekta.solekta.cart.AbandonedCartSweeper;
+import com.solekta.solekta.cart.SweepStats;
+import com.solekta.solekta.cache.CatalogCache;
+import com.solekta.solekta.cache.ResourceVersions;
 import com.solekta.solekta.dto.RegisterRequest;
 import com.solekta.solekta.enums.Role;
 import com.solekta.solekta.model.Category;
@@ -11,6 +16,7 @@ import com.solekta.solekta.repository.ProductRepository;
 import com.solekta.solekta.repository.ProfileRepository;
 import com.solekta.solekta.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -30,6 +36,9 @@ public class AdminController {
     private final UserRepository userRepository;
     private final ProfileRepository profileRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CatalogCache catalogCache;
+    private final ResourceVersions resourceVersions;
+    private final ObjectProvider<AbandonedCartSweeper> cartSweeper;
 
 
 
@@ -157,4 +166,35 @@ public class AdminController {
             return ResponseEntity.internalServerError().body(response);
         }
     }
-}
\ No newline at end of file
+
+    // ================ CATALOG CACHE ================
+
+    /**
+     * Hit/miss/eviction counters and current weight of the catalog read cache
+     */
+    @GetMapping("/cache/catalog")
+    public ResponseEntity<CacheStats> getCatalogCacheStats() {
+        return ResponseEntity.ok(catalogCache.stats());
+    }
+
+    /**
+     * Drop every cached catalog entry and HTTP validator, e.g. after editing rows directly in the database
+     */
+    @DeleteMapping("/cache/catalog")
+    public ResponseEntity<Void> clearCatalogCache() {
+        catalogCache.invalidateAll();
+        resourceVersions.allChanged();
+        return ResponseEntity.noContent().build();
+    }
+
+    // ================ CART SWEEPER ================
+
+    /**
+     * Runs, carts and lines purged and time taken by the abandoned-cart sweeper on this node
+     */
+    @GetMapping("/carts/sweeper")
+    public ResponseEntity<SweepStats> getCartSweeperStats() {
+        AbandonedCartSweeper sweeper = cartSweeper.getIfAvailable();
+        return sweeper != null ? ResponseEntity.ok(sweeper.stats()) : ResponseEntity.notFound().build();
+    }
+}
@@ -3,9 +3,11 @@ package com.solekta.solekta.controller;
 import com.solekta.solekta.dto.CartDTO;
 import com.solekta.solekta.dto.AddCartItemRequest;
 import com.solekta.solekta.dto.AddServiceRequest;
+import com.solekta.solekta.dto.CartPatchRequest;
+import com.solekta.solekta.dto.CartSummaryDTO;
 import com.solekta.solekta.dto.UpdateCartItemRequest;
 import com.solekta.solekta.dto.SyncCartRequest;
-import com.solekta.solekta.service.CartService;
+import com.solekta.solekta.service.CartOperations;
 import com.solekta.solekta.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,7 +22,7 @@ import java.math.BigDecimal;
 @CrossOrigin(origins = "*")
 public class CartController {
 
-    private final CartService cartService;
+    private final CartOperations cartService;
     private final JwtUtil jwtUtil;
 
     // Helper method to extract user ID from JWT token
@@ -40,16 +42,29 @@ public class CartController {
         return ResponseEntity.ok(cart);
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<CartSummaryDTO> getCartSummary(HttpServletRequest request) {
+        Long userId = extractUserIdFromRequest(request);
+        return ResponseEntity.ok(cartService.getCartSummary(userId));
+    }
+
     @PostMapping("/items")
     public ResponseEntity<CartDTO> addItemToCart(
             HttpServletRequest request,
             @RequestBody AddCartItemRequest requestBody) {
         Long userId = extractUserIdFromRequest(request);
-        CartDTO cart = cartService.addItemToCart(userId, requestBody.getProductId(), 
-                requestBody.getQuantity(), requestBody.getUnitPrice());
+        CartDTO cart = cartService.addItemToCart(userId, requestBody.getProductId(), requestBody.getQuantity());
         return ResponseEntity.ok(cart);
     }
 
+    @PatchMapping
+    public ResponseEntity<CartDTO> patchCart(
+            HttpServletRequest request,
+            @RequestBody CartPatchRequest requestBody) {
+        Long userId = extractUserIdFromRequest(request);
+        return ResponseEntity.ok(cartService.patchCart(userId, requestBody));
+    }
+
     @PutMapping("/items/{productId}")
     public ResponseEntity<CartDTO> updateCartItem(
             HttpServletRequest request,
@@ -88,8 +103,7 @@ public class CartController {
                     userId,
                     addServiceRequest.getServiceId(),
                     addServiceRequest.getRentalPeriod(),
-                    addServiceRequest.getRentalPeriodType(),
-                    addServiceRequest.getUnitPrice()
+                    addServiceRequest.getRentalPeriodType()
             );
             return ResponseEntity.ok(cart);
         } catch (RuntimeException e) {
@@ -118,10 +132,7 @@ public class CartController {
             HttpServletRequest request,
             @RequestBody SyncCartRequest syncRequest) {
         Long userId = extractUserIdFromRequest(request);
-        // For now, just clear cart and return empty cart
-        // You can implement proper sync logic based on your needs
-        cartService.clearCart(userId);
-        CartDTO cart = cartService.getCartByCustomerId(userId);
+        CartDTO cart = cartService.syncCart(userId, syncRequest);
         return ResponseEntity.ok(cart);
     }
 }
@@ -1,10 +1,14 @@
 package com.solekta.solekta.controller;
 
+import com.solekta.solekta.cache.ResourceVersions;
+import com.solekta.solekta.dto.CursorPage;
 import com.solekta.solekta.model.Category;
 import com.solekta.solekta.service.CategoryService;
+import com.solekta.solekta.util.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,16 +21,32 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    // Reads answer If-None-Match / If-Modified-Since with 304 before querying
+
     @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryService.getAllCategories();
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.CATEGORY), () -> categoryService.getAllCategories());
+    }
+
+    // Keyset-paginated listing: sort=newest|name
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Category>> getCategoryPage(@RequestParam(required = false) String sort,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer size,
+                                                                WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.CATEGORY),
+                () -> categoryService.getCategoryPage(sort, cursor, size));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        return categoryService.getCategoryById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, resourceVersions.entity(ResourceVersions.Scope.CATEGORY, id),
+                () -> categoryService.getCategoryById(id)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @PostMapping
@@ -37,12 +57,7 @@ public class CategoryController {
     @PutMapping("/{id}")
     public ResponseEntity<Category> updateCategory(@PathVariable Long id, @RequestBody Category updatedCategory) {
         return categoryService.getCategoryById(id)
-                .map(existing -> {
-                    // Update all fields
-                    existing.setCategoryName(updatedCategory.getCategoryName());
-                    existing.setDescription(updatedCategory.getDescription());
-                    return ResponseEntity.ok(categoryService.saveCategory(existing));
-                })
+                .map(existing -> ResponseEntity.ok(categoryService.updateCategory(id, updatedCategory)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -59,10 +74,11 @@ public class CategoryController {
     // Additional endpoints
 
     @GetMapping("/name/{name}")
-    public ResponseEntity<Category> getCategoryByName(@PathVariable String name) {
-        return categoryService.getCategoryByName(name)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Category> getCategoryByName(@PathVariable String name, WebRequest request) {
+        return ConditionalGet.respond(request, resourceVersions.collection(ResourceVersions.Scope.CATEGORY),
+                () -> categoryService.getCategoryByName(name)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/exists/{name}")
@@ -71,15 +87,16 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}/products")
-    public ResponseEntity<?> getCategoryWithProducts(@PathVariable Long id) {
-        return categoryService.getCategoryWithProducts(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Category> getCategoryWithProducts(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, resourceVersions.entity(ResourceVersions.Scope.CATEGORY, id),
+                () -> categoryService.getCategoryWithProducts(id)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/search")
-    public List<Category> searchCategories(@RequestParam String keyword) {
-        return categoryService.searchCategories(keyword);
+    public ResponseEntity<List<Category>> searchCategories(@RequestParam String keyword, WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.CATEGORY), () -> categoryService.searchCategories(keyword));
     }
 
     @GetMapping("/test")
@@ -0,0 +1,22 @@
+package com.solekta.solekta.controller;
+
+import com.solekta.solekta.service.MediaStorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/media")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MediaController {
+
+    private final MediaStorageService mediaStorageService;
+
+    // Content-addressed: the bytes behind a hash never change, so clients may cache forever
+    @GetMapping("/{hash}")
+    public ResponseEntity<Resource> getMedia(@PathVariable String hash) {
+        return mediaStorageService.serve(hash, null, null, true);
+    }
+}
@@ -1,21 +1,29 @@
 package com.solekta.solekta.controller;
 
+import com.solekta.solekta.cache.ResourceVersions;
 import com.solekta.solekta.dto.CheckoutRequest;
+import com.solekta.solekta.dto.CursorPage;
 import com.solekta.solekta.dto.OrderDTO;
 import com.solekta.solekta.model.Order;
+import com.solekta.solekta.repository.OrderPageRepository;
+import com.solekta.solekta.service.IdempotentCheckoutService;
+import com.solekta.solekta.service.MediaStorageService;
 import com.solekta.solekta.service.OrderService;
+import com.solekta.solekta.util.ConditionalGet;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
-import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -23,16 +31,30 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class OrderController {
 
+    // Retries of a checkout that carry the same key return the first request's order
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    // Set on an unpaginated list cut at app.orders.max-list-size; the cursor continues it on /page
+    private static final String LIST_TRUNCATED = "X-List-Truncated";
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+
     private final OrderService orderService;
+    private final IdempotentCheckoutService idempotentCheckoutService;
+    private final ResourceVersions resourceVersions;
+    private final MediaStorageService mediaStorageService;
 
     @PostMapping
-    public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody CheckoutRequest checkoutRequest) {
-        OrderDTO order = orderService.createOrderFromCart(checkoutRequest);
+    public ResponseEntity<OrderDTO> createOrder(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody CheckoutRequest checkoutRequest) {
+        OrderDTO order = idempotentCheckoutService.checkout(idempotencyKey, checkoutRequest.getCustomerId(),
+                () -> orderService.createOrderFromCart(checkoutRequest));
         return ResponseEntity.ok(order);
     }
 
     @PostMapping(value = "/with-receipt", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<OrderDTO> createOrderWithReceipt(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @RequestParam("customerId") Long customerId,
             @RequestParam("email") String email,
             @RequestParam("shippingName") String shippingName,
@@ -55,41 +77,47 @@ public class OrderController {
         checkoutRequest.setPaymentMethod(paymentMethod);
         checkoutRequest.setNotes(notes);
         
-        OrderDTO order = orderService.createOrderFromCartWithReceipt(checkoutRequest, receiptFile);
+        OrderDTO order = idempotentCheckoutService.checkout(idempotencyKey, customerId,
+                () -> orderService.createOrderFromCartWithReceipt(checkoutRequest, receiptFile));
         return ResponseEntity.ok(order);
     }
 
     @PostMapping("/checkout")
-    public ResponseEntity<OrderDTO> checkout(@Valid @RequestBody CheckoutRequest checkoutRequest) {
-        OrderDTO order = orderService.createOrderFromCart(checkoutRequest);
+    public ResponseEntity<OrderDTO> checkout(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody CheckoutRequest checkoutRequest) {
+        OrderDTO order = idempotentCheckoutService.checkout(idempotencyKey, checkoutRequest.getCustomerId(),
+                () -> orderService.createOrderFromCart(checkoutRequest));
         return ResponseEntity.ok(order);
     }
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long orderId) {
-        OrderDTO order = orderService.getOrderById(orderId);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long orderId, WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.entity(ResourceVersions.Scope.ORDER, orderId),
+                () -> orderService.getOrderById(orderId));
     }
 
+    // Lookups not keyed by order id validate against the order collection version
+
     @GetMapping("/number/{orderNumber}")
-    public ResponseEntity<OrderDTO> getOrderByOrderNumber(@PathVariable String orderNumber) {
-        OrderDTO order = orderService.getOrderByOrderNumber(orderNumber);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<OrderDTO> getOrderByOrderNumber(@PathVariable String orderNumber, WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.ORDER),
+                () -> orderService.getOrderByOrderNumber(orderNumber));
     }
 
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByCustomerId(@PathVariable Long customerId) {
-        List<OrderDTO> orders = orderService.getOrdersByCustomerId(customerId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderDTO>> getOrdersByCustomerId(@PathVariable Long customerId, WebRequest request) {
+        return listOrders(request, new OrderPageRepository.Filter(customerId, null, null, null));
     }
 
     @GetMapping("/customer/{customerId}/paginated")
     public ResponseEntity<Page<OrderDTO>> getOrdersByCustomerIdPaginated(
             @PathVariable Long customerId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Page<OrderDTO> orders = orderService.getOrdersByCustomerId(customerId, page, size);
-        return ResponseEntity.ok(orders);
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.ORDER),
+                () -> orderService.getOrdersByCustomerId(customerId, page, size));
     }
 
     @PutMapping("/{orderId}/status")
@@ -100,45 +128,74 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
+    // Offset pagination with a total count; status, startDate and endDate are optional filters
+    @GetMapping("/paginated")
+    public ResponseEntity<Page<OrderDTO>> getOrdersPaginated(
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
+        OrderPageRepository.Filter filter = new OrderPageRepository.Filter(null, status, startDate, endDate);
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.ORDER),
+                () -> orderService.getOrders(filter, page, size));
+    }
+
+    // Keyset pagination, newest first: pass nextCursor back as cursor
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<OrderDTO>> getOrderPage(
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        OrderPageRepository.Filter filter = new OrderPageRepository.Filter(customerId, status, startDate, endDate);
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.ORDER),
+                () -> orderService.getOrderPage(filter, cursor, size));
+    }
+
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        List<OrderDTO> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderDTO>> getAllOrders(WebRequest request) {
+        return listOrders(request, OrderPageRepository.Filter.NONE);
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByStatus(@PathVariable Order.OrderStatus status) {
-        List<OrderDTO> orders = orderService.getOrdersByStatus(status);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderDTO>> getOrdersByStatus(@PathVariable Order.OrderStatus status,
+                                                            WebRequest request) {
+        return listOrders(request, new OrderPageRepository.Filter(null, status, null, null));
     }
 
     @GetMapping("/date-range")
     public ResponseEntity<List<OrderDTO>> getOrdersByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<OrderDTO> orders = orderService.getOrdersByDateRange(startDate, endDate);
-        return ResponseEntity.ok(orders);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            WebRequest request) {
+        return listOrders(request, new OrderPageRepository.Filter(null, null, startDate, endDate));
     }
 
-    @GetMapping("/{orderId}/receipt")
-    public ResponseEntity<byte[]> getOrderReceipt(@PathVariable Long orderId) {
-        try {
-            Order order = orderService.getOrderEntityById(orderId);
-            
-            if (order.getBankTransferReceiptData() == null) {
-                return ResponseEntity.notFound().build();
+    private ResponseEntity<List<OrderDTO>> listOrders(WebRequest request, OrderPageRepository.Filter filter) {
+        return ConditionalGet.respond(request, resourceVersions.collection(ResourceVersions.Scope.ORDER), () -> {
+            CursorPage<OrderDTO> orders = orderService.listOrders(filter);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (orders.isHasMore()) {
+                response.header(LIST_TRUNCATED, "true").header(NEXT_CURSOR, orders.getNextCursor());
             }
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(order.getBankTransferReceiptContentType()));
-            headers.setContentDispositionFormData("attachment", order.getBankTransferReceiptFileName());
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(order.getBankTransferReceiptData());
-        } catch (Exception e) {
+            return response.body(orders.getItems());
+        });
+    }
+
+    @GetMapping("/{orderId}/receipt")
+    public ResponseEntity<Resource> getOrderReceipt(@PathVariable Long orderId) {
+        Optional<Order> orderOpt = orderService.findOrderEntityById(orderId);
+        if (orderOpt.isEmpty() || orderOpt.get().getBankTransferReceiptHash() == null) {
             return ResponseEntity.notFound().build();
         }
+        Order order = orderOpt.get();
+        return mediaStorageService.serveReceipt(order.getBankTransferReceiptHash(),
+                order.getBankTransferReceiptContentType(), order.getBankTransferReceiptFileName());
     }
 }
 
@@ -1,13 +1,23 @@
 package com.solekta.solekta.controller;
 
+import com.solekta.solekta.cache.ResourceVersions;
 import com.solekta.solekta.model.Product;
+import com.solekta.solekta.model.ProductSpec;
 import com.solekta.solekta.dto.ProductRequest;
+import com.solekta.solekta.dto.CursorPage;
+import com.solekta.solekta.dto.FacetedProductsDTO;
+import com.solekta.solekta.dto.ProductFilterRequest;
+import com.solekta.solekta.dto.ProductSummaryDTO;
+import com.solekta.solekta.dto.SuggestionDTO;
+import com.solekta.solekta.service.MediaStorageService;
 import com.solekta.solekta.service.ProductService;
+import com.solekta.solekta.util.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
-import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -21,16 +31,46 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    // Catalog reads answer If-None-Match / If-Modified-Since with 304 before querying
+
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProducts(WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.PRODUCT),
+                () -> productService.getAllProductSummaries());
+    }
+
+    // Keyset-paginated listing: sort=newest|price_asc|price_desc|name, pass nextCursor back as cursor
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ProductSummaryDTO>> getProductPage(@RequestParam(required = false) String sort,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer size,
+                                                                        @RequestParam(required = false) Boolean available,
+                                                                        @RequestParam(required = false) Long categoryId,
+                                                                        WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.PRODUCT),
+                () -> productService.getProductPage(sort, cursor, size, available, categoryId));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productService.getProductById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, resourceVersions.entity(ResourceVersions.Scope.PRODUCT, id),
+                () -> productService.getProductById(id)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/{id}/spec")
+    public ResponseEntity<ProductSpec> getProductSpec(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, resourceVersions.entity(ResourceVersions.Scope.PRODUCT, id),
+                () -> productService.getProductSpec(id)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @PostMapping
@@ -75,19 +115,8 @@ public class ProductController {
 
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product updatedProduct) {
-        return productService.getProductById(id)
-                .map(existing -> {
-                    // Update all fields except the ID
-                    existing.setProductName(updatedProduct.getProductName());
-                    existing.setProductDescription(updatedProduct.getProductDescription());
-                    existing.setLaptopSpec(updatedProduct.getLaptopSpec());
-                    existing.setQuantity(updatedProduct.getQuantity());
-                    existing.setIsAvailable(updatedProduct.getIsAvailable());
-                    existing.setPrice(updatedProduct.getPrice());
-                    existing.setImageUrls(updatedProduct.getImageUrls());
-                    existing.setCategory(updatedProduct.getCategory());
-                    return ResponseEntity.ok(productService.saveProduct(existing));
-                })
+        return productService.updateProduct(id, updatedProduct)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -104,40 +133,49 @@ public class ProductController {
     // Additional endpoints you might want to add:
 
     @GetMapping("/available")
-    public List<Product> getAvailableProducts() {
-        return productService.getAvailableProducts();
+    public ResponseEntity<List<ProductSummaryDTO>> getAvailableProducts(WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.PRODUCT),
+                () -> productService.getAvailableProductSummaries());
     }
 
     @GetMapping("/category/{categoryId}")
-    public List<Product> getProductsByCategory(@PathVariable Long categoryId) {
-        return productService.getProductsByCategory(categoryId);
+    public ResponseEntity<List<ProductSummaryDTO>> getProductsByCategory(@PathVariable Long categoryId,
+                                                                         WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.PRODUCT),
+                () -> productService.getProductSummariesByCategory(categoryId));
     }
 
     @GetMapping("/search")
-    public List<Product> searchProducts(@RequestParam String keyword) {
-        return productService.searchProducts(keyword);
+    public ResponseEntity<List<ProductSummaryDTO>> searchProducts(@RequestParam String keyword,
+                                                                  @RequestParam(defaultValue = "100") int limit,
+                                                                  WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.PRODUCT),
+                () -> productService.searchProductSummaries(keyword, limit));
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<FacetedProductsDTO> filterProducts(@ModelAttribute ProductFilterRequest filter,
+                                                             WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.PRODUCT),
+                () -> productService.filterProducts(filter));
+    }
+
+    @GetMapping("/suggest")
+    public List<SuggestionDTO> suggest(@RequestParam String prefix,
+                                       @RequestParam(defaultValue = "10") int limit) {
+        return productService.suggest(prefix, limit);
     }
 
     @GetMapping("/{id}/image")
-    public ResponseEntity<byte[]> getProductImage(@PathVariable Long id) {
-        try {
-            Optional<Product> productOpt = productService.getProductById(id);
-            
-            if (productOpt.isEmpty() || productOpt.get().getImageData() == null) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            Product product = productOpt.get();
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(product.getImageContentType()));
-            headers.setContentDispositionFormData("inline", product.getImageFileName());
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(product.getImageData());
-        } catch (Exception e) {
+    public ResponseEntity<Resource> getProductImage(@PathVariable Long id) {
+        Optional<Product> productOpt = productService.getProductById(id);
+
+        if (productOpt.isEmpty() || productOpt.get().getImageHash() == null) {
             return ResponseEntity.notFound().build();
         }
+
+        Product product = productOpt.get();
+        return mediaStorageService.serve(product.getImageHash(), product.getImageContentType(),
+                product.getImageFileName(), false);
     }
 }
\ No newline at end of file
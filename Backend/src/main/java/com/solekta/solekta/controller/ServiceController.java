@@ -1,12 +1,17 @@
 package com.solekta.solekta.controller;
 
+import com.solekta.solekta.cache.ResourceVersions;
+import com.solekta.solekta.dto.CursorPage;
 import com.solekta.solekta.model.RentalService;
+import com.solekta.solekta.service.MediaStorageService;
 import com.solekta.solekta.service.ServiceService;
+import com.solekta.solekta.util.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
-import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
@@ -21,6 +26,12 @@ public class ServiceController {
     @Autowired
     private ServiceService serviceService;
 
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     // CREATE - Add new service
     @PostMapping
     public ResponseEntity<RentalService> createService(@RequestBody RentalService service) {
@@ -53,41 +64,54 @@ public class ServiceController {
 
     // READ - Get all services
     @GetMapping
-    public ResponseEntity<List<RentalService>> getAllServices() {
-        List<RentalService> services = serviceService.getAllServices();
-        return ResponseEntity.ok(services);
+    public ResponseEntity<List<RentalService>> getAllServices(WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.SERVICE), () -> serviceService.getAllServices());
     }
 
     @GetMapping("/available")
-    public List<RentalService> getAvailableServices() {
-        return serviceService.getAvailableServices();
+    public ResponseEntity<List<RentalService>> getAvailableServices(WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.SERVICE), () -> serviceService.getAvailableServices());
+    }
+
+    // READ - Keyset-paginated services: sort=newest|price_asc|price_desc|name
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<RentalService>> getServicePage(@RequestParam(required = false) String sort,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(required = false) Integer size,
+                                                                    @RequestParam(required = false) Boolean available,
+                                                                    WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.SERVICE),
+                () -> serviceService.getServicePage(sort, cursor, size, available));
     }
 
     // READ - Get service by ID
     @GetMapping("/{id}")
-    public ResponseEntity<RentalService> getServiceById(@PathVariable Long id) {
-        return serviceService.getServiceById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<RentalService> getServiceById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, resourceVersions.entity(ResourceVersions.Scope.SERVICE, id),
+                () -> serviceService.getServiceById(id)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     // READ - Search services
     @GetMapping("/search")
-    public ResponseEntity<List<RentalService>> searchServices(@RequestParam String keyword) {
-        List<RentalService> services = serviceService.searchServices(keyword);
-        return ResponseEntity.ok(services);
+    public ResponseEntity<List<RentalService>> searchServices(@RequestParam String keyword, WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.SERVICE), () -> serviceService.searchServices(keyword));
     }
 
     @GetMapping("/category/{category}")
-    public List<RentalService> getServicesByCategory(@PathVariable String category) {
-        return serviceService.getServicesByCategory(category);
+    public ResponseEntity<List<RentalService>> getServicesByCategory(@PathVariable String category,
+                                                                     WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.SERVICE), () -> serviceService.getServicesByCategory(category));
     }
 
     @GetMapping("/price-range")
-    public List<RentalService> getServicesByPriceRange(
+    public ResponseEntity<List<RentalService>> getServicesByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
-        return serviceService.getServicesByPriceRange(minPrice, maxPrice);
+            @RequestParam BigDecimal maxPrice,
+            WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersions.collection(ResourceVersions.Scope.SERVICE),
+                () -> serviceService.getServicesByPriceRange(minPrice, maxPrice));
     }
 
     // UPDATE - Update service
@@ -113,25 +137,15 @@ public class ServiceController {
     }
 
     @GetMapping("/{id}/image")
-    public ResponseEntity<byte[]> getServiceImage(@PathVariable Long id) {
-        try {
-            Optional<RentalService> serviceOpt = serviceService.getServiceById(id);
-            
-            if (serviceOpt.isEmpty() || serviceOpt.get().getImageData() == null) {
-                return ResponseEntity.notFound().build();
-            }
-
-            RentalService service = serviceOpt.get();
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(service.getImageContentType()));
-            headers.setContentDispositionFormData("inline", service.getImageFileName());
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(service.getImageData());
-        } catch (Exception e) {
+    public ResponseEntity<Resource> getServiceImage(@PathVariable Long id) {
+        Optional<RentalService> serviceOpt = serviceService.getServiceById(id);
+
+        if (serviceOpt.isEmpty() || serviceOpt.get().getImageHash() == null) {
             return ResponseEntity.notFound().build();
         }
+
+        RentalService service = serviceOpt.get();
+        return mediaStorageService.serve(service.getImageHash(), service.getImageContentType(),
+                service.getImageFileName(), false);
     }
 }
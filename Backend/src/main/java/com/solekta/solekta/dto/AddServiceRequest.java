@@ -7,8 +7,6 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,8 +20,4 @@ public class AddServiceRequest {
 
     @NotNull
     private RentalService.RentalPeriodType rentalPeriodType;
-
-    @NotNull
-    @Positive
-    private BigDecimal unitPrice;
 }
\ No newline at end of file
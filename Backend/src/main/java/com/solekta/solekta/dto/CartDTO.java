@@ -4,6 +4,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -14,6 +15,10 @@ public class CartDTO {
     private Long id;
     private Long customerId;
     private List<CartItemDTO> cartItems;
+    // Products count by quantity, each service line counts once
+    private Integer itemCount;
+    private BigDecimal subtotal;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
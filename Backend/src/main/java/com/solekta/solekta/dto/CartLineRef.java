@@ -0,0 +1,24 @@
+package com.solekta.solekta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Name fields of a product or service as shown on a cart line. Built by JPQL
+ * constructor expressions so cart reads never load full catalog rows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLineRef {
+    private Long id;
+    private String name;
+    // Category name for products, null for services
+    private String sku;
+
+    // Used by the service projection
+    public CartLineRef(Long id, String name) {
+        this(id, name, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.solekta.solekta.dto;
+
+import com.solekta.solekta.model.CartItem;
+import com.solekta.solekta.model.RentalService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One step of a PATCH /api/cart request. Each action behaves like the matching
+ * single-line endpoint: ADD of a product already in the cart increases its
+ * quantity, UPDATE with quantity 0 removes the line. Prices are always set by
+ * the server.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartPatchOperation {
+
+    public enum Action { ADD, UPDATE, REMOVE }
+
+    private Action action;
+    // PRODUCT when omitted
+    private CartItem.ItemType itemType;
+
+    private Long productId;
+    private Integer quantity;
+
+    private Long serviceId;
+    private Integer rentalPeriod;
+    private RentalService.RentalPeriodType rentalPeriodType;
+
+    public boolean isService() {
+        return itemType == CartItem.ItemType.SERVICE;
+    }
+}
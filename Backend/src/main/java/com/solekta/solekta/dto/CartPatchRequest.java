@@ -0,0 +1,17 @@
+package com.solekta.solekta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Body of PATCH /api/cart: operations applied in order, all or nothing.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartPatchRequest {
+    private List<CartPatchOperation> operations;
+}
@@ -0,0 +1,23 @@
+package com.solekta.solekta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Header badge / mini-cart view of a cart, read from the denormalized columns of
+ * shopping_carts without loading any line.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummaryDTO {
+    private Long cartId;
+    private Integer itemCount;
+    private BigDecimal subtotal;
+    private Long version;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,27 @@
+package com.solekta.solekta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Price columns of a product or service, for cart pricing. Built by JPQL
+ * constructor expressions so price reads never load full catalog rows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogPrice {
+    private Long id;
+    // Product price, or service price per day
+    private BigDecimal price;
+    // Service price per hour, null for products
+    private BigDecimal pricePerHour;
+
+    // Used by the product projection; product prices are stored as doubles
+    public CatalogPrice(Long id, Double price) {
+        this(id, price != null ? BigDecimal.valueOf(price) : null, null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.solekta.solekta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDTO {
+    // Value to send back as a filter parameter
+    private String value;
+    private String label;
+    private int count;
+}
@@ -0,0 +1,25 @@
+package com.solekta.solekta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of filtered products together with the facet counts for the current filter.
+ * Each facet is counted with every filter applied except its own, so the counts show
+ * what selecting another value of that facet would return.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedProductsDTO {
+    private int total;
+    private int page;
+    private int size;
+    private List<ProductSummaryDTO> products;
+    private List<FacetCountDTO> brands;
+    private List<FacetCountDTO> categories;
+    private List<PriceBucketDTO> priceHistogram;
+}
@@ -0,0 +1,16 @@
+package com.solekta.solekta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBucketDTO {
+    // Inclusive lower bound
+    private Double min;
+    // Exclusive upper bound; null for the open-ended top bucket
+    private Double max;
+    private int count;
+}
@@ -0,0 +1,32 @@
+package com.solekta.solekta.dto;
+
+import com.solekta.solekta.enums.StorageType;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Query parameters for /api/products/filter. Repeat brand or categoryId to select
+ * several values; values within one facet are ORed, facets are ANDed. The spec
+ * criteria (e.g. minRamGb=16&minStorageGb=512&cpu=i7) match the attributes parsed
+ * from the laptop spec; cpu and gpu match any family containing the given text.
+ */
+@Data
+public class ProductFilterRequest {
+    private List<String> brand;
+    private List<Long> categoryId;
+    private Boolean available;
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer minRamGb;
+    private Integer maxRamGb;
+    private Integer minStorageGb;
+    private Integer maxStorageGb;
+    private List<StorageType> storageType;
+    private List<String> cpu;
+    private List<String> gpu;
+    private Double minScreenInches;
+    private Double maxScreenInches;
+    private int page = 0;
+    private int size = 24;
+}
@@ -0,0 +1,47 @@
+package com.solekta.solekta.dto;
+
+import com.solekta.solekta.model.Product;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight product row used by the catalog listing endpoints.
+ * Built directly by JPQL constructor expressions so image bytes and
+ * long text columns are never selected.
+ */
+@Data
+@NoArgsConstructor
+public class ProductSummaryDTO {
+    private Long productId;
+    private String productName;
+    private String brand;
+    private Double price;
+    private Integer quantity;
+    private Boolean isAvailable;
+    private Long categoryId;
+    private String categoryName;
+    private String imageUrl;
+
+    // Used by the projection queries in ProductRepository
+    public ProductSummaryDTO(Long productId, String productName, String brand, Double price,
+                             Integer quantity, Boolean isAvailable, Long categoryId,
+                             String categoryName, String imageHash) {
+        this.productId = productId;
+        this.productName = productName;
+        this.brand = brand;
+        this.price = price;
+        this.quantity = quantity;
+        this.isAvailable = isAvailable;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        // Content-addressed URL, safe for clients to cache indefinitely
+        this.imageUrl = imageHash != null ? "/api/media/" + imageHash : null;
+    }
+
+    // Used by the in-memory catalog indexes, which are fed entities rather than projections
+    public static ProductSummaryDTO from(Product product) {
+        return new ProductSummaryDTO(product.getProductId(), product.getProductName(), product.getBrand(),
+                product.getPrice(), product.getQuantity(), product.getIsAvailable(),
+                product.getCategoryId(), product.getCategoryName(), product.getImageHash());
+    }
+}
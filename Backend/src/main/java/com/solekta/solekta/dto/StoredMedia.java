@@ -0,0 +1,14 @@
+package com.solekta.solekta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredMedia {
+    private String hash;
+    private Long size;
+    private String contentType;
+}
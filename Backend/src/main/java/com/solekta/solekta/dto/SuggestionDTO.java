@@ -0,0 +1,21 @@
+package com.solekta.solekta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One typeahead entry returned by /api/products/suggest.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+
+    public enum Type { PRODUCT, BRAND, CATEGORY }
+
+    private String text;
+    private Type type;
+    // Product or category id; null for brands
+    private Long id;
+}
@@ -10,5 +10,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class SyncCartRequest {
+    // The client's whole cart; lines missing here are removed from the stored cart
     private List<CartItemDTO> items;
+    // Client-side cart revision, increasing; a sync at or below the last applied one is ignored
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.solekta.solekta.enums;
+
+import java.util.Locale;
+
+/**
+ * Sort orders offered by the keyset-paginated catalog listings.
+ * Every order is made total by breaking ties on the entity id.
+ */
+public enum CatalogSort {
+    NEWEST,
+    PRICE_ASC,
+    PRICE_DESC,
+    NAME;
+
+    public boolean isDescending() {
+        return this == NEWEST || this == PRICE_DESC;
+    }
+
+    // Accepts "price_asc", "price-asc", "PRICE_ASC"; defaults to NEWEST
+    public static CatalogSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort order: " + value);
+        }
+    }
+}
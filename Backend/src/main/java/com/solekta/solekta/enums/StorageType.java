@@ -0,0 +1,7 @@
+package com.solekta.solekta.enums;
+
+public enum StorageType {
+    SSD,
+    HDD,
+    EMMC
+}
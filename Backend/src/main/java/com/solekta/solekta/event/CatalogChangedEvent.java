@@ -0,0 +1,26 @@
+package com.solekta.solekta.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by the catalog services after a product, category or service is
+ * created, updated or deleted. In-memory read models listen to it to stay in sync.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class CatalogChangedEvent {
+
+    private final EntityType entityType;
+
+    // Id of the changed entity
+    private final Long entityId;
+
+    public enum EntityType {
+        PRODUCT,
+        CATEGORY,
+        SERVICE
+    }
+}
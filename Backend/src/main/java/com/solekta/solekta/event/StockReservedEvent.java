@@ -0,0 +1,21 @@
+package com.solekta.solekta.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * Published by checkout after it took product stock. Only quantity and
+ * availability changed, so read models adjust those in place instead of
+ * reloading the products as they do for a {@link CatalogChangedEvent}.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class StockReservedEvent {
+
+    // Units taken by product id
+    private final Map<Long, Integer> quantities;
+}
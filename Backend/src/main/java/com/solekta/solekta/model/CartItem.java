@@ -7,12 +7,16 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "cart_items")
+// Product lines store service_id -1 and service lines product_id -1, so the key never contains NULL
+@Table(name = "cart_items", uniqueConstraints = @UniqueConstraint(
+        name = CartItem.LINE_CONSTRAINT, columnNames = {"cart_id", "product_id", "service_id"}))
 @Getter @Setter @Builder @NoArgsConstructor @AllArgsConstructor
 @ToString(exclude = "cart")
 @EqualsAndHashCode(exclude = "cart")
 public class CartItem {
 
+    public static final String LINE_CONSTRAINT = "uk_cart_items_line";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -62,6 +66,10 @@ public class CartItem {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal totalPrice;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     // Helper method to calculate total price
     public void calculateTotalPrice() {
         if (unitPrice != null) {
@@ -84,6 +92,9 @@ public class CartItem {
             if (quantity == null || quantity <= 0) {
                 throw new IllegalStateException("Valid quantity is required for product items");
             }
+            if (serviceId == null) {
+                serviceId = -1L;  // Sentinel value for product items
+            }
         } else if (itemType == ItemType.SERVICE) {
             if (serviceId == null) {
                 throw new IllegalStateException("Service ID is required for service items");
@@ -1,6 +1,7 @@
 package com.solekta.solekta.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.solekta.solekta.util.OrderUtils;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import lombok.*;
@@ -11,14 +12,22 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Listings are newest first on (created_at, id), optionally filtered by customer or status
+        @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at, id"),
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id")
+})
 @Getter @Setter @Builder @NoArgsConstructor @AllArgsConstructor
 @ToString(exclude = {"orderItems", "payment"})
 @EqualsAndHashCode(exclude = {"orderItems", "payment"})
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (a table on MySQL) instead of IDENTITY so inserts can be JDBC-batched;
+    // IdSequenceAlignment keeps it ahead of ids assigned by the old AUTO_INCREMENT
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -72,10 +81,12 @@ public class Order {
     @Builder.Default
     private PaymentMethod paymentMethod = PaymentMethod.BANK_TRANSFER;
 
-    // Bank Transfer Receipt (for bank transfer payments)
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] bankTransferReceiptData;
+    // Bank transfer receipt: the file is in the media store, so loading an order never reads it
+    @Column(name = "bank_transfer_receipt_hash", length = 64)
+    private String bankTransferReceiptHash;
+
+    @Column(name = "bank_transfer_receipt_size")
+    private Long bankTransferReceiptSize;
 
     @Column(length = 255)
     private String bankTransferReceiptFileName;
@@ -83,8 +94,9 @@ public class Order {
     @Column(length = 100)
     private String bankTransferReceiptContentType;
 
-    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    @JoinColumn(name = "payment_id")
+    // Owned by payment_transactions.order_id; the legacy orders.payment_id column is no longer
+    // written, which breaks the order <-> payment insert cycle
+    @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private PaymentTransaction payment;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
@@ -99,11 +111,11 @@ public class Order {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
-    // Generate order number
+    // Generate order number; Snowflake ids stay unique across threads and nodes
     @PrePersist
     public void generateOrderNumber() {
         if (orderNumber == null) {
-            orderNumber = "ORD-" + System.currentTimeMillis();
+            orderNumber = OrderUtils.generateOrderNumber();
         }
     }
 
@@ -1,6 +1,7 @@
 package com.solekta.solekta.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.solekta.solekta.util.OrderUtils;
 import org.hibernate.annotations.CreationTimestamp;
 import lombok.*;
 
@@ -15,7 +16,9 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(exclude = "order")
 public class PaymentTransaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled like Order.id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_transactions_seq")
+    @SequenceGenerator(name = "payment_transactions_seq", sequenceName = "payment_transactions_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -55,7 +58,7 @@ public class PaymentTransaction {
     @PrePersist
     public void generatePaymentNumber() {
         if (paymentNumber == null) {
-            paymentNumber = "PAY-" + System.currentTimeMillis();
+            paymentNumber = OrderUtils.generatePaymentNumber();
         }
     }
 
@@ -6,7 +6,14 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "product")
+// Composite indexes back the keyset-paginated listings in CatalogPageRepository
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_price_id", columnList = "price, product_id"),
+        @Index(name = "idx_product_available_id", columnList = "is_available, product_id"),
+        @Index(name = "idx_product_available_price_id", columnList = "is_available, price, product_id"),
+        @Index(name = "idx_product_available_name", columnList = "is_available, product_name"),
+        @Index(name = "idx_product_category_price_id", columnList = "category_id, price, product_id")
+})
 @Getter @Setter @Builder @NoArgsConstructor @AllArgsConstructor
 @ToString(exclude = "category")
 @EqualsAndHashCode(exclude = "category")
@@ -42,10 +49,12 @@ public class Product {
     @Column(name = "image_urls", columnDefinition = "LONGTEXT")
     private String imageUrls;
 
-    // Product Image Storage (as binary data)
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] imageData;
+    // Product image lives in the content-addressed media store; only its metadata is kept here
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    @Column(name = "image_size")
+    private Long imageSize;
 
     @Column(length = 255)
     private String imageFileName;
@@ -0,0 +1,59 @@
+package com.solekta.solekta.model;
+
+import com.solekta.solekta.enums.StorageType;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Typed attributes parsed from {@link Product#getLaptopSpec()} when the product is
+ * written, one row per product. Null columns are attributes the parser could not find.
+ */
+@Entity
+@Table(name = "product_spec", indexes = {
+        @Index(name = "idx_spec_ram", columnList = "ram_gb"),
+        @Index(name = "idx_spec_storage", columnList = "storage_gb, storage_type"),
+        @Index(name = "idx_spec_cpu", columnList = "cpu_family"),
+        @Index(name = "idx_spec_gpu", columnList = "gpu"),
+        @Index(name = "idx_spec_screen", columnList = "screen_inches"),
+        @Index(name = "idx_spec_parser_version", columnList = "parser_version")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class ProductSpec {
+
+    // Same id as the product; not generated
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "ram_gb")
+    private Integer ramGb;
+
+    // 1 TB is stored as 1024 GB
+    @Column(name = "storage_gb")
+    private Integer storageGb;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_type", length = 8)
+    private StorageType storageType;
+
+    // Normalized family, e.g. "Intel Core i7", "AMD Ryzen 5", "Apple M2"
+    @Column(name = "cpu_family", length = 40)
+    private String cpuFamily;
+
+    // Normalized GPU, e.g. "NVIDIA RTX 4060", "Intel Iris Xe"
+    @Column(name = "gpu", length = 60)
+    private String gpu;
+
+    @Column(name = "screen_inches")
+    private Double screenInches;
+
+    // Rows written by an older parser are re-parsed at startup
+    @Column(name = "parser_version", nullable = false)
+    private Integer parserVersion;
+}
@@ -5,7 +5,14 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "service")
+// Composite indexes back the keyset-paginated listings in CatalogPageRepository
+@Table(name = "service", indexes = {
+        @Index(name = "idx_service_price_id", columnList = "price_per_day, service_id"),
+        @Index(name = "idx_service_name_id", columnList = "service_name, service_id"),
+        @Index(name = "idx_service_available_id", columnList = "is_available, service_id"),
+        @Index(name = "idx_service_available_price_id", columnList = "is_available, price_per_day, service_id"),
+        @Index(name = "idx_service_available_name_id", columnList = "is_available, service_name, service_id")
+})
 @Getter @Setter @Builder @NoArgsConstructor @AllArgsConstructor
 @ToString
 @EqualsAndHashCode
@@ -42,10 +49,12 @@ public class RentalService {
     @Builder.Default
     private Integer maxRentalPeriod = 720; // in hours (30 days)
 
-    // Service Image Storage (as binary data)
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] imageData;
+    // Service image lives in the content-addressed media store; only its metadata is kept here
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    @Column(name = "image_size")
+    private Long imageSize;
 
     @Column(length = 255)
     private String imageFileName;
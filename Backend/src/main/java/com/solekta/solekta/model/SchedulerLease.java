@@ -0,0 +1,26 @@
+package com.solekta.solekta.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per cluster-wide scheduled job. The node whose name is in owner may run
+ * the job until locked_until; see SchedulerLeaseService.
+ */
+@Entity
+@Table(name = "scheduler_leases")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class SchedulerLease {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false, length = 128)
+    private String owner;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+}
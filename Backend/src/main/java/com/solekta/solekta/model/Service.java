@@ -42,10 +42,12 @@ public class Service {
     @Builder.Default
     private Integer maxRentalPeriod = 720; // in hours (30 days)
 
-    // Service Image Storage (as binary data)
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] imageData;
+    // Service image lives in the content-addressed media store; only its metadata is kept here
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    @Column(name = "image_size")
+    private Long imageSize;
 
     @Column(length = 255)
     private String imageFileName;
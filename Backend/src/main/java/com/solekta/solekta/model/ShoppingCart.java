@@ -6,12 +6,16 @@ import lombok.*;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "shopping_carts")
+// updated_at index backs the abandoned-cart sweep (AbandonedCartSweeper)
+@Table(name = "shopping_carts", indexes = {
+        @Index(name = "idx_shopping_carts_updated_at", columnList = "updated_at, id")
+})
 @Getter @Setter @Builder @NoArgsConstructor @AllArgsConstructor
 @ToString(exclude = "cartItems")
 @EqualsAndHashCode(exclude = "cartItems")
@@ -29,6 +33,22 @@ public class ShoppingCart {
     @JsonManagedReference
     private List<CartItem> cartItems = new ArrayList<>();
 
+    // Denormalized from the lines by every cart mutation, so the summary never loads them
+    @Column(name = "item_count")
+    private Integer itemCount;
+
+    @Column(name = "subtotal", precision = 12, scale = 2)
+    private BigDecimal subtotal;
+
+    // Optimistic lock, incremented by every mutation since each one rewrites the totals
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Highest client version applied by /api/cart/sync; replaying it or an older one is a no-op
+    @Column(name = "last_sync_version")
+    private Long lastSyncVersion;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
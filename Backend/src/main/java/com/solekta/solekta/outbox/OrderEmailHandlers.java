@@ -0,0 +1,51 @@
+package com.solekta.solekta.outbox;
+
+import com.solekta.solekta.dto.OrderDTO;
+import com.solekta.solekta.model.OutboxEvent;
+import com.solekta.solekta.service.EmailService;
+import com.solekta.solekta.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The emails sent for a new order. Both read the order as it is when the event runs.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class OrderEmailHandlers {
+
+    private final OrderService orderService;
+    private final EmailService emailService;
+
+    @Bean
+    public OutboxHandler orderConfirmationEmailHandler() {
+        return new OutboxHandler() {
+            @Override
+            public OutboxEvent.EventType type() {
+                return OutboxEvent.EventType.ORDER_CONFIRMATION_EMAIL;
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                OrderDTO order = orderService.getOrderById(event.getAggregateId());
+                emailService.sendOrderConfirmationEmail(order.getCustomerEmail(), order);
+            }
+        };
+    }
+
+    @Bean
+    public OutboxHandler adminOrderNotificationHandler() {
+        return new OutboxHandler() {
+            @Override
+            public OutboxEvent.EventType type() {
+                return OutboxEvent.EventType.ADMIN_ORDER_NOTIFICATION;
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                emailService.sendAdminOrderNotification(orderService.getOrderById(event.getAggregateId()));
+            }
+        };
+    }
+}
@@ -0,0 +1,264 @@
+package com.solekta.solekta.outbox;
+
+import com.solekta.solekta.model.OutboxEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls outbox_events and runs due events on a bounded worker pool. A poll claims at
+ * most as many rows as the pool has room for: it selects them FOR UPDATE SKIP LOCKED, so
+ * pollers on other nodes skip them rather than wait, and pushes their next_attempt_at out
+ * by the claim timeout before committing. A worker that dies mid-event therefore only
+ * delays it. Failed events are retried with exponential backoff up to max-attempts.
+ *
+ * A claim must not expire while its event waits in the queue, or another poll would run
+ * it a second time. Polls therefore keep no more events in flight than the workers can
+ * finish, at app.outbox.max-event-ms each, well within the claim timeout, and a worker
+ * renews the claim with a conditional UPDATE before it starts an event, skipping events
+ * whose claim was taken over in the meantime.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private static final String CLAIM =
+            "SELECT id, event_type, aggregate_id, attempts FROM outbox_events "
+                    + "WHERE status = 'PENDING' AND next_attempt_at <= ? "
+                    + "ORDER BY next_attempt_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String MARK_CLAIMED =
+            "UPDATE outbox_events SET next_attempt_at = ?, attempts = attempts + 1 WHERE id = ?";
+    private static final String RENEW_CLAIM =
+            "UPDATE outbox_events SET next_attempt_at = ? WHERE id = ? AND status = 'PENDING' AND next_attempt_at = ?";
+    private static final String MARK_SENT =
+            "UPDATE outbox_events SET status = 'SENT', processed_at = ?, last_error = NULL WHERE id = ?";
+    private static final String MARK_RETRY =
+            "UPDATE outbox_events SET next_attempt_at = ?, last_error = ? WHERE id = ?";
+    private static final String MARK_FAILED =
+            "UPDATE outbox_events SET status = 'FAILED', processed_at = ?, last_error = ? WHERE id = ?";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<OutboxEvent.EventType, OutboxHandler> handlers = new EnumMap<>(OutboxEvent.EventType.class);
+    private final ThreadPoolExecutor workers;
+    // Events claimed by this node and not finished yet, queued or running
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Value("${app.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.backoff-ms:5000}")
+    private long backoffMs;
+
+    @Value("${app.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${app.outbox.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+
+    // Worst case for one event, e.g. the SMTP connect, read and write timeouts together
+    @Value("${app.outbox.max-event-ms:60000}")
+    private long maxEventMs;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            List<OutboxHandler> handlers,
+                            @Value("${app.outbox.workers:4}") int workerCount,
+                            @Value("${app.outbox.queue-capacity:100}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        for (OutboxHandler handler : handlers) {
+            if (this.handlers.put(handler.type(), handler) != null) {
+                throw new IllegalStateException("More than one outbox handler for " + handler.type());
+            }
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "outbox-worker-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        int room = Math.min(Math.min(batchSize, workers.getQueue().remainingCapacity()),
+                maxInFlight() - inFlight.get());
+        if (room <= 0) {
+            return;
+        }
+        List<OutboxEvent> claimed;
+        try {
+            claimed = claim(room);
+        } catch (DataAccessException e) {
+            log.warn("Outbox poll failed: {}", e.getMessage());
+            return;
+        }
+        for (OutboxEvent event : claimed) {
+            inFlight.incrementAndGet();
+            try {
+                workers.execute(() -> {
+                    try {
+                        run(event);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+                // Picked up again once its claim times out
+                log.warn("Outbox worker pool full, deferring event {}", event.getId());
+            }
+        }
+    }
+
+    // Every event in flight must finish before its claim expires: the queue drains in rounds
+    // of one event per worker, and one round's worth of the claim timeout is kept spare
+    int maxInFlight() {
+        long rounds = Math.max(1, claimTimeoutMs / Math.max(1, maxEventMs) - 1);
+        return (int) Math.min(Integer.MAX_VALUE, workers.getCorePoolSize() * rounds);
+    }
+
+    private List<OutboxEvent> claim(int limit) {
+        List<OutboxEvent> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = jdbcTemplate.query(CLAIM, (rs, rowNum) -> {
+                OutboxEvent event = new OutboxEvent(
+                        OutboxEvent.EventType.valueOf(rs.getString("event_type")), rs.getLong("aggregate_id"));
+                event.setId(rs.getLong("id"));
+                event.setAttempts(rs.getInt("attempts") + 1);
+                return event;
+            }, Timestamp.valueOf(now), limit);
+            if (due.isEmpty()) {
+                return Collections.<OutboxEvent>emptyList();
+            }
+            LocalDateTime claimedUntil = claimedUntil(now);
+            List<Object[]> args = new ArrayList<>(due.size());
+            for (OutboxEvent event : due) {
+                event.setNextAttemptAt(claimedUntil);
+                args.add(new Object[]{Timestamp.valueOf(claimedUntil), event.getId()});
+            }
+            jdbcTemplate.batchUpdate(MARK_CLAIMED, args);
+            return due;
+        });
+        return claimed != null ? claimed : Collections.emptyList();
+    }
+
+    private void run(OutboxEvent event) {
+        if (!renewClaim(event)) {
+            return;
+        }
+        try {
+            OutboxHandler handler = handlers.get(event.getEventType());
+            if (handler == null) {
+                throw new IllegalStateException("No outbox handler for " + event.getEventType());
+            }
+            handler.handle(event);
+            jdbcTemplate.update(MARK_SENT, Timestamp.valueOf(LocalDateTime.now()), event.getId());
+        } catch (RuntimeException e) {
+            failed(event, e);
+        }
+    }
+
+    // False when the claim expired and another poll took the event over; it runs there instead
+    private boolean renewClaim(OutboxEvent event) {
+        LocalDateTime claimedUntil = claimedUntil(LocalDateTime.now());
+        try {
+            if (jdbcTemplate.update(RENEW_CLAIM, Timestamp.valueOf(claimedUntil), event.getId(),
+                    Timestamp.valueOf(event.getNextAttemptAt())) == 0) {
+                log.warn("Outbox event {} lost its claim before it started, skipping", event.getId());
+                return false;
+            }
+        } catch (DataAccessException e) {
+            // The claim expires and the event runs again
+            log.warn("Could not renew claim of outbox event {}: {}", event.getId(), e.getMessage());
+            return false;
+        }
+        event.setNextAttemptAt(claimedUntil);
+        return true;
+    }
+
+    // Millisecond precision, so the stored value compares equal when the claim is renewed
+    private LocalDateTime claimedUntil(LocalDateTime now) {
+        return now.plusNanos(claimTimeoutMs * 1_000_000).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private void failed(OutboxEvent event, RuntimeException e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        try {
+            if (event.getAttempts() >= maxAttempts) {
+                log.error("Outbox event {} ({} for {}) failed after {} attempts: {}", event.getId(),
+                        event.getEventType(), event.getAggregateId(), event.getAttempts(), error);
+                jdbcTemplate.update(MARK_FAILED, Timestamp.valueOf(LocalDateTime.now()), error, event.getId());
+                return;
+            }
+            long delayMs = backoff(event.getAttempts());
+            log.warn("Outbox event {} ({} for {}) attempt {} failed, retrying in {} ms: {}", event.getId(),
+                    event.getEventType(), event.getAggregateId(), event.getAttempts(), delayMs, error);
+            jdbcTemplate.update(MARK_RETRY,
+                    Timestamp.valueOf(LocalDateTime.now().plusNanos(delayMs * 1_000_000)), error, event.getId());
+        } catch (DataAccessException dbError) {
+            // The claim expires and the event runs again
+            log.error("Could not record failure of outbox event {}: {}", event.getId(), dbError.getMessage());
+        }
+    }
+
+    // Doubles per attempt up to the cap; the upper half is randomised so retries spread out
+    private long backoff(int attempt) {
+        long delay = backoffMs << Math.min(attempt - 1, 30);
+        if (delay <= 0 || delay > maxBackoffMs) {
+            delay = maxBackoffMs;
+        }
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        int purged = jdbcTemplate.update("DELETE FROM outbox_events WHERE status = 'SENT' AND processed_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays)));
+        if (purged > 0) {
+            log.info("Purged {} sent outbox events older than {} days", purged, retentionDays);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+}
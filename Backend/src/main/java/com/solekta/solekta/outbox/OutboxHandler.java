@@ -0,0 +1,15 @@
+package com.solekta.solekta.outbox;
+
+import com.solekta.solekta.model.OutboxEvent;
+
+/**
+ * Runs one type of outbox event. Implementations are Spring beans; throwing marks the
+ * attempt failed and the event is retried with backoff. An event may run more than once
+ * (a worker can die after the effect but before the row is marked sent).
+ */
+public interface OutboxHandler {
+
+    OutboxEvent.EventType type();
+
+    void handle(OutboxEvent event);
+}
@@ -0,0 +1,23 @@
+package com.solekta.solekta.outbox;
+
+import com.solekta.solekta.model.OutboxEvent;
+import com.solekta.solekta.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Records an event in the caller's transaction; it is dispatched after that commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(OutboxEvent.EventType type, Long aggregateId) {
+        outboxEventRepository.save(new OutboxEvent(type, aggregateId));
+    }
+}
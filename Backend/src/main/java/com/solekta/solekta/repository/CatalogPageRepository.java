@@ -0,0 +1,118 @@
+package com.solekta.solekta.repository;
+
+import com.solekta.solekta.dto.ProductSummaryDTO;
+import com.solekta.solekta.enums.CatalogSort;
+import com.solekta.solekta.model.Category;
+import com.solekta.solekta.model.RentalService;
+import com.solekta.solekta.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination for the catalog listings. Each page continues with
+ * WHERE (sortKey, id) > (:lastKey, :lastId) ORDER BY sortKey, id LIMIT n, which walks
+ * the matching composite index, so page N costs the same as page 1.
+ */
+@Repository
+public class CatalogPageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<ProductSummaryDTO> findProductPage(CatalogSort sort, Boolean available, Long categoryId,
+                                                   KeysetCursor after, int limit) {
+        List<String> filters = new ArrayList<>();
+        if (available != null) {
+            filters.add("p.isAvailable = :available");
+        }
+        if (categoryId != null) {
+            filters.add("c.categoryId = :categoryId");
+        }
+        String sortPath = switch (sort) {
+            case PRICE_ASC, PRICE_DESC -> "p.price";
+            case NAME -> "p.productName";
+            case NEWEST -> null;
+        };
+        Object afterKey = after == null || after.getKey() == null ? null
+                : sortPath.equals("p.price") ? (Object) Double.valueOf(after.getKey()) : after.getKey();
+
+        TypedQuery<ProductSummaryDTO> query = seek(ProductSummaryDTO.class, ProductRepository.SUMMARY_SELECT,
+                filters, sortPath, "p.productId", sort.isDescending(), after, afterKey, limit);
+        if (available != null) {
+            query.setParameter("available", available);
+        }
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        return query.getResultList();
+    }
+
+    public List<RentalService> findServicePage(CatalogSort sort, Boolean available, KeysetCursor after, int limit) {
+        List<String> filters = new ArrayList<>();
+        if (available != null) {
+            filters.add("s.isAvailable = :available");
+        }
+        String sortPath = switch (sort) {
+            case PRICE_ASC, PRICE_DESC -> "s.pricePerDay";
+            case NAME -> "s.serviceName";
+            case NEWEST -> null;
+        };
+        Object afterKey = after == null || after.getKey() == null ? null
+                : sortPath.equals("s.pricePerDay") ? (Object) new BigDecimal(after.getKey()) : after.getKey();
+
+        TypedQuery<RentalService> query = seek(RentalService.class, "SELECT s FROM RentalService s ",
+                filters, sortPath, "s.serviceId", sort.isDescending(), after, afterKey, limit);
+        if (available != null) {
+            query.setParameter("available", available);
+        }
+        return query.getResultList();
+    }
+
+    public List<Category> findCategoryPage(CatalogSort sort, KeysetCursor after, int limit) {
+        String sortPath = switch (sort) {
+            case NAME -> "c.categoryName";
+            case NEWEST -> null;
+            default -> throw new IllegalArgumentException("Categories cannot be sorted by " + sort);
+        };
+        return seek(Category.class, "SELECT c FROM Category c ", new ArrayList<>(), sortPath, "c.categoryId",
+                sort.isDescending(), after, after != null ? after.getKey() : null, limit).getResultList();
+    }
+
+    private <T> TypedQuery<T> seek(Class<T> type, String select, List<String> filters, String sortPath,
+                                   String idPath, boolean descending, KeysetCursor after, Object afterKey,
+                                   int limit) {
+        String op = descending ? "<" : ">";
+        String direction = descending ? " DESC" : " ASC";
+        if (after != null) {
+            filters.add(sortPath == null
+                    ? idPath + " " + op + " :afterId"
+                    : "(" + sortPath + " " + op + " :afterKey OR (" + sortPath + " = :afterKey AND "
+                            + idPath + " " + op + " :afterId))");
+        }
+
+        StringBuilder jpql = new StringBuilder(select);
+        if (!filters.isEmpty()) {
+            jpql.append("WHERE ").append(String.join(" AND ", filters));
+        }
+        jpql.append(" ORDER BY ");
+        if (sortPath != null) {
+            jpql.append(sortPath).append(direction).append(", ");
+        }
+        jpql.append(idPath).append(direction);
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), type);
+        if (after != null) {
+            query.setParameter("afterId", after.getId());
+            if (sortPath != null) {
+                query.setParameter("afterKey", afterKey);
+            }
+        }
+        return query.setMaxResults(limit);
+    }
+}
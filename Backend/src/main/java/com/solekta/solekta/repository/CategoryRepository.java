@@ -1,6 +1,7 @@
 package com.solekta.solekta.repository;
 
 import com.solekta.solekta.model.Category;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,6 +13,10 @@ import java.util.Optional;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    // Capped listing for the unpaginated endpoint
+    @Query("SELECT c FROM Category c ORDER BY c.categoryId")
+    List<Category> findAllOrderById(Pageable pageable);
+
     // Find category by exact name match
     Optional<Category> findByCategoryName(String categoryName);
 
@@ -3,6 +3,7 @@ package com.solekta.solekta.repository;
 import com.solekta.solekta.model.OrderItem;
 import com.solekta.solekta.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +12,9 @@ import java.util.List;
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrder(Order order);
     List<OrderItem> findByProductId(Long productId);
+
+    // Units sold per product as [productId, quantity] rows
+    @Query("SELECT oi.productId, SUM(oi.quantity) FROM OrderItem oi " +
+           "WHERE oi.itemType = com.solekta.solekta.model.OrderItem.ItemType.PRODUCT GROUP BY oi.productId")
+    List<Object[]> sumQuantityByProduct();
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.solekta.solekta.repository;
+
+import com.solekta.solekta.model.Order;
+import com.solekta.solekta.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order listings in two phases: first the ids of one page, newest first, then those orders
+ * with their items and payment in a single join-fetch query. A page therefore costs the
+ * same number of statements whatever its size; fetching the join directly with a limit
+ * would make Hibernate page in memory over the multiplied rows.
+ *
+ * Newest first means created_at, with the id breaking ties. Ids alone do not follow
+ * creation order: each node draws them from the pooled sequence in blocks of 50.
+ */
+@Repository
+public class OrderPageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Optional filters; null fields are not applied.
+     */
+    public record Filter(Long customerId, Order.OrderStatus status, LocalDateTime from, LocalDateTime to) {
+
+        public static final Filter NONE = new Filter(null, null, null, null);
+    }
+
+    /**
+     * Position of an order in the listing order.
+     */
+    public record OrderKey(Long id, LocalDateTime createdAt) {
+    }
+
+    public Page<Long> findIdPage(Filter filter, Pageable pageable) {
+        List<String> clauses = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+        where(filter, clauses, params);
+
+        TypedQuery<Long> ids = query("SELECT o.id FROM Order o", clauses, params, Long.class, true);
+        ids.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        List<Long> content = ids.getResultList();
+
+        TypedQuery<Long> count = query("SELECT COUNT(o) FROM Order o", clauses, params, Long.class, false);
+        return new PageImpl<>(content, pageable, count.getSingleResult());
+    }
+
+    /**
+     * Seeks past the cursor on (created_at, id); the cursor key is the last order's createdAt.
+     */
+    public List<OrderKey> findKeysAfter(Filter filter, KeysetCursor after, int limit) {
+        List<String> clauses = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+        where(filter, clauses, params);
+        if (after != null) {
+            if (after.getKey() != null) {
+                clauses.add("(o.createdAt < :afterKey OR (o.createdAt = :afterKey AND o.id < :afterId))");
+                params.put("afterKey", parseKey(after.getKey()));
+            } else {
+                // Cursors issued before listings were ordered by createdAt
+                clauses.add("o.id < :afterId");
+            }
+            params.put("afterId", after.getId());
+        }
+        return query("SELECT o.id, o.createdAt FROM Order o", clauses, params, Object[].class, true)
+                .setMaxResults(limit)
+                .getResultList().stream()
+                .map(row -> new OrderKey((Long) row[0], (LocalDateTime) row[1]))
+                .toList();
+    }
+
+    public static String cursorKey(OrderKey key) {
+        return key.createdAt().toString();
+    }
+
+    private static LocalDateTime parseKey(String key) {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Loads the given orders with items and payment, in the order of the ids.
+     */
+    public List<Order> findWithItemsAndPayment(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Order> orders = entityManager.createQuery(
+                        "SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.payment LEFT JOIN FETCH o.orderItems "
+                                + "WHERE o.id IN :ids", Order.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        Map<Long, Integer> position = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            position.put(ids.get(i), i);
+        }
+        List<Order> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparing(order -> position.get(order.getId())));
+        return sorted;
+    }
+
+    private static void where(Filter filter, List<String> clauses, Map<String, Object> params) {
+        if (filter.customerId() != null) {
+            clauses.add("o.customerId = :customerId");
+            params.put("customerId", filter.customerId());
+        }
+        if (filter.status() != null) {
+            clauses.add("o.status = :status");
+            params.put("status", filter.status());
+        }
+        if (filter.from() != null) {
+            clauses.add("o.createdAt >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            clauses.add("o.createdAt <= :to");
+            params.put("to", filter.to());
+        }
+    }
+
+    private <T> TypedQuery<T> query(String select, List<String> clauses, Map<String, Object> params,
+                                    Class<T> type, boolean ordered) {
+        StringBuilder jpql = new StringBuilder(select);
+        if (!clauses.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", clauses));
+        }
+        if (ordered) {
+            jpql.append(" ORDER BY o.createdAt DESC, o.id DESC");
+        }
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), type);
+        params.forEach(query::setParameter);
+        return query;
+    }
+}
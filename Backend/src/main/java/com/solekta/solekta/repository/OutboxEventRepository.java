@@ -0,0 +1,9 @@
+package com.solekta.solekta.repository;
+
+import com.solekta.solekta.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+}
@@ -1,49 +1,80 @@
 package com.solekta.solekta.repository;
 
+import com.solekta.solekta.dto.CartLineRef;
+import com.solekta.solekta.dto.CatalogPrice;
+import com.solekta.solekta.dto.ProductSummaryDTO;
 import com.solekta.solekta.model.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    // Basic CRUD operations are provided by JpaRepository
+    // Listing projection: never selects image_data or the TEXT columns
+    String SUMMARY_SELECT = "SELECT new com.solekta.solekta.dto.ProductSummaryDTO(" +
+            "p.productId, p.productName, p.brand, p.price, p.quantity, p.isAvailable, " +
+            "c.categoryId, c.categoryName, p.imageHash) " +
+            "FROM Product p LEFT JOIN p.category c ";
+
+    // Basic CRUD operations are provided by JpaRepository.
+    // Product JSON exposes categoryId/categoryName, so every read that ends up
+    // serialized fetches the category in the same query (no N+1 lazy loads).
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Long id);
 
     // Find available products
+    @EntityGraph(attributePaths = "category")
     List<Product> findByIsAvailableTrue();
 
     // Find products by category ID
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId")
     List<Product> findByCategoryCategoryId(@Param("categoryId") Long categoryId);
 
     // Search products by name or description
+    @EntityGraph(attributePaths = "category")
     List<Product> findByProductNameContainingIgnoreCaseOrProductDescriptionContainingIgnoreCase(String name, String description);
 
     // Find products by brand
+    @EntityGraph(attributePaths = "category")
     List<Product> findByBrandContainingIgnoreCase(String brand);
 
     // Find products within price range
+    @EntityGraph(attributePaths = "category")
     List<Product> findByPriceBetween(Double minPrice, Double maxPrice);
 
     // Find products with low stock
+    @EntityGraph(attributePaths = "category")
     List<Product> findByQuantityLessThanEqual(Integer quantity);
 
     // Find products by availability status
+    @EntityGraph(attributePaths = "category")
     List<Product> findByIsAvailable(Boolean isAvailable);
 
     // Count total products
     long count();
 
     // Custom query to find products by category name
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p JOIN p.category c WHERE c.categoryName = :categoryName")
     List<Product> findByCategoryName(@Param("categoryName") String categoryName);
 
     // Find products by multiple criteria
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE " +
            "(:name IS NULL OR LOWER(p.productName) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
            "(:brand IS NULL OR LOWER(p.brand) LIKE LOWER(CONCAT('%', :brand, '%'))) AND " +
@@ -55,4 +86,36 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                       @Param("minPrice") Double minPrice,
                                       @Param("maxPrice") Double maxPrice,
                                       @Param("categoryId") Long categoryId);
-}
\ No newline at end of file
+
+    // ===== Listing projections =====
+
+    // The unpaginated listings are capped through the Pageable; use CatalogPageRepository to page
+    @Query(SUMMARY_SELECT + "ORDER BY p.productId")
+    List<ProductSummaryDTO> findAllSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.isAvailable = true ORDER BY p.productId")
+    List<ProductSummaryDTO> findAvailableSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE c.categoryId = :categoryId ORDER BY p.productId")
+    List<ProductSummaryDTO> findSummariesByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE " +
+           "LOWER(p.productName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(p.productDescription) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "ORDER BY p.productId")
+    List<ProductSummaryDTO> searchSummaries(@Param("keyword") String keyword, Pageable pageable);
+
+    // Cart line names for a batch of products, one query per cart
+    @Query("SELECT new com.solekta.solekta.dto.CartLineRef(p.productId, p.productName, c.categoryName) " +
+           "FROM Product p LEFT JOIN p.category c WHERE p.productId IN :ids")
+    List<CartLineRef> findCartLineRefs(@Param("ids") Collection<Long> ids);
+
+    // Prices for the in-memory cart price snapshot
+    @Query("SELECT new com.solekta.solekta.dto.CatalogPrice(p.productId, p.price) FROM Product p")
+    List<CatalogPrice> findAllPrices();
+
+    // Prices for a batch of products, one query per checkout
+    @Query("SELECT new com.solekta.solekta.dto.CatalogPrice(p.productId, p.price) " +
+           "FROM Product p WHERE p.productId IN :ids")
+    List<CatalogPrice> findPrices(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,27 @@
+package com.solekta.solekta.repository;
+
+import com.solekta.solekta.model.ProductSpec;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ProductSpecRepository extends JpaRepository<ProductSpec, Long> {
+
+    // [productId, laptopSpec] of products without a spec row or with one from an older parser
+    @Query("SELECT p.productId, p.laptopSpec FROM Product p " +
+           "LEFT JOIN ProductSpec s ON s.productId = p.productId " +
+           "WHERE s.productId IS NULL OR s.parserVersion < :version")
+    List<Object[]> findUnparsedSpecs(@Param("version") int version);
+
+    // Rows left behind by products deleted through the category cascade
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductSpec s WHERE s.productId NOT IN (SELECT p.productId FROM Product p)")
+    int deleteOrphans();
+}
@@ -1,12 +1,16 @@
 package com.solekta.solekta.repository;
 
+import com.solekta.solekta.dto.CartLineRef;
+import com.solekta.solekta.dto.CatalogPrice;
 import com.solekta.solekta.model.RentalService;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +19,9 @@ public interface ServiceRepository extends JpaRepository<RentalService, Long> {
     // Find available services
     List<RentalService> findByIsAvailableTrue();
 
+    @Query("SELECT s FROM RentalService s WHERE s.isAvailable = true ORDER BY s.serviceId")
+    List<RentalService> findAvailable(Pageable pageable);
+
     // Find services by category
     List<RentalService> findByCategoryContainingIgnoreCase(String category);
 
@@ -29,8 +36,23 @@ public interface ServiceRepository extends JpaRepository<RentalService, Long> {
     List<RentalService> findByPricePerDayBetween(BigDecimal minPrice, BigDecimal maxPrice);
 
     // Find active services (custom query if needed)
-    @Query("SELECT s FROM RentalService s ORDER BY s.serviceName")
-    List<RentalService> findAllOrderByName();
+    @Query("SELECT s FROM RentalService s ORDER BY s.serviceName, s.serviceId")
+    List<RentalService> findAllOrderByName(Pageable pageable);
+
+    // Cart line names for a batch of services, one query per cart
+    @Query("SELECT new com.solekta.solekta.dto.CartLineRef(s.serviceId, s.serviceName) " +
+           "FROM RentalService s WHERE s.serviceId IN :ids")
+    List<CartLineRef> findCartLineRefs(@Param("ids") Collection<Long> ids);
+
+    // Prices for the in-memory cart price snapshot
+    @Query("SELECT new com.solekta.solekta.dto.CatalogPrice(s.serviceId, s.pricePerDay, s.pricePerHour) " +
+           "FROM RentalService s")
+    List<CatalogPrice> findAllPrices();
+
+    // Prices for a batch of services, one query per checkout
+    @Query("SELECT new com.solekta.solekta.dto.CatalogPrice(s.serviceId, s.pricePerDay, s.pricePerHour) " +
+           "FROM RentalService s WHERE s.serviceId IN :ids")
+    List<CatalogPrice> findPrices(@Param("ids") Collection<Long> ids);
 
     // Check if service exists by name
     boolean existsByServiceName(String serviceName);
@@ -1,7 +1,11 @@
 package com.solekta.solekta.repository;
 
+import com.solekta.solekta.dto.CartSummaryDTO;
 import com.solekta.solekta.model.ShoppingCart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +13,13 @@ import java.util.Optional;
 @Repository
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
     Optional<ShoppingCart> findByCustomerId(Long customerId);
+
+    // Cart and lines in one query, for callers outside a transaction
+    @EntityGraph(attributePaths = "cartItems")
+    Optional<ShoppingCart> findWithItemsByCustomerId(Long customerId);
+
+    // Denormalized totals only; never touches cart_items
+    @Query("SELECT new com.solekta.solekta.dto.CartSummaryDTO(c.id, c.itemCount, c.subtotal, c.version, c.updatedAt) " +
+           "FROM ShoppingCart c WHERE c.customerId = :customerId")
+    Optional<CartSummaryDTO> findSummaryByCustomerId(@Param("customerId") Long customerId);
 }
\ No newline at end of file
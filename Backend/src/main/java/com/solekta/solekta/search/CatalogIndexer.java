@@ -0,0 +1,145 @@
+package com.solekta.solekta.search;
+
+import com.solekta.solekta.event.CatalogChangedEvent;
+import com.solekta.solekta.event.StockReservedEvent;
+import com.solekta.solekta.model.Product;
+import com.solekta.solekta.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads every {@link ProductIndex} at startup and applies catalog writes to them
+ * once the writing transaction has committed.
+ *
+ * A full rebuild works from one findAll, which may miss products committed while it
+ * runs, so every product written during a rebuild is re-read and re-indexed once the
+ * rebuild is done. Category writes rebuild in the background, since category names
+ * are denormalized into every product entry; bursts of them collapse into one rebuild.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogIndexer {
+
+    private final ProductRepository productRepository;
+    private final List<ProductIndex> indexes;
+
+    private volatile boolean ready;
+
+    // Ids of products written while a rebuild runs, null otherwise; guarded by this
+    private Set<Long> writtenDuringRebuild;
+
+    // Serializes rebuilds so a newer one is never overwritten by an older one
+    private final Object rebuildLock = new Object();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAll() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                writtenDuringRebuild = new HashSet<>();
+            }
+            long start = System.currentTimeMillis();
+            List<Product> products = productRepository.findAll();
+            for (ProductIndex index : indexes) {
+                index.rebuild(products);
+            }
+            Set<Long> written;
+            synchronized (this) {
+                written = writtenDuringRebuild;
+                writtenDuringRebuild = null;
+                ready = true;
+            }
+            written.forEach(this::reindexProduct);
+            log.info("Built {} catalog indexes over {} products in {} ms ({} written meanwhile)",
+                    indexes.size(), products.size(), System.currentTimeMillis() - start, written.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.getEntityType()) {
+            case PRODUCT -> {
+                if (track(event.getEntityId())) {
+                    reindexProduct(event.getEntityId());
+                }
+            }
+            // Category names are denormalized into product entries
+            case CATEGORY -> scheduleRebuild();
+            default -> {
+                // Services are not part of the product indexes
+            }
+        }
+    }
+
+    // Checkouts only move stock, so the indexes adjust it in place without reloading products
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockReserved(StockReservedEvent event) {
+        event.getQuantities().forEach((productId, quantity) -> {
+            if (track(productId)) {
+                for (ProductIndex index : indexes) {
+                    index.stockReserved(productId, quantity);
+                }
+            }
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    // Remembers a write for the running rebuild, if any; true when the indexes can take it now
+    private synchronized boolean track(Long productId) {
+        if (writtenDuringRebuild != null) {
+            writtenDuringRebuild.add(productId);
+        }
+        return ready;
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildQueued.set(false);
+                try {
+                    rebuildAll();
+                } catch (RuntimeException e) {
+                    log.error("Failed to rebuild catalog indexes: {}", e.getMessage(), e);
+                }
+            });
+        }
+    }
+
+    private void reindexProduct(Long productId) {
+        Optional<Product> product = productRepository.findById(productId);
+        for (ProductIndex index : indexes) {
+            if (product.isPresent()) {
+                index.upsert(product.get());
+            } else {
+                index.remove(productId);
+            }
+        }
+    }
+}
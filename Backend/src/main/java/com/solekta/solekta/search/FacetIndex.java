@@ -0,0 +1,474 @@
+package com.solekta.solekta.search;
+
+import com.solekta.solekta.dto.FacetCountDTO;
+import com.solekta.solekta.dto.FacetedProductsDTO;
+import com.solekta.solekta.dto.PriceBucketDTO;
+import com.solekta.solekta.dto.ProductFilterRequest;
+import com.solekta.solekta.dto.ProductSummaryDTO;
+import com.solekta.solekta.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Faceted catalog filtering over compressed bitmaps keyed by product id.
+ *
+ * There is one bitmap per brand, category, price bucket and for in-stock products.
+ * A filter is a union within each facet and an intersection across facets, and facet
+ * counts are intersection cardinalities, so a filtered page with all of its facets
+ * is answered without touching the database.
+ */
+@Component
+@Slf4j
+public class FacetIndex implements ProductIndex {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Finer quantile buckets used to answer price ranges; only the edge buckets are scanned
+    private static final int RANGE_BUCKETS = 64;
+
+    // Below this many matches per facet value, counting by scanning the matches beats
+    // intersecting every value's bitmap with them
+    private static final int SCAN_LIMIT_PER_VALUE = 2048;
+
+    // Most populated values first, then alphabetical
+    private static final Comparator<FacetCountDTO> FACET_ORDER = Comparator
+            .comparingInt(FacetCountDTO::getCount).reversed()
+            .thenComparing(facet -> facet.getLabel() != null ? facet.getLabel() : "");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Lower bounds of every bucket after the first, ascending
+    private final double[] priceEdges;
+
+    // Columns indexed by product id, which doubles as the bitmap doc id
+    private ProductSummaryDTO[] products = new ProductSummaryDTO[256];
+    private double[] prices = new double[256];
+    private int[] docBrand = new int[256];
+    private int[] docCategory = new int[256];
+    private int[] docPriceBucket = new int[256];
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap available = new RoaringBitmap();
+
+    // Facet values get a stable ordinal so per-doc columns can refer to them
+    private final Map<String, Integer> brandOrdinals = new HashMap<>();
+    private final List<String> brandKeys = new ArrayList<>();
+    private final Map<String, RoaringBitmap> brands = new HashMap<>();
+    private final Map<String, String> brandLabels = new HashMap<>();
+    private final Map<Long, Integer> categoryOrdinals = new HashMap<>();
+    private final List<Long> categoryIds = new ArrayList<>();
+    private final Map<Long, RoaringBitmap> categories = new HashMap<>();
+    private final Map<Long, String> categoryLabels = new HashMap<>();
+    private final RoaringBitmap[] priceBuckets;
+    private double[] rangeEdges = new double[0];
+    private RoaringBitmap[] rangeBuckets = {new RoaringBitmap()};
+
+    private final SpecIndex specIndex;
+
+    public FacetIndex(@Value("${app.catalog.price-buckets:50000,100000,200000,300000,500000}") double[] priceEdges,
+                      SpecIndex specIndex) {
+        this.specIndex = specIndex;
+        this.priceEdges = priceEdges.clone();
+        Arrays.sort(this.priceEdges);
+        this.priceBuckets = new RoaringBitmap[this.priceEdges.length + 1];
+        for (int i = 0; i < priceBuckets.length; i++) {
+            priceBuckets[i] = new RoaringBitmap();
+        }
+    }
+
+    @Override
+    public void rebuild(List<Product> catalog) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> existing = new ArrayList<>(all.cardinality());
+            all.forEach(existing::add);
+            existing.forEach(this::removeDocument);
+            brandOrdinals.clear();
+            brandKeys.clear();
+            categoryOrdinals.clear();
+            categoryIds.clear();
+            rangeEdges = quantiles(catalog);
+            rangeBuckets = new RoaringBitmap[rangeEdges.length + 1];
+            for (int i = 0; i < rangeBuckets.length; i++) {
+                rangeBuckets[i] = new RoaringBitmap();
+            }
+            for (Product product : catalog) {
+                addDocument(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docId(product.getProductId());
+            if (doc != null) {
+                removeDocument(doc);
+                addDocument(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docId(productId);
+            if (doc != null) {
+                removeDocument(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void stockReserved(Long productId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docId(productId);
+            ProductSummaryDTO summary = doc != null && doc < products.length ? products[doc] : null;
+            if (summary == null) {
+                return;
+            }
+            // Summaries may be in flight in responses, so the row is replaced rather than changed
+            ProductSummaryDTO updated = new ProductSummaryDTO();
+            BeanUtils.copyProperties(summary, updated);
+            updated.setQuantity(summary.getQuantity() != null ? summary.getQuantity() - quantity : null);
+            if (updated.getQuantity() != null && updated.getQuantity() <= 0) {
+                updated.setIsAvailable(false);
+            }
+            products[doc] = updated;
+            if (!isInStock(updated)) {
+                available.remove(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetedProductsDTO filter(ProductFilterRequest request) {
+        int page = Math.max(0, request.getPage());
+        int size = Math.min(Math.max(1, request.getSize()), MAX_PAGE_SIZE);
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap brandFilter = brandFilter(request.getBrand());
+            RoaringBitmap categoryFilter = categoryFilter(request.getCategoryId());
+            RoaringBitmap availabilityFilter = availabilityFilter(request.getAvailable());
+            RoaringBitmap priceFilter = priceFilter(request.getMinPrice(), request.getMaxPrice());
+            // Spec criteria are not faceted, so they narrow every facet's scope
+            RoaringBitmap specFilter = specIndex.match(request);
+
+            RoaringBitmap matches = intersect(brandFilter, categoryFilter, availabilityFilter, priceFilter, specFilter);
+
+            List<ProductSummaryDTO> pageItems = new ArrayList<>(size);
+            long skip = (long) page * size;
+            long[] seen = {0};
+            matches.forEach(doc -> {
+                if (seen[0]++ >= skip) {
+                    pageItems.add(products[doc]);
+                }
+                return pageItems.size() < size;
+            });
+
+            // Disjunctive faceting: each facet ignores its own selection
+            List<FacetCountDTO> brandCounts = countBrands(
+                    intersect(categoryFilter, availabilityFilter, priceFilter, specFilter), request.getBrand());
+            List<FacetCountDTO> categoryCounts = countCategories(
+                    intersect(brandFilter, availabilityFilter, priceFilter, specFilter), request.getCategoryId());
+            List<PriceBucketDTO> histogram = priceHistogram(
+                    intersect(brandFilter, categoryFilter, availabilityFilter, specFilter));
+
+            return new FacetedProductsDTO(matches.cardinality(), page, size, pageItems,
+                    brandCounts, categoryCounts, histogram);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== Indexing (callers hold the write lock) =====
+
+    private void addDocument(Product product) {
+        Integer doc = docId(product.getProductId());
+        if (doc == null) {
+            return;
+        }
+        ProductSummaryDTO summary = ProductSummaryDTO.from(product);
+        if (doc >= products.length) {
+            int capacity = Math.max(doc + 1, products.length * 2);
+            products = Arrays.copyOf(products, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            docBrand = Arrays.copyOf(docBrand, capacity);
+            docCategory = Arrays.copyOf(docCategory, capacity);
+            docPriceBucket = Arrays.copyOf(docPriceBucket, capacity);
+        }
+        products[doc] = summary;
+        docBrand[doc] = -1;
+        docCategory[doc] = -1;
+        docPriceBucket[doc] = -1;
+        all.add(doc);
+        if (isInStock(summary)) {
+            available.add(doc);
+        }
+        String brand = brandKey(summary.getBrand());
+        if (brand != null) {
+            brands.computeIfAbsent(brand, b -> new RoaringBitmap()).add(doc);
+            brandLabels.putIfAbsent(brand, summary.getBrand().trim());
+            docBrand[doc] = brandOrdinals.computeIfAbsent(brand, b -> {
+                brandKeys.add(b);
+                return brandKeys.size() - 1;
+            });
+        }
+        if (summary.getCategoryId() != null) {
+            categories.computeIfAbsent(summary.getCategoryId(), c -> new RoaringBitmap()).add(doc);
+            categoryLabels.put(summary.getCategoryId(), summary.getCategoryName());
+            docCategory[doc] = categoryOrdinals.computeIfAbsent(summary.getCategoryId(), c -> {
+                categoryIds.add(c);
+                return categoryIds.size() - 1;
+            });
+        }
+        if (summary.getPrice() != null) {
+            prices[doc] = summary.getPrice();
+            docPriceBucket[doc] = bucketOf(priceEdges, summary.getPrice());
+            priceBuckets[docPriceBucket[doc]].add(doc);
+            rangeBuckets[bucketOf(rangeEdges, summary.getPrice())].add(doc);
+        }
+    }
+
+    private void removeDocument(int doc) {
+        ProductSummaryDTO summary = doc < products.length ? products[doc] : null;
+        if (summary == null) {
+            return;
+        }
+        products[doc] = null;
+        all.remove(doc);
+        available.remove(doc);
+        String brand = brandKey(summary.getBrand());
+        if (brand != null) {
+            RoaringBitmap bitmap = brands.get(brand);
+            bitmap.remove(doc);
+            if (bitmap.isEmpty()) {
+                brands.remove(brand);
+                brandLabels.remove(brand);
+            }
+        }
+        if (summary.getCategoryId() != null) {
+            RoaringBitmap bitmap = categories.get(summary.getCategoryId());
+            bitmap.remove(doc);
+            if (bitmap.isEmpty()) {
+                categories.remove(summary.getCategoryId());
+                categoryLabels.remove(summary.getCategoryId());
+            }
+        }
+        if (summary.getPrice() != null) {
+            priceBuckets[bucketOf(priceEdges, summary.getPrice())].remove(doc);
+            rangeBuckets[bucketOf(rangeEdges, summary.getPrice())].remove(doc);
+        }
+    }
+
+    private Integer docId(Long productId) {
+        if (productId == null || productId < 0 || productId > Integer.MAX_VALUE) {
+            if (productId != null) {
+                log.warn("Product id {} is out of range for the facet index", productId);
+            }
+            return null;
+        }
+        return productId.intValue();
+    }
+
+    private static boolean isInStock(ProductSummaryDTO summary) {
+        return Boolean.TRUE.equals(summary.getIsAvailable())
+                && summary.getQuantity() != null && summary.getQuantity() > 0;
+    }
+
+    private static String brandKey(String brand) {
+        if (brand == null || brand.isBlank()) {
+            return null;
+        }
+        return brand.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int bucketOf(double[] edges, double price) {
+        int i = Arrays.binarySearch(edges, price);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    // Distinct price quantiles, so each range bucket holds a similar number of products
+    private static double[] quantiles(List<Product> catalog) {
+        double[] sorted = catalog.stream()
+                .filter(product -> product.getPrice() != null)
+                .mapToDouble(Product::getPrice)
+                .sorted()
+                .toArray();
+        if (sorted.length == 0) {
+            return new double[0];
+        }
+        return IntStream.range(1, RANGE_BUCKETS)
+                .mapToDouble(i -> sorted[(int) ((long) i * sorted.length / RANGE_BUCKETS)])
+                .distinct()
+                .toArray();
+    }
+
+    // ===== Query evaluation (callers hold the read lock) =====
+
+    private RoaringBitmap brandFilter(List<String> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        List<RoaringBitmap> bitmaps = new ArrayList<>(selected.size());
+        for (String brand : selected) {
+            RoaringBitmap bitmap = brands.get(brandKey(brand));
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+        return RoaringBitmap.orAll(bitmaps);
+    }
+
+    private RoaringBitmap categoryFilter(List<Long> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        List<RoaringBitmap> bitmaps = new ArrayList<>(selected.size());
+        for (Long categoryId : selected) {
+            RoaringBitmap bitmap = categories.get(categoryId);
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+        return RoaringBitmap.orAll(bitmaps);
+    }
+
+    private RoaringBitmap availabilityFilter(Boolean wanted) {
+        if (wanted == null) {
+            return null;
+        }
+        return wanted ? available : RoaringBitmap.andNot(all, available);
+    }
+
+    /**
+     * Range buckets that lie fully inside the range are taken whole; only the two
+     * edge buckets are checked product by product.
+     */
+    private RoaringBitmap priceFilter(Double minPrice, Double maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return null;
+        }
+        double min = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+        double max = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+        List<RoaringBitmap> covered = new ArrayList<>();
+        RoaringBitmap partial = new RoaringBitmap();
+        for (int bucket = 0; bucket < rangeBuckets.length; bucket++) {
+            double lower = bucket == 0 ? Double.NEGATIVE_INFINITY : rangeEdges[bucket - 1];
+            double upper = bucket == rangeEdges.length ? Double.POSITIVE_INFINITY : rangeEdges[bucket];
+            if (upper <= min || lower > max) {
+                continue;
+            }
+            if (lower >= min && upper <= max) {
+                covered.add(rangeBuckets[bucket]);
+            } else {
+                rangeBuckets[bucket].forEach(doc -> {
+                    if (prices[doc] >= min && prices[doc] <= max) {
+                        partial.add(doc);
+                    }
+                    return true;
+                });
+            }
+        }
+        covered.add(partial);
+        return RoaringBitmap.orAll(covered);
+    }
+
+    private RoaringBitmap intersect(RoaringBitmap... filters) {
+        RoaringBitmap result = all;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    private List<FacetCountDTO> countBrands(RoaringBitmap scope, List<String> selected) {
+        Set<String> selectedKeys = new HashSet<>();
+        if (selected != null) {
+            selected.forEach(brand -> selectedKeys.add(brandKey(brand)));
+        }
+        int[] scanned = shouldScan(scope, brands.size()) ? countColumn(scope, docBrand, brandKeys.size()) : null;
+        List<FacetCountDTO> counts = new ArrayList<>();
+        for (Map.Entry<String, RoaringBitmap> entry : brands.entrySet()) {
+            int count = scanned != null
+                    ? scanned[brandOrdinals.get(entry.getKey())]
+                    : RoaringBitmap.andCardinality(entry.getValue(), scope);
+            if (count > 0 || selectedKeys.contains(entry.getKey())) {
+                counts.add(new FacetCountDTO(entry.getKey(), brandLabels.get(entry.getKey()), count));
+            }
+        }
+        counts.sort(FACET_ORDER);
+        return counts;
+    }
+
+    private List<FacetCountDTO> countCategories(RoaringBitmap scope, List<Long> selected) {
+        int[] scanned = shouldScan(scope, categories.size()) ? countColumn(scope, docCategory, categoryIds.size()) : null;
+        List<FacetCountDTO> counts = new ArrayList<>();
+        for (Map.Entry<Long, RoaringBitmap> entry : categories.entrySet()) {
+            int count = scanned != null
+                    ? scanned[categoryOrdinals.get(entry.getKey())]
+                    : RoaringBitmap.andCardinality(entry.getValue(), scope);
+            if (count > 0 || (selected != null && selected.contains(entry.getKey()))) {
+                counts.add(new FacetCountDTO(String.valueOf(entry.getKey()), categoryLabels.get(entry.getKey()), count));
+            }
+        }
+        counts.sort(FACET_ORDER);
+        return counts;
+    }
+
+    private List<PriceBucketDTO> priceHistogram(RoaringBitmap scope) {
+        int[] scanned = shouldScan(scope, priceBuckets.length) ? countColumn(scope, docPriceBucket, priceBuckets.length) : null;
+        List<PriceBucketDTO> histogram = new ArrayList<>(priceBuckets.length);
+        for (int bucket = 0; bucket < priceBuckets.length; bucket++) {
+            Double lower = bucket == 0 ? 0.0 : priceEdges[bucket - 1];
+            Double upper = bucket == priceEdges.length ? null : priceEdges[bucket];
+            int count = scanned != null ? scanned[bucket] : RoaringBitmap.andCardinality(priceBuckets[bucket], scope);
+            histogram.add(new PriceBucketDTO(lower, upper, count));
+        }
+        return histogram;
+    }
+
+    private static boolean shouldScan(RoaringBitmap scope, int values) {
+        return scope.cardinality() <= (long) values * SCAN_LIMIT_PER_VALUE;
+    }
+
+    // One pass over the matches, bumping the counter of each doc's facet value
+    private static int[] countColumn(RoaringBitmap scope, int[] column, int values) {
+        int[] counts = new int[values];
+        scope.forEach(doc -> {
+            int value = column[doc];
+            if (value >= 0) {
+                counts[value]++;
+            }
+            return true;
+        });
+        return counts;
+    }
+}
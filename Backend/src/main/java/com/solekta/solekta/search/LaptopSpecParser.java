@@ -0,0 +1,176 @@
+package com.solekta.solekta.search;
+
+import com.solekta.solekta.enums.StorageType;
+import com.solekta.solekta.model.ProductSpec;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts typed attributes from the free-text laptop spec, e.g.
+ * "Intel Core i7-1355U, 16GB DDR5 RAM, 512GB NVMe SSD, 15.6" FHD, RTX 4050"
+ * -> ram 16, storage 512 SSD, cpu "Intel Core i7", gpu "NVIDIA RTX 4050", screen 15.6.
+ * Attributes that cannot be recognized are left null.
+ */
+public final class LaptopSpecParser {
+
+    // Bump when the rules change so stored rows get re-parsed at startup
+    public static final int VERSION = 2;
+
+    private static final int FLAGS = Pattern.CASE_INSENSITIVE;
+
+    private static final Pattern RAM = Pattern.compile(
+            "(\\d{1,3})\\s*GB\\s*(?:of\\s*)?(?:(?:LP)?DDR\\d\\w*\\s*|unified\\s*)?(?:RAM|memory)"
+                    + "|(?:RAM|memory)\\s*[:\\-]?\\s*(\\d{1,3})\\s*GB"
+                    + "|(\\d{1,3})\\s*GB\\s*(?:LP)?DDR\\d", FLAGS);
+    private static final Pattern STORAGE = Pattern.compile(
+            "(\\d+(?:\\.\\d+)?)\\s*(TB|GB)\\s*(?:(?:PCIe|Gen\\s*\\d|M\\.2)\\s*)*(SSD|HDD|eMMC|NVMe)"
+                    + "|(SSD|HDD|eMMC|NVMe|storage)\\s*[:\\-]?\\s*(\\d+(?:\\.\\d+)?)\\s*(TB|GB)"
+                    // "Storage: 1TB HDD" names the medium after the size
+                    + "(?:\\s*(?:PCIe|Gen\\s*\\d|M\\.2))*(?:\\s*(SSD|HDD|eMMC|NVMe))?", FLAGS);
+    private static final Pattern SCREEN = Pattern.compile(
+            "(\\d{2}(?:\\.\\d{1,2})?)\\s*(?:\"|''|”|-?\\s*inch(?:es)?\\b|in\\b)", FLAGS);
+
+    private static final Pattern CORE_ULTRA = Pattern.compile("\\bCore\\s*Ultra\\s*([579])\\b", FLAGS);
+    private static final Pattern CORE_I = Pattern.compile("\\b(?:Core\\s*)?i([3579])(?=[-\\s]|\\d{4,5}|$|[,;/)])", FLAGS);
+    private static final Pattern RYZEN = Pattern.compile("\\bRyzen\\s*(?:AI\\s*)?([3579])\\b", FLAGS);
+    private static final Pattern APPLE = Pattern.compile("\\b(?:Apple\\s*)?M([1-4])(?![.\\d])(?:\\s*(Pro|Max|Ultra)\\b)?", FLAGS);
+    private static final Pattern OTHER_CPU = Pattern.compile("\\b(Celeron|Pentium|Athlon|Snapdragon|MediaTek)\\b", FLAGS);
+
+    private static final Pattern NVIDIA = Pattern.compile("\\b(RTX|GTX|MX)\\s*A?(\\d{3,4})(\\s*Ti)?\\b", FLAGS);
+    private static final Pattern RADEON_RX = Pattern.compile("\\bRadeon\\s*(?:Pro\\s*)?RX\\s*(\\d{3,4}[A-Z]{0,2})\\b", FLAGS);
+    private static final Pattern INTEL_ARC = Pattern.compile("\\bArc\\s*(A\\d{3}M?)?\\b", FLAGS);
+    private static final Pattern IRIS_XE = Pattern.compile("\\bIris\\s*Xe\\b", FLAGS);
+    private static final Pattern UHD = Pattern.compile("\\b(?:Intel\\s*)?UHD\\b", FLAGS);
+    private static final Pattern RADEON = Pattern.compile("\\bRadeon\\b", FLAGS);
+
+    private LaptopSpecParser() {
+    }
+
+    public static ProductSpec parse(Long productId, String spec) {
+        ProductSpec.ProductSpecBuilder builder = ProductSpec.builder()
+                .productId(productId)
+                .parserVersion(VERSION);
+        if (spec == null || spec.isBlank()) {
+            return builder.build();
+        }
+        builder.ramGb(ramGb(spec))
+                .cpuFamily(cpuFamily(spec))
+                .gpu(gpu(spec))
+                .screenInches(screenInches(spec));
+        Matcher storage = STORAGE.matcher(spec);
+        if (storage.find()) {
+            boolean sizeFirst = storage.group(1) != null;
+            double size = Double.parseDouble(sizeFirst ? storage.group(1) : storage.group(5));
+            String unit = sizeFirst ? storage.group(2) : storage.group(6);
+            String type = sizeFirst ? storage.group(3)
+                    : storage.group(7) != null ? storage.group(7) : storage.group(4);
+            builder.storageGb((int) Math.round(unit.equalsIgnoreCase("TB") ? size * 1024 : size))
+                    .storageType(storageType(type));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Normalized CPU family of a spec string or a user query such as "i7" or "ryzen 5".
+     */
+    public static String cpuFamily(String text) {
+        Matcher m = CORE_ULTRA.matcher(text);
+        if (m.find()) {
+            return "Intel Core Ultra " + m.group(1);
+        }
+        m = CORE_I.matcher(text);
+        if (m.find()) {
+            return "Intel Core i" + m.group(1);
+        }
+        m = RYZEN.matcher(text);
+        if (m.find()) {
+            return "AMD Ryzen " + m.group(1);
+        }
+        m = APPLE.matcher(text);
+        if (m.find()) {
+            return "Apple M" + m.group(1) + (m.group(2) != null ? " " + capitalize(m.group(2)) : "");
+        }
+        m = OTHER_CPU.matcher(text);
+        if (m.find()) {
+            String family = capitalize(m.group(1));
+            return switch (family) {
+                case "Celeron", "Pentium" -> "Intel " + family;
+                case "Athlon" -> "AMD Athlon";
+                case "Snapdragon" -> "Qualcomm Snapdragon";
+                default -> family;
+            };
+        }
+        return null;
+    }
+
+    /**
+     * Normalized GPU name; discrete GPUs win over integrated graphics mentioned in the same text.
+     */
+    public static String gpu(String text) {
+        Matcher m = NVIDIA.matcher(text);
+        if (m.find()) {
+            return "NVIDIA " + m.group(1).toUpperCase(Locale.ROOT) + " " + m.group(2) + (m.group(3) != null ? " Ti" : "");
+        }
+        m = RADEON_RX.matcher(text);
+        if (m.find()) {
+            return "AMD Radeon RX " + m.group(1).toUpperCase(Locale.ROOT);
+        }
+        m = INTEL_ARC.matcher(text);
+        if (m.find()) {
+            return m.group(1) != null ? "Intel Arc " + m.group(1).toUpperCase(Locale.ROOT) : "Intel Arc";
+        }
+        if (IRIS_XE.matcher(text).find()) {
+            return "Intel Iris Xe";
+        }
+        if (UHD.matcher(text).find()) {
+            return "Intel UHD Graphics";
+        }
+        if (RADEON.matcher(text).find()) {
+            return "AMD Radeon Graphics";
+        }
+        return null;
+    }
+
+    private static Integer ramGb(String spec) {
+        Matcher m = RAM.matcher(spec);
+        while (m.find()) {
+            String value = m.group(1) != null ? m.group(1) : m.group(2) != null ? m.group(2) : m.group(3);
+            int gb = Integer.parseInt(value);
+            // Rules out storage-sized numbers that slip through
+            if (gb >= 1 && gb <= 256) {
+                return gb;
+            }
+        }
+        return null;
+    }
+
+    private static Double screenInches(String spec) {
+        Matcher m = SCREEN.matcher(spec);
+        while (m.find()) {
+            double inches = Double.parseDouble(m.group(1));
+            if (inches >= 10 && inches <= 20) {
+                return inches;
+            }
+        }
+        return null;
+    }
+
+    private static StorageType storageType(String type) {
+        if (type == null) {
+            return null;
+        }
+        return switch (type.toUpperCase(Locale.ROOT)) {
+            case "HDD" -> StorageType.HDD;
+            case "EMMC" -> StorageType.EMMC;
+            case "SSD", "NVME" -> StorageType.SSD;
+            // "storage: 512GB" says nothing about the medium
+            default -> null;
+        };
+    }
+
+    private static String capitalize(String word) {
+        return word.substring(0, 1).toUpperCase(Locale.ROOT) + word.substring(1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,24 @@
+package com.solekta.solekta.search;
+
+import com.solekta.solekta.model.Product;
+
+import java.util.List;
+
+/**
+ * An in-memory read model over the product catalog, kept in sync by {@link CatalogIndexer}.
+ */
+public interface ProductIndex {
+
+    // Replace the whole index with the given products
+    void rebuild(List<Product> products);
+
+    // Add or replace a single product
+    void upsert(Product product);
+
+    // Drop a product; unknown ids are ignored
+    void remove(Long productId);
+
+    // Take units sold by a checkout off a product's stock; indexes that ignore stock keep the default
+    default void stockReserved(Long productId, int quantity) {
+    }
+}
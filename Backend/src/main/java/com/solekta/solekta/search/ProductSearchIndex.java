@@ -0,0 +1,470 @@
+package com.solekta.solekta.search;
+
+import com.solekta.solekta.dto.ProductSummaryDTO;
+import com.solekta.solekta.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over product name, brand, description and laptop spec.
+ *
+ * Every query term is matched as a prefix (so "thinkp" finds "thinkpad"), terms are
+ * combined with AND, and hits are ranked with BM25. Postings are sorted int arrays of
+ * internal doc ids; updates append a new doc and tombstone the old one, and the index
+ * compacts itself once tombstones pile up. Document frequencies include tombstoned
+ * docs until the next compaction, the same trade-off Lucene makes.
+ */
+@Component
+public class ProductSearchIndex implements ProductIndex {
+
+    // BM25 parameters
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Field weights applied to term frequencies
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int SPEC_WEIGHT = 1;
+
+    // Prefix expansions score slightly below exact term matches
+    private static final float PREFIX_BOOST = 0.75f;
+    private static final int MAX_EXPANSIONS = 64;
+
+    private static final int MIN_DOCS_FOR_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private ProductSummaryDTO[] docs = new ProductSummaryDTO[256];
+    private int[] docLengths = new int[256];
+    private BitSet deleted = new BitSet();
+    private int maxDoc;
+    private int liveDocs;
+    private long totalLiveLength;
+
+    @Override
+    public void rebuild(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            terms = new TreeMap<>();
+            docByProductId.clear();
+            docs = new ProductSummaryDTO[Math.max(256, products.size())];
+            docLengths = new int[docs.length];
+            deleted = new BitSet();
+            maxDoc = 0;
+            liveDocs = 0;
+            totalLiveLength = 0;
+            for (Product product : products) {
+                addDocument(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            deleteDocument(product.getProductId());
+            addDocument(product);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            deleteDocument(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search. All query terms must match (as exact term or prefix).
+     */
+    public List<ProductSummaryDTO> search(String query, int limit) {
+        List<String> queryTerms = TextAnalyzer.tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return Collections.emptyList();
+            }
+            float avgLength = (float) totalLiveLength / liveDocs;
+
+            // Expand each term, then evaluate the most selective term first
+            List<List<Expansion>> expanded = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                List<Expansion> expansions = expand(term);
+                if (expansions.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                expanded.add(expansions);
+            }
+            expanded.sort((a, b) -> Long.compare(postingCount(a), postingCount(b)));
+
+            // Seed candidates from the rarest term
+            long[] packed = seedCandidates(expanded.get(0), avgLength);
+            int candidateCount = packed.length;
+            int[] candidates = new int[candidateCount];
+            float[] scores = new float[candidateCount];
+            for (int i = 0; i < candidateCount; i++) {
+                candidates[i] = (int) (packed[i] >>> 32);
+                scores[i] = Float.intBitsToFloat((int) packed[i]);
+            }
+
+            // AND the remaining terms into the candidate set. Candidates are ascending,
+            // so each expansion keeps a cursor and only ever gallops forward.
+            for (int t = 1; t < expanded.size() && candidateCount > 0; t++) {
+                List<Expansion> expansions = expanded.get(t);
+                int[] cursors = new int[expansions.size()];
+                int kept = 0;
+                for (int i = 0; i < candidateCount; i++) {
+                    int doc = candidates[i];
+                    float termScore = 0f;
+                    boolean matched = false;
+                    for (int e = 0; e < cursors.length; e++) {
+                        Expansion expansion = expansions.get(e);
+                        int position = expansion.postings.advance(cursors[e], doc);
+                        cursors[e] = position;
+                        if (position < expansion.postings.size && expansion.postings.docs[position] == doc) {
+                            matched = true;
+                            termScore += expansion.boost * bm25(expansion.idf,
+                                    expansion.postings.freqs[position], docLengths[doc], avgLength);
+                        }
+                    }
+                    if (matched) {
+                        candidates[kept] = doc;
+                        scores[kept] = scores[i] + termScore;
+                        kept++;
+                    }
+                }
+                candidateCount = kept;
+            }
+
+            return topHits(candidates, scores, candidateCount, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== Indexing (callers hold the write lock) =====
+
+    private void addDocument(Product product) {
+        if (product.getProductId() == null) {
+            return;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        length += addField(frequencies, product.getProductName(), NAME_WEIGHT);
+        length += addField(frequencies, product.getBrand(), BRAND_WEIGHT);
+        length += addField(frequencies, product.getProductDescription(), DESCRIPTION_WEIGHT);
+        length += addField(frequencies, product.getLaptopSpec(), SPEC_WEIGHT);
+
+        int doc = maxDoc++;
+        ensureDocCapacity(maxDoc);
+        docs[doc] = ProductSummaryDTO.from(product);
+        docLengths[doc] = length;
+        docByProductId.put(product.getProductId(), doc);
+        liveDocs++;
+        totalLiveLength += length;
+
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), k -> new Postings()).append(doc, entry.getValue());
+        }
+    }
+
+    private int addField(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private void deleteDocument(Long productId) {
+        Integer doc = docByProductId.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        docs[doc] = null;
+        liveDocs--;
+        totalLiveLength -= docLengths[doc];
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity > docs.length) {
+            int newLength = Math.max(capacity, docs.length * 2);
+            docs = Arrays.copyOf(docs, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+        }
+    }
+
+    // Rewrite postings without tombstoned docs once they make up a quarter of the index
+    private void compactIfNeeded() {
+        int tombstones = maxDoc - liveDocs;
+        if (maxDoc < MIN_DOCS_FOR_COMPACTION || tombstones * 4 < maxDoc) {
+            return;
+        }
+
+        int[] remap = new int[maxDoc];
+        int next = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            remap[doc] = deleted.get(doc) ? -1 : next++;
+        }
+
+        ProductSummaryDTO[] newDocs = new ProductSummaryDTO[Math.max(256, next * 2)];
+        int[] newLengths = new int[newDocs.length];
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (remap[doc] >= 0) {
+                newDocs[remap[doc]] = docs[doc];
+                newLengths[remap[doc]] = docLengths[doc];
+            }
+        }
+
+        TreeMap<String, Postings> newTerms = new TreeMap<>();
+        for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+            Postings compacted = entry.getValue().remap(remap);
+            if (compacted.size > 0) {
+                newTerms.put(entry.getKey(), compacted);
+            }
+        }
+
+        docByProductId.replaceAll((productId, doc) -> remap[doc]);
+        terms = newTerms;
+        docs = newDocs;
+        docLengths = newLengths;
+        deleted = new BitSet();
+        maxDoc = next;
+    }
+
+    // ===== Query evaluation (callers hold the read lock) =====
+
+    private List<Expansion> expand(String term) {
+        List<Expansion> expansions = new ArrayList<>();
+        Postings exact = terms.get(term);
+        if (exact != null) {
+            expansions.add(new Expansion(exact, idf(exact.size), 1f));
+        }
+        NavigableMap<String, Postings> prefixed = terms.subMap(term, false, term + Character.MAX_VALUE, false);
+        for (Postings postings : prefixed.values()) {
+            if (expansions.size() >= MAX_EXPANSIONS) {
+                break;
+            }
+            expansions.add(new Expansion(postings, idf(postings.size), PREFIX_BOOST));
+        }
+        return expansions;
+    }
+
+    private long postingCount(List<Expansion> expansions) {
+        long count = 0;
+        for (Expansion expansion : expansions) {
+            count += expansion.postings.size;
+        }
+        return count;
+    }
+
+    /**
+     * Union the postings of one term's expansions. Each hit is packed as
+     * (doc << 32 | scoreBits) so a single primitive sort groups hits by doc.
+     */
+    private long[] seedCandidates(List<Expansion> expansions, float avgLength) {
+        long[] hits = new long[(int) postingCount(expansions)];
+        boolean hasTombstones = maxDoc > liveDocs;
+        int count = 0;
+        for (Expansion expansion : expansions) {
+            Postings postings = expansion.postings;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (hasTombstones && deleted.get(doc)) {
+                    continue;
+                }
+                float score = expansion.boost * bm25(expansion.idf, postings.freqs[i], docLengths[doc], avgLength);
+                hits[count++] = ((long) doc << 32) | (Float.floatToIntBits(score) & 0xFFFFFFFFL);
+            }
+        }
+        if (expansions.size() == 1) {
+            // A single posting list is already in doc order with no duplicates
+            return count == hits.length ? hits : Arrays.copyOf(hits, count);
+        }
+        Arrays.sort(hits, 0, count);
+
+        int merged = 0;
+        for (int i = 0; i < count; i++) {
+            int doc = (int) (hits[i] >>> 32);
+            float score = Float.intBitsToFloat((int) hits[i]);
+            if (merged > 0 && (int) (hits[merged - 1] >>> 32) == doc) {
+                float total = Float.intBitsToFloat((int) hits[merged - 1]) + score;
+                hits[merged - 1] = ((long) doc << 32) | (Float.floatToIntBits(total) & 0xFFFFFFFFL);
+            } else {
+                hits[merged++] = hits[i];
+            }
+        }
+        return Arrays.copyOf(hits, merged);
+    }
+
+    /**
+     * Select the best hits with a bounded min-heap. Keys pack (scoreBits << 32 | ~doc)
+     * so larger keys mean higher scores, ties going to the older doc.
+     */
+    private List<ProductSummaryDTO> topHits(int[] candidates, float[] scores, int count, int limit) {
+        int size = Math.min(limit, count);
+        long[] heap = new long[size];
+        int heapSize = 0;
+        for (int i = 0; i < count; i++) {
+            long key = ((long) Float.floatToIntBits(scores[i]) << 32) | (0xFFFFFFFFL - candidates[i]);
+            if (heapSize < size) {
+                heap[heapSize] = key;
+                siftUp(heap, heapSize++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, size);
+            }
+        }
+        Arrays.sort(heap, 0, heapSize);
+
+        List<ProductSummaryDTO> results = new ArrayList<>(heapSize);
+        for (int i = heapSize - 1; i >= 0; i--) {
+            int doc = (int) (0xFFFFFFFFL - (heap[i] & 0xFFFFFFFFL));
+            results.add(docs[doc]);
+        }
+        return results;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= heap[index]) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && heap[left + 1] < heap[left] ? left + 1 : left;
+            if (heap[index] <= heap[smallest]) {
+                return;
+            }
+            swap(heap, index, smallest);
+            index = smallest;
+        }
+    }
+
+    private static void swap(long[] heap, int a, int b) {
+        long tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    private float idf(int documentFrequency) {
+        // Tombstoned docs still count towards df, so count them in N as well
+        int docCount = Math.max(maxDoc, documentFrequency);
+        return (float) Math.log(1 + (docCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static float bm25(float idf, int freq, int docLength, float avgLength) {
+        float norm = K1 * (1 - B + B * docLength / avgLength);
+        return idf * (freq * (K1 + 1)) / (freq + norm);
+    }
+
+    private static final class Expansion {
+        final Postings postings;
+        final float idf;
+        final float boost;
+
+        Expansion(Postings postings, float idf, float boost) {
+            this.postings = postings;
+            this.idf = idf;
+            this.boost = boost;
+        }
+    }
+
+    /**
+     * Posting list for one term: doc ids in ascending order with their weighted frequencies.
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+
+        void append(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        /**
+         * First position at or after {@code from} whose doc is >= {@code target}.
+         * Gallops ahead in doubling steps, then binary searches the last step.
+         */
+        int advance(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + step;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            int i = Arrays.binarySearch(docs, low + 1, Math.min(high + 1, size), target);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        Postings remap(int[] remap) {
+            Postings result = new Postings();
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    result.append(doc, freqs[i]);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.solekta.solekta.search;
+
+import com.solekta.solekta.dto.ProductFilterRequest;
+import com.solekta.solekta.enums.StorageType;
+import com.solekta.solekta.model.Product;
+import com.solekta.solekta.model.ProductSpec;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column store of the parsed laptop specs, one primitive array per attribute
+ * indexed by product id. Range and set filters are evaluated as branch-free scans
+ * that produce 64 matches per word, so a filter like ram >= 16 AND storage >= 512
+ * costs a couple of sequential passes over int arrays instead of text matching.
+ *
+ * Unknown attributes are stored as 0 and never match a filter on that attribute.
+ */
+@Component
+public class SpecIndex implements ProductIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[] ramGb = new int[256];
+    private int[] storageGb = new int[256];
+    // Tenths of an inch
+    private int[] screenTenths = new int[256];
+    // Ordinal + 1, 0 when unknown
+    private int[] storageType = new int[256];
+    private int[] cpu = new int[256];
+    private int[] gpu = new int[256];
+    // One past the highest indexed product id
+    private int maxDoc;
+
+    private final Map<String, Integer> cpuOrdinals = new HashMap<>();
+    private final List<String> cpuLabels = new ArrayList<>();
+    private final Map<String, Integer> gpuOrdinals = new HashMap<>();
+    private final List<String> gpuLabels = new ArrayList<>();
+
+    @Override
+    public void rebuild(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(ramGb, 0);
+            Arrays.fill(storageGb, 0);
+            Arrays.fill(screenTenths, 0);
+            Arrays.fill(storageType, 0);
+            Arrays.fill(cpu, 0);
+            Arrays.fill(gpu, 0);
+            maxDoc = 0;
+            cpuOrdinals.clear();
+            cpuLabels.clear();
+            gpuOrdinals.clear();
+            gpuLabels.clear();
+            for (Product product : products) {
+                put(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            put(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            if (productId != null && productId >= 0 && productId < maxDoc) {
+                clear(productId.intValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static boolean hasSpecFilters(ProductFilterRequest request) {
+        return request.getMinRamGb() != null || request.getMaxRamGb() != null
+                || request.getMinStorageGb() != null || request.getMaxStorageGb() != null
+                || request.getMinScreenInches() != null || request.getMaxScreenInches() != null
+                || isSet(request.getStorageType()) || isSet(request.getCpu()) || isSet(request.getGpu());
+    }
+
+    /**
+     * Product ids whose specs satisfy every spec criterion of the request, or null
+     * when the request has none.
+     */
+    public RoaringBitmap match(ProductFilterRequest request) {
+        if (!hasSpecFilters(request)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            long[] words = new long[(maxDoc + 63) >>> 6];
+            Arrays.fill(words, -1L);
+            if (request.getMinRamGb() != null || request.getMaxRamGb() != null) {
+                andRange(ramGb, request.getMinRamGb(), request.getMaxRamGb(), words);
+            }
+            if (request.getMinStorageGb() != null || request.getMaxStorageGb() != null) {
+                andRange(storageGb, request.getMinStorageGb(), request.getMaxStorageGb(), words);
+            }
+            if (request.getMinScreenInches() != null || request.getMaxScreenInches() != null) {
+                andRange(screenTenths, tenths(request.getMinScreenInches()), tenths(request.getMaxScreenInches()), words);
+            }
+            if (isSet(request.getStorageType())) {
+                boolean[] allowed = new boolean[StorageType.values().length + 1];
+                request.getStorageType().forEach(type -> allowed[type.ordinal() + 1] = true);
+                andMember(storageType, allowed, words);
+            }
+            if (isSet(request.getCpu())) {
+                andMember(cpu, allowedLabels(cpuLabels, request.getCpu()), words);
+            }
+            if (isSet(request.getGpu())) {
+                andMember(gpu, allowedLabels(gpuLabels, request.getGpu()), words);
+            }
+            return toBitmap(words);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== Indexing (callers hold the write lock) =====
+
+    private void put(Product product) {
+        Long id = product.getProductId();
+        if (id == null || id < 0 || id > Integer.MAX_VALUE - 64) {
+            return;
+        }
+        int doc = id.intValue();
+        ensureCapacity(doc + 1);
+        ProductSpec spec = LaptopSpecParser.parse(id, product.getLaptopSpec());
+        ramGb[doc] = spec.getRamGb() != null ? spec.getRamGb() : 0;
+        storageGb[doc] = spec.getStorageGb() != null ? spec.getStorageGb() : 0;
+        screenTenths[doc] = spec.getScreenInches() != null ? tenths(spec.getScreenInches()) : 0;
+        storageType[doc] = spec.getStorageType() != null ? spec.getStorageType().ordinal() + 1 : 0;
+        cpu[doc] = ordinal(cpuOrdinals, cpuLabels, spec.getCpuFamily());
+        gpu[doc] = ordinal(gpuOrdinals, gpuLabels, spec.getGpu());
+        maxDoc = Math.max(maxDoc, doc + 1);
+    }
+
+    private void clear(int doc) {
+        ramGb[doc] = 0;
+        storageGb[doc] = 0;
+        screenTenths[doc] = 0;
+        storageType[doc] = 0;
+        cpu[doc] = 0;
+        gpu[doc] = 0;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= ramGb.length) {
+            return;
+        }
+        int capacity = Math.max(size, ramGb.length * 2);
+        ramGb = Arrays.copyOf(ramGb, capacity);
+        storageGb = Arrays.copyOf(storageGb, capacity);
+        screenTenths = Arrays.copyOf(screenTenths, capacity);
+        storageType = Arrays.copyOf(storageType, capacity);
+        cpu = Arrays.copyOf(cpu, capacity);
+        gpu = Arrays.copyOf(gpu, capacity);
+    }
+
+    private static int ordinal(Map<String, Integer> ordinals, List<String> labels, String label) {
+        if (label == null) {
+            return 0;
+        }
+        return ordinals.computeIfAbsent(label, l -> {
+            labels.add(l);
+            return labels.size();
+        });
+    }
+
+    // ===== Query evaluation (callers hold the read lock) =====
+
+    // Keeps docs whose value lies in [min, max]; a missing min still excludes unknown (0) values
+    private void andRange(int[] column, Integer min, Integer max, long[] words) {
+        int lo = min != null ? Math.max(min, 1) : 1;
+        int hi = max != null ? max : Integer.MAX_VALUE;
+        if (lo > hi) {
+            Arrays.fill(words, 0L);
+            return;
+        }
+        for (int w = 0; w < words.length; w++) {
+            int base = w << 6;
+            int end = Math.min(64, maxDoc - base);
+            long bits = 0;
+            for (int j = 0; j < end; j++) {
+                int v = column[base + j];
+                // Sign bit is clear only when lo <= v <= hi
+                bits |= (long) (((v - lo) | (hi - v)) >>> 31 ^ 1) << j;
+            }
+            words[w] &= bits;
+        }
+    }
+
+    private void andMember(int[] column, boolean[] allowed, long[] words) {
+        long[] table = new long[allowed.length];
+        for (int i = 1; i < allowed.length; i++) {
+            table[i] = allowed[i] ? 1L : 0L;
+        }
+        for (int w = 0; w < words.length; w++) {
+            int base = w << 6;
+            int end = Math.min(64, maxDoc - base);
+            long bits = 0;
+            for (int j = 0; j < end; j++) {
+                bits |= table[column[base + j]] << j;
+            }
+            words[w] &= bits;
+        }
+    }
+
+    // A requested value selects every label containing it, e.g. "rtx" or "i7"
+    private static boolean[] allowedLabels(List<String> labels, List<String> requested) {
+        boolean[] allowed = new boolean[labels.size() + 1];
+        for (String value : requested) {
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            String needle = value.trim().toLowerCase(Locale.ROOT);
+            for (int i = 0; i < labels.size(); i++) {
+                if (labels.get(i).toLowerCase(Locale.ROOT).contains(needle)) {
+                    allowed[i + 1] = true;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    private static RoaringBitmap toBitmap(long[] words) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int w = 0; w < words.length; w++) {
+            long bits = words[w];
+            while (bits != 0) {
+                bitmap.add((w << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return bitmap;
+    }
+
+    private static Integer tenths(Double inches) {
+        return inches != null ? (int) Math.round(inches * 10) : null;
+    }
+
+    private static boolean isSet(List<?> values) {
+        return values != null && !values.isEmpty();
+    }
+}
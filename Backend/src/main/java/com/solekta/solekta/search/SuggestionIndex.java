@@ -0,0 +1,480 @@
+package com.solekta.solekta.search;
+
+import com.solekta.solekta.dto.SuggestionDTO;
+import com.solekta.solekta.model.Product;
+import com.solekta.solekta.repository.OrderItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Typeahead over product names, brands and category names.
+ *
+ * Suggestions are ranked at build time (available stock first, then units sold)
+ * and stored in a trie of primitive arrays where every node carries the ranks of its
+ * best {@link #MAX_SUGGESTIONS} entries, so a lookup is a walk down the prefix plus a
+ * copy of at most ten entries. Each word of an entry is a key, so "thinkp" also finds
+ * "Lenovo ThinkPad X1". Writes queue a rebuild on a background thread, bursts of writes
+ * collapse into one rebuild, and the new trie is swapped in; readers never lock.
+ * Units sold are re-read every app.catalog.suggest.sales-refresh-ms, so ranking
+ * follows sales between catalog writes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionIndex implements ProductIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Keys are cut here; longer prefixes are verified against the entry text
+    private static final int MAX_KEY_LENGTH = 32;
+
+    // Anything in stock outranks anything that is not, whatever its sales
+    private static final long AVAILABLE_WEIGHT = 1_000_000_000L;
+
+    private final OrderItemRepository orderItemRepository;
+
+    // Only the fields the trie is built from, not the entities with their long text
+    private final Map<Long, IndexedProduct> products = new HashMap<>();
+    private Map<Long, Long> unitsSold = new HashMap<>();
+
+    private volatile Trie trie = Trie.EMPTY;
+
+    // Serializes builds so a newer snapshot is never overwritten by an older one
+    private final Object buildLock = new Object();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggestion-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void rebuild(List<Product> catalog) {
+        Map<Long, Long> sold = loadUnitsSold();
+        synchronized (this) {
+            unitsSold = sold;
+            products.clear();
+            for (Product product : catalog) {
+                if (product.getProductId() != null) {
+                    products.put(product.getProductId(), IndexedProduct.of(product));
+                }
+            }
+        }
+        publish();
+    }
+
+    @Override
+    public void upsert(Product product) {
+        if (product.getProductId() == null) {
+            return;
+        }
+        synchronized (this) {
+            products.put(product.getProductId(), IndexedProduct.of(product));
+        }
+        scheduleRebuild();
+    }
+
+    @Override
+    public void remove(Long productId) {
+        boolean removed;
+        synchronized (this) {
+            removed = products.remove(productId) != null;
+        }
+        if (removed) {
+            scheduleRebuild();
+        }
+    }
+
+    // Sales move the ranking too; the rebuild is queued and collapses with other writes
+    @Override
+    public void stockReserved(Long productId, int quantity) {
+        synchronized (this) {
+            IndexedProduct product = products.get(productId);
+            if (product == null) {
+                return;
+            }
+            products.put(productId, product.withQuantity(product.quantity() != null
+                    ? product.quantity() - quantity : null));
+            Map<Long, Long> sold = new HashMap<>(unitsSold);
+            sold.merge(productId, (long) quantity, Long::sum);
+            unitsSold = sold;
+        }
+        scheduleRebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.catalog.suggest.sales-refresh-ms:300000}",
+            fixedDelayString = "${app.catalog.suggest.sales-refresh-ms:300000}")
+    public void refreshUnitsSold() {
+        Map<Long, Long> sold = loadUnitsSold();
+        synchronized (this) {
+            unitsSold = sold;
+        }
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        return trie.lookup(key, Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    private Map<Long, Long> loadUnitsSold() {
+        Map<Long, Long> sold = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumQuantityByProduct()) {
+            sold.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return sold;
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildQueued.set(false);
+                try {
+                    publish();
+                } catch (RuntimeException e) {
+                    log.error("Failed to rebuild suggestion trie: {}", e.getMessage(), e);
+                }
+            });
+        }
+    }
+
+    private void publish() {
+        synchronized (buildLock) {
+            List<IndexedProduct> snapshot;
+            Map<Long, Long> sold;
+            synchronized (this) {
+                snapshot = new ArrayList<>(products.values());
+                sold = unitsSold;
+            }
+            trie = build(snapshot, sold);
+        }
+    }
+
+    private static Trie build(List<IndexedProduct> catalog, Map<Long, Long> unitsSold) {
+        long start = System.nanoTime();
+        List<Entry> entries = new ArrayList<>(catalog.size());
+        Map<String, Entry> brands = new LinkedHashMap<>();
+        Map<Long, Entry> categories = new LinkedHashMap<>();
+
+        for (IndexedProduct product : catalog) {
+            long weight = (product.inStock() ? AVAILABLE_WEIGHT : 0) + unitsSold.getOrDefault(product.id(), 0L);
+
+            addEntry(entries, product.name(), SuggestionDTO.Type.PRODUCT, product.id(), weight);
+
+            // Brands and categories rank by the combined weight of their products
+            String brand = normalize(product.brand());
+            if (!brand.isEmpty()) {
+                brands.computeIfAbsent(brand, b -> new Entry(product.brand().trim(), b,
+                        SuggestionDTO.Type.BRAND, null, 0)).weight += weight;
+            }
+            Long categoryId = product.categoryId();
+            String category = normalize(product.categoryName());
+            if (categoryId != null && !category.isEmpty()) {
+                categories.computeIfAbsent(categoryId, id -> new Entry(product.categoryName().trim(), category,
+                        SuggestionDTO.Type.CATEGORY, id, 0)).weight += weight;
+            }
+        }
+        entries.addAll(brands.values());
+        entries.addAll(categories.values());
+
+        Trie built = Trie.build(entries);
+        log.debug("Built suggestion trie: {} entries, {} nodes in {} us",
+                entries.size(), built.nodeCount, (System.nanoTime() - start) / 1000);
+        return built;
+    }
+
+    private static void addEntry(List<Entry> entries, String text, SuggestionDTO.Type type, Long id, long weight) {
+        String normalized = normalize(text);
+        if (!normalized.isEmpty()) {
+            entries.add(new Entry(text.trim(), normalized, type, id, weight));
+        }
+    }
+
+    static String normalize(String text) {
+        return String.join(" ", TextAnalyzer.tokenize(text));
+    }
+
+    private record IndexedProduct(Long id, String name, String brand, Long categoryId, String categoryName,
+                                  Integer quantity, boolean available) {
+
+        static IndexedProduct of(Product product) {
+            return new IndexedProduct(product.getProductId(), product.getProductName(), product.getBrand(),
+                    product.getCategoryId(), product.getCategoryName(), product.getQuantity(),
+                    Boolean.TRUE.equals(product.getIsAvailable()));
+        }
+
+        IndexedProduct withQuantity(Integer newQuantity) {
+            return new IndexedProduct(id, name, brand, categoryId, categoryName, newQuantity, available);
+        }
+
+        boolean inStock() {
+            return available && quantity != null && quantity > 0;
+        }
+    }
+
+    private static final class Entry {
+        final String text;
+        final String normalized;
+        final SuggestionDTO.Type type;
+        final Long id;
+        long weight;
+
+        Entry(String text, String normalized, SuggestionDTO.Type type, Long id, long weight) {
+            this.text = text;
+            this.normalized = normalized;
+            this.type = type;
+            this.id = id;
+            this.weight = weight;
+        }
+
+        // Same rule the trie keys follow: the prefix starts the text or one of its words
+        boolean matches(String prefix) {
+            return normalized.startsWith(prefix) || normalized.contains(" " + prefix);
+        }
+    }
+
+    /**
+     * Immutable array-backed trie. Nodes are numbered in pre-order, children are kept in
+     * label order through first-child/next-sibling links, and each node points at a slice
+     * of {@code top} holding the ranks of its best entries in ascending (best first) order.
+     */
+    private static final class Trie {
+
+        static final Trie EMPTY = build(Collections.emptyList());
+
+        final Entry[] ranked;
+        final char[] labels;
+        final int[] firstChild;
+        final int[] nextSibling;
+        final int[] topOffset;
+        final byte[] topCount;
+        final int[] top;
+        final int nodeCount;
+
+        private Trie(Entry[] ranked, char[] labels, int[] firstChild, int[] nextSibling,
+                     int[] topOffset, byte[] topCount, int[] top, int nodeCount) {
+            this.ranked = ranked;
+            this.labels = labels;
+            this.firstChild = firstChild;
+            this.nextSibling = nextSibling;
+            this.topOffset = topOffset;
+            this.topCount = topCount;
+            this.top = top;
+            this.nodeCount = nodeCount;
+        }
+
+        List<SuggestionDTO> lookup(String prefix, int limit) {
+            boolean truncated = prefix.length() > MAX_KEY_LENGTH;
+            int length = truncated ? MAX_KEY_LENGTH : prefix.length();
+
+            int node = 0;
+            for (int i = 0; i < length; i++) {
+                char c = prefix.charAt(i);
+                int child = firstChild[node];
+                while (child >= 0 && labels[child] < c) {
+                    child = nextSibling[child];
+                }
+                if (child < 0 || labels[child] != c) {
+                    return Collections.emptyList();
+                }
+                node = child;
+            }
+
+            List<SuggestionDTO> results = new ArrayList<>(Math.min(limit, topCount[node]));
+            int offset = topOffset[node];
+            for (int i = 0; i < topCount[node] && results.size() < limit; i++) {
+                Entry entry = ranked[top[offset + i]];
+                if (!truncated || entry.matches(prefix)) {
+                    results.add(new SuggestionDTO(entry.text, entry.type, entry.id));
+                }
+            }
+            return results;
+        }
+
+        static Trie build(List<Entry> entries) {
+            // Rank entries so that a lower index always means a better suggestion
+            Entry[] ranked = entries.toArray(new Entry[0]);
+            Arrays.sort(ranked, Comparator.comparingLong((Entry e) -> -e.weight).thenComparing(e -> e.normalized));
+
+            // One key per word start, sorted so the trie can be laid out in pre-order
+            List<Key> keys = new ArrayList<>(ranked.length * 3);
+            for (int rank = 0; rank < ranked.length; rank++) {
+                String text = ranked[rank].normalized;
+                int start = 0;
+                while (true) {
+                    keys.add(new Key(text.substring(start, Math.min(text.length(), start + MAX_KEY_LENGTH)), rank));
+                    int space = text.indexOf(' ', start);
+                    if (space < 0) {
+                        break;
+                    }
+                    start = space + 1;
+                }
+            }
+            keys.sort(Comparator.comparing((Key k) -> k.text));
+
+            Builder builder = new Builder(Math.max(16, keys.size() * 4));
+            int[] path = new int[MAX_KEY_LENGTH + 1];
+            String previous = "";
+            for (Key k : keys) {
+                String key = k.text;
+                int common = 0;
+                int max = Math.min(previous.length(), key.length());
+                while (common < max && previous.charAt(common) == key.charAt(common)) {
+                    common++;
+                }
+                for (int depth = common; depth < key.length(); depth++) {
+                    path[depth + 1] = builder.addChild(path[depth], key.charAt(depth));
+                }
+                builder.addTerminal(path[key.length()], k.rank);
+                previous = key;
+            }
+            return builder.finish(ranked);
+        }
+    }
+
+    private static final class Key {
+        final String text;
+        final int rank;
+
+        Key(String text, int rank) {
+            this.text = text;
+            this.rank = rank;
+        }
+    }
+
+    private static final class Builder {
+        char[] labels;
+        int[] firstChild;
+        int[] lastChild;
+        int[] nextSibling;
+        int[] terminalHead;
+        int size;
+
+        int[] terminalRank = new int[16];
+        int[] terminalNext = new int[16];
+        int terminals;
+
+        Builder(int capacity) {
+            labels = new char[capacity];
+            firstChild = new int[capacity];
+            lastChild = new int[capacity];
+            nextSibling = new int[capacity];
+            terminalHead = new int[capacity];
+            newNode('\0');
+        }
+
+        int addChild(int parent, char label) {
+            int node = newNode(label);
+            if (firstChild[parent] < 0) {
+                firstChild[parent] = node;
+            } else {
+                nextSibling[lastChild[parent]] = node;
+            }
+            lastChild[parent] = node;
+            return node;
+        }
+
+        void addTerminal(int node, int rank) {
+            if (terminals == terminalRank.length) {
+                terminalRank = Arrays.copyOf(terminalRank, terminals * 2);
+                terminalNext = Arrays.copyOf(terminalNext, terminals * 2);
+            }
+            terminalRank[terminals] = rank;
+            terminalNext[terminals] = terminalHead[node];
+            terminalHead[node] = terminals++;
+        }
+
+        private int newNode(char label) {
+            if (size == labels.length) {
+                int capacity = size * 2;
+                labels = Arrays.copyOf(labels, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                lastChild = Arrays.copyOf(lastChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                terminalHead = Arrays.copyOf(terminalHead, capacity);
+            }
+            labels[size] = label;
+            firstChild[size] = -1;
+            lastChild[size] = -1;
+            nextSibling[size] = -1;
+            terminalHead[size] = -1;
+            return size++;
+        }
+
+        /**
+         * Fill in each node's best ranks bottom-up. Children have higher pre-order
+         * numbers than their parent, so walking backwards sees every child first.
+         * A node with one child and no entries of its own shares the child's slice.
+         */
+        Trie finish(Entry[] ranked) {
+            int[] topOffset = new int[size];
+            byte[] topCount = new byte[size];
+            int[] top = new int[Math.max(16, size)];
+            int topSize = 0;
+            int[] scratch = new int[64];
+
+            for (int node = size - 1; node >= 0; node--) {
+                int child = firstChild[node];
+                if (terminalHead[node] < 0 && child >= 0 && nextSibling[child] < 0) {
+                    topOffset[node] = topOffset[child];
+                    topCount[node] = topCount[child];
+                    continue;
+                }
+
+                int count = 0;
+                for (int t = terminalHead[node]; t >= 0; t = terminalNext[t]) {
+                    scratch = ensure(scratch, count + 1);
+                    scratch[count++] = terminalRank[t];
+                }
+                for (; child >= 0; child = nextSibling[child]) {
+                    scratch = ensure(scratch, count + topCount[child]);
+                    System.arraycopy(top, topOffset[child], scratch, count, topCount[child]);
+                    count += topCount[child];
+                }
+                Arrays.sort(scratch, 0, count);
+
+                top = ensure(top, topSize + MAX_SUGGESTIONS);
+                topOffset[node] = topSize;
+                int kept = 0;
+                for (int i = 0; i < count && kept < MAX_SUGGESTIONS; i++) {
+                    // The same entry reaches a node through several of its words
+                    if (kept == 0 || top[topSize + kept - 1] != scratch[i]) {
+                        top[topSize + kept++] = scratch[i];
+                    }
+                }
+                topCount[node] = (byte) kept;
+                topSize += kept;
+            }
+
+            return new Trie(ranked, Arrays.copyOf(labels, size), Arrays.copyOf(firstChild, size),
+                    Arrays.copyOf(nextSibling, size), topOffset, topCount, Arrays.copyOf(top, topSize), size);
+        }
+
+        private static int[] ensure(int[] array, int capacity) {
+            return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+        }
+    }
+}
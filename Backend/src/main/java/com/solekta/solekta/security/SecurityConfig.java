@@ -46,6 +46,7 @@ public class SecurityConfig {
                                 "/api/products/**",
                                 "/api/categories/**",
                                 "/api/services/**",
+                                "/api/media/**",
                                 "/api/orders/with-receipt" // Temporarily allow for testing
                         ).permitAll()
 
@@ -93,8 +94,9 @@ public class SecurityConfig {
             configuration.setAllowedOriginPatterns(Arrays.asList("*"));
         }
         
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("X-List-Truncated", "X-Next-Cursor"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
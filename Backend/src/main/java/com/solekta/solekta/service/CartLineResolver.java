@@ -0,0 +1,99 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.dto.CartLineRef;
+import com.solekta.solekta.repository.ProductRepository;
+import com.solekta.solekta.repository.ServiceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Looks up the names shown on cart lines with one IN query per item type.
+ * Results, including misses, are kept in an identity map bound to the current
+ * transaction, so a cart write followed by the cart read in the same service call
+ * never fetches the same product or service twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartLineResolver {
+
+    private final ProductRepository productRepository;
+    private final ServiceRepository serviceRepository;
+
+    private static final class IdentityMap {
+        final Map<Long, Optional<CartLineRef>> products = new HashMap<>();
+        final Map<Long, Optional<CartLineRef>> services = new HashMap<>();
+    }
+
+    public Optional<CartLineRef> product(Long productId) {
+        return products(List.of(productId)).get(productId);
+    }
+
+    public Optional<CartLineRef> service(Long serviceId) {
+        return services(List.of(serviceId)).get(serviceId);
+    }
+
+    public Map<Long, Optional<CartLineRef>> products(Collection<Long> productIds) {
+        return resolve(identityMap().products, productIds, productRepository::findCartLineRefs);
+    }
+
+    public Map<Long, Optional<CartLineRef>> services(Collection<Long> serviceIds) {
+        return resolve(identityMap().services, serviceIds, serviceRepository::findCartLineRefs);
+    }
+
+    private static Map<Long, Optional<CartLineRef>> resolve(Map<Long, Optional<CartLineRef>> known,
+                                                            Collection<Long> ids,
+                                                            Function<Collection<Long>, List<CartLineRef>> loader) {
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null && !known.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (CartLineRef ref : loader.apply(missing)) {
+                known.put(ref.getId(), Optional.of(ref));
+            }
+            for (Long id : missing) {
+                known.putIfAbsent(id, Optional.empty());
+            }
+        }
+        Map<Long, Optional<CartLineRef>> result = new HashMap<>();
+        for (Long id : ids) {
+            if (id != null) {
+                result.put(id, known.get(id));
+            }
+        }
+        return result;
+    }
+
+    // Outside a transaction every call gets a fresh map, i.e. no reuse
+    private IdentityMap identityMap() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new IdentityMap();
+        }
+        IdentityMap map = (IdentityMap) TransactionSynchronizationManager.getResource(this);
+        if (map == null) {
+            IdentityMap created = new IdentityMap();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CartLineResolver.this);
+                }
+            });
+            map = created;
+        }
+        return map;
+    }
+}
@@ -0,0 +1,58 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.dto.CartDTO;
+import com.solekta.solekta.dto.CartPatchRequest;
+import com.solekta.solekta.dto.CartSummaryDTO;
+import com.solekta.solekta.dto.SyncCartRequest;
+import com.solekta.solekta.model.RentalService;
+
+/**
+ * Cart use cases, implemented by {@link CartService} (every change written to
+ * MySQL in its own transaction, the default) and by
+ * {@link com.solekta.solekta.cart.WriteBehindCartService} (app.cart.store=write-behind).
+ * Both price lines with {@link com.solekta.solekta.cart.CartPricing}; clients never send prices.
+ */
+public interface CartOperations {
+
+    CartDTO getCartByCustomerId(Long customerId);
+
+    /**
+     * Item count, subtotal and version without the lines; zeros when the customer has no cart.
+     */
+    CartSummaryDTO getCartSummary(Long customerId);
+
+    CartDTO addItemToCart(Long customerId, Long productId, Integer quantity);
+
+    CartDTO updateCartItem(Long customerId, Long productId, Integer quantity);
+
+    void removeItemFromCart(Long customerId, Long productId);
+
+    CartDTO addServiceToCart(Long customerId, Long serviceId, Integer rentalPeriod,
+                             RentalService.RentalPeriodType periodType);
+
+    CartDTO removeServiceFromCart(Long customerId, Long serviceId);
+
+    /**
+     * Reconciles the stored cart with the client's cart in one go: adds, updates
+     * and removes lines so the stored cart matches the request, then returns it.
+     */
+    CartDTO syncCart(Long customerId, SyncCartRequest request);
+
+    /**
+     * Applies several add / update / remove operations in order as one unit and
+     * returns the resulting cart; if any operation fails none is applied.
+     */
+    CartDTO patchCart(Long customerId, CartPatchRequest request);
+
+    void clearCart(Long customerId);
+
+    /**
+     * Empties the cart an order was just placed from, inside the checkout
+     * transaction, so a rolled-back checkout leaves the cart as it was. Only the
+     * lines of the ordered snapshot are removed; lines the customer changed or
+     * added after checkout read the cart stay.
+     */
+    default void clearOrderedCart(CartDTO orderedCart) {
+        clearCart(orderedCart.getCustomerId());
+    }
+}
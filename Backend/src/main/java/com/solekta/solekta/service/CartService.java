@@ -1,186 +1,538 @@
 package com.solekta.solekta.service;
 
+import com.solekta.solekta.cart.CartPatches;
+import com.solekta.solekta.cart.CartPricing;
+import com.solekta.solekta.cart.CartSyncItems;
 import com.solekta.solekta.dto.CartDTO;
 import com.solekta.solekta.dto.CartItemDTO;
+import com.solekta.solekta.dto.CartLineRef;
+import com.solekta.solekta.dto.CartPatchOperation;
+import com.solekta.solekta.dto.CartPatchRequest;
+import com.solekta.solekta.dto.CartSummaryDTO;
+import com.solekta.solekta.dto.SyncCartRequest;
 import com.solekta.solekta.exception.ResourceNotFoundException;
 import com.solekta.solekta.model.CartItem;
-import com.solekta.solekta.model.Product;
 import com.solekta.solekta.model.RentalService;
 import com.solekta.solekta.model.ShoppingCart;
 import com.solekta.solekta.repository.CartItemRepository;
-import com.solekta.solekta.repository.ProductRepository;
-import com.solekta.solekta.repository.ServiceRepository;
 import com.solekta.solekta.repository.ShoppingCartRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
-public class CartService {
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "jpa", matchIfMissing = true)
+public class CartService implements CartOperations {
 
     private final ShoppingCartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
-    private final ProductRepository productRepository;
-    private final ServiceRepository serviceRepository;
+    private final CartLineResolver cartLineResolver;
+    private final CartPricing cartPricing;
     // Assume ProductService will be injected by Member 1
     // private final ProductService productService;
 
+    @Override
     public CartDTO getCartByCustomerId(Long customerId) {
         ShoppingCart cart = cartRepository.findByCustomerId(customerId)
                 .orElseGet(() -> createNewCart(customerId));
+        if (cart.getItemCount() == null) {
+            // Cart from before the totals columns existed
+            updateTotals(cart);
+        }
         return convertToDTO(cart);
     }
 
-    public CartDTO addItemToCart(Long customerId, Long productId, Integer quantity, BigDecimal unitPrice) {
+    @Override
+    public CartSummaryDTO getCartSummary(Long customerId) {
+        CartSummaryDTO summary = cartRepository.findSummaryByCustomerId(customerId).orElse(null);
+        if (summary == null) {
+            return new CartSummaryDTO(null, 0, BigDecimal.ZERO, 0L, null);
+        }
+        if (summary.getItemCount() == null) {
+            CartDTO cart = getCartByCustomerId(customerId);
+            return new CartSummaryDTO(cart.getId(), cart.getItemCount(), cart.getSubtotal(), cart.getVersion(),
+                    cart.getUpdatedAt());
+        }
+        return summary;
+    }
+
+    @Override
+    public CartDTO addItemToCart(Long customerId, Long productId, Integer quantity) {
+        BigDecimal unitPrice = cartPricing.productPrice(productId);
         ShoppingCart cart = cartRepository.findByCustomerId(customerId)
                 .orElseGet(() -> createNewCart(customerId));
 
         // Fetch product details
-        Product product = productRepository.findById(productId)
+        CartLineRef product = cartLineResolver.product(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
 
-        CartItem existingItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
-                .orElse(null);
+        CartItem existingItem = findLine(cart, CartItem.ItemType.PRODUCT, productId);
 
         if (existingItem != null) {
             existingItem.setQuantity(existingItem.getQuantity() + quantity);
-            existingItem.setTotalPrice(existingItem.getUnitPrice().multiply(BigDecimal.valueOf(existingItem.getQuantity())));
+            existingItem.setUnitPrice(unitPrice);
+            existingItem.setTotalPrice(unitPrice.multiply(BigDecimal.valueOf(existingItem.getQuantity())));
             cartItemRepository.save(existingItem);
         } else {
             CartItem newItem = CartItem.builder()
-                    .cart(cart)
                     .productId(productId)
-                    .productName(product.getProductName())
-                    .productSku(product.getCategory() != null ? product.getCategory().getCategoryName() : "N/A")
+                    .productName(product.getName())
+                    .productSku(product.getSku() != null ? product.getSku() : "N/A")
                     .quantity(quantity)
                     .unitPrice(unitPrice)
                     .totalPrice(unitPrice.multiply(BigDecimal.valueOf(quantity)))
                     .build();
+            cart.addCartItem(newItem);
             cartItemRepository.save(newItem);
         }
+        updateTotals(cart);
 
         log.info("Added item {} to cart for customer {}", productId, customerId);
-        return getCartByCustomerId(customerId);
+        return convertToDTO(cart);
     }
 
+    @Override
     public CartDTO updateCartItem(Long customerId, Long productId, Integer quantity) {
         ShoppingCart cart = cartRepository.findByCustomerId(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
 
-        CartItem cartItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
+        CartItem cartItem = findLine(cart, CartItem.ItemType.PRODUCT, productId);
+        if (cartItem == null) {
+            throw new ResourceNotFoundException("Cart item not found");
+        }
 
         if (quantity <= 0) {
-            cartItemRepository.delete(cartItem);
+            deleteLine(cart, cartItem);
         } else {
             cartItem.setQuantity(quantity);
-            cartItem.setTotalPrice(cartItem.getUnitPrice().multiply(BigDecimal.valueOf(quantity)));
+            reprice(cartItem);
             cartItemRepository.save(cartItem);
         }
+        updateTotals(cart);
 
         log.info("Updated cart item {} for customer {}", productId, customerId);
-        return getCartByCustomerId(customerId);
+        return convertToDTO(cart);
     }
 
+    @Override
     public void removeItemFromCart(Long customerId, Long productId) {
         ShoppingCart cart = cartRepository.findByCustomerId(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
 
-        cartItemRepository.deleteByCartIdAndProductId(cart.getId(), productId);
+        CartItem cartItem = findLine(cart, CartItem.ItemType.PRODUCT, productId);
+        if (cartItem != null) {
+            deleteLine(cart, cartItem);
+            updateTotals(cart);
+        }
         log.info("Removed item {} from cart for customer {}", productId, customerId);
     }
 
+    @Override
     public CartDTO addServiceToCart(Long customerId, Long serviceId, Integer rentalPeriod,
-                                    RentalService.RentalPeriodType periodType, BigDecimal unitPrice) {
+                                    RentalService.RentalPeriodType periodType) {
+        BigDecimal unitPrice = cartPricing.servicePrice(serviceId, periodType);
         ShoppingCart cart = cartRepository.findByCustomerId(customerId)
                 .orElseGet(() -> createNewCart(customerId));
 
         // Fetch service details
-        RentalService service = serviceRepository.findById(serviceId)
+        CartLineRef service = cartLineResolver.service(serviceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found with ID: " + serviceId));
 
         // Check if service is already in cart
-        CartItem existingItem = cartItemRepository.findByCartIdAndServiceId(cart.getId(), serviceId)
-                .orElse(null);
+        CartItem existingItem = findLine(cart, CartItem.ItemType.SERVICE, serviceId);
 
         if (existingItem != null) {
             // Update existing service rental
             existingItem.setRentalPeriod(rentalPeriod);
             existingItem.setRentalPeriodType(periodType);
+            existingItem.setUnitPrice(unitPrice);
             existingItem.calculateTotalPrice();
             cartItemRepository.save(existingItem);
         } else {
             // Add new service rental to cart
             CartItem cartItem = CartItem.builder()
-                    .cart(cart)
                     .itemType(CartItem.ItemType.SERVICE)
                     .productId(-1L)  // Temporary workaround for NOT NULL constraint
                     .serviceId(serviceId)
-                    .serviceName(service.getServiceName())
+                    .serviceName(service.getName())
                     .rentalPeriod(rentalPeriod)
                     .rentalPeriodType(periodType)
                     .unitPrice(unitPrice)
                     .quantity(1)  // Temporary workaround for NOT NULL constraint
                     .build();
             cartItem.calculateTotalPrice();
+            cart.addCartItem(cartItem);
             cartItemRepository.save(cartItem);
         }
+        updateTotals(cart);
 
         log.info("Added service {} to cart for customer {} with rental period {} {}",
                 serviceId, customerId, rentalPeriod, periodType);
         return convertToDTO(cart);
     }
 
+    @Override
     public CartDTO removeServiceFromCart(Long customerId, Long serviceId) {
         ShoppingCart cart = cartRepository.findByCustomerId(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
 
-        CartItem cartItem = cartItemRepository.findByCartIdAndServiceId(cart.getId(), serviceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Service not found in cart"));
+        CartItem cartItem = findLine(cart, CartItem.ItemType.SERVICE, serviceId);
+        if (cartItem == null) {
+            throw new ResourceNotFoundException("Service not found in cart");
+        }
 
-        cartItemRepository.delete(cartItem);
+        deleteLine(cart, cartItem);
+        updateTotals(cart);
         log.info("Removed service {} from cart for customer {}", serviceId, customerId);
         return convertToDTO(cart);
     }
 
+    @Override
+    public CartDTO syncCart(Long customerId, SyncCartRequest request) {
+        ShoppingCart cart = cartRepository.findByCustomerId(customerId)
+                .orElseGet(() -> createNewCart(customerId));
+        if (request.getVersion() != null && cart.getLastSyncVersion() != null
+                && request.getVersion() <= cart.getLastSyncVersion()) {
+            log.info("Ignoring replayed cart sync {} for customer {}", request.getVersion(), customerId);
+            return convertToDTO(cart);
+        }
+
+        Map<String, CartItemDTO> desired = CartSyncItems.normalize(request.getItems());
+        Map<String, CartItem> stored = new HashMap<>();
+        for (CartItem item : cart.getCartItems() != null ? cart.getCartItems() : List.<CartItem>of()) {
+            stored.put(CartSyncItems.key(item.getItemType(), item.getProductId(), item.getServiceId()), item);
+        }
+
+        // Names for the lines being added, one query per item type
+        List<CartItemDTO> added = desired.entrySet().stream()
+                .filter(entry -> !stored.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+        Map<Long, Optional<CartLineRef>> products = cartLineResolver.products(added.stream()
+                .filter(CartItemDTO::isProduct).map(CartItemDTO::getProductId).toList());
+        Map<Long, Optional<CartLineRef>> services = cartLineResolver.services(added.stream()
+                .filter(CartItemDTO::isService).map(CartItemDTO::getServiceId).toList());
+
+        List<CartItem> removed = new ArrayList<>();
+        List<CartItem> changed = new ArrayList<>();
+        int updatedCount = 0;
+        for (Map.Entry<String, CartItem> entry : stored.entrySet()) {
+            CartItem item = entry.getValue();
+            CartItemDTO wanted = desired.get(entry.getKey());
+            if (wanted == null) {
+                removed.add(item);
+            } else if (applySync(item, wanted)) {
+                changed.add(item);
+                updatedCount++;
+            }
+        }
+        for (CartItemDTO wanted : added) {
+            CartItem item = newSyncedItem(wanted, products, services);
+            if (item != null) {
+                cart.addCartItem(item);
+                changed.add(item);
+            }
+        }
+
+        // Hibernate groups these into JDBC batches (hibernate.jdbc.batch_size)
+        if (!removed.isEmpty()) {
+            cart.getCartItems().removeAll(removed);
+            cartItemRepository.deleteAll(removed);
+        }
+        cartItemRepository.saveAll(changed);
+        if (request.getVersion() != null) {
+            cart.setLastSyncVersion(request.getVersion());
+        }
+        updateTotals(cart);
+
+        log.info("Synced cart for customer {}: {} added, {} updated, {} removed", customerId,
+                changed.size() - updatedCount, updatedCount, removed.size());
+        return convertToDTO(cart);
+    }
+
+    @Override
+    public CartDTO patchCart(Long customerId, CartPatchRequest request) {
+        List<CartPatchOperation> operations = CartPatches.validate(request);
+        ShoppingCart cart = cartRepository.findByCustomerId(customerId)
+                .orElseGet(() -> createNewCart(customerId));
+        if (cart.getCartItems() == null) {
+            cart.setCartItems(new ArrayList<>());
+        }
+
+        Map<Long, Optional<CartLineRef>> products = cartLineResolver.products(CartPatches.addedIds(operations, false));
+        Map<Long, Optional<CartLineRef>> services = cartLineResolver.services(CartPatches.addedIds(operations, true));
+
+        Map<String, CartItem> lines = new LinkedHashMap<>();
+        for (CartItem item : cart.getCartItems()) {
+            lines.put(CartSyncItems.key(item.getItemType(), item.getProductId(), item.getServiceId()), item);
+        }
+        // CartItem equality covers its mutable fields, so track lines by identity
+        Set<CartItem> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        // Persisted lines to delete, by line key, so a line removed and added back is reused
+        Map<String, CartItem> removed = new LinkedHashMap<>();
+
+        for (CartPatchOperation operation : operations) {
+            String key = CartPatches.key(operation);
+            CartItem item = lines.get(key);
+            switch (operation.getAction()) {
+                case ADD -> {
+                    if (item == null && removed.containsKey(key)) {
+                        // Re-adding a line removed earlier in this patch: deleting the row and
+                        // inserting a new one would insert first and violate uk_cart_items_line
+                        item = removed.remove(key);
+                        if (item.isService()) {
+                            item.setRentalPeriod(operation.getRentalPeriod());
+                            item.setRentalPeriodType(operation.getRentalPeriodType());
+                        } else {
+                            item.setQuantity(operation.getQuantity());
+                        }
+                        cart.getCartItems().add(item);
+                        lines.put(key, item);
+                    } else if (item == null) {
+                        item = newCartItem(patchRef(operation, products, services), operation.getItemType(),
+                                operation.getProductId(), operation.getQuantity(), operation.getRentalPeriod(),
+                                operation.getRentalPeriodType());
+                        cart.addCartItem(item);
+                        lines.put(key, item);
+                    } else if (item.isService()) {
+                        item.setRentalPeriod(operation.getRentalPeriod());
+                        item.setRentalPeriodType(operation.getRentalPeriodType());
+                    } else {
+                        item.setQuantity(item.getQuantity() + operation.getQuantity());
+                    }
+                    reprice(item);
+                    touched.add(item);
+                }
+                case UPDATE -> {
+                    if (item == null) {
+                        throw new ResourceNotFoundException(operation.isService()
+                                ? "Service not found in cart" : "Cart item not found");
+                    }
+                    if (!item.isService() && operation.getQuantity() <= 0) {
+                        removeLine(cart, lines, key, touched, removed);
+                    } else {
+                        if (item.isService()) {
+                            item.setRentalPeriod(operation.getRentalPeriod());
+                            item.setRentalPeriodType(operation.getRentalPeriodType());
+                        } else {
+                            item.setQuantity(operation.getQuantity());
+                        }
+                        reprice(item);
+                        touched.add(item);
+                    }
+                }
+                case REMOVE -> {
+                    if (item != null) {
+                        removeLine(cart, lines, key, touched, removed);
+                    } else if (operation.isService()) {
+                        throw new ResourceNotFoundException("Service not found in cart");
+                    }
+                }
+            }
+        }
+
+        // One flush for all operations; Hibernate groups the statements into JDBC batches
+        cartItemRepository.deleteAll(removed.values());
+        cartItemRepository.saveAll(touched);
+        updateTotals(cart);
+
+        log.info("Applied {} cart operations for customer {}", operations.size(), customerId);
+        return convertToDTO(cart);
+    }
+
+    @Override
     public void clearCart(Long customerId) {
         ShoppingCart cart = cartRepository.findByCustomerId(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
 
-        cartItemRepository.deleteAllByCartId(cart.getId());
+        List<CartItem> items = new ArrayList<>(cart.getCartItems());
+        cart.getCartItems().clear();
+        cartItemRepository.deleteAll(items);
+        updateTotals(cart);
         log.info("Cleared cart for customer {}", customerId);
     }
 
+    // Applies the client's quantity / rental period and re-prices the line
+    private boolean applySync(CartItem item, CartItemDTO wanted) {
+        if (item.isService()) {
+            if (wanted.getRentalPeriod().equals(item.getRentalPeriod())
+                    && wanted.getRentalPeriodType() == item.getRentalPeriodType()) {
+                return false;
+            }
+            item.setRentalPeriod(wanted.getRentalPeriod());
+            item.setRentalPeriodType(wanted.getRentalPeriodType());
+        } else {
+            if (wanted.getQuantity().equals(item.getQuantity())) {
+                return false;
+            }
+            item.setQuantity(wanted.getQuantity());
+        }
+        reprice(item);
+        return true;
+    }
+
+    // Null when the product or service no longer exists; such lines are dropped from the sync
+    private CartItem newSyncedItem(CartItemDTO wanted, Map<Long, Optional<CartLineRef>> products,
+                                   Map<Long, Optional<CartLineRef>> services) {
+        CartLineRef ref = wanted.isService() ? services.get(wanted.getServiceId()).orElse(null)
+                : products.get(wanted.getProductId()).orElse(null);
+        if (ref == null) {
+            log.warn("Dropping unknown {} {} from cart sync", wanted.isService() ? "service" : "product",
+                    wanted.isService() ? wanted.getServiceId() : wanted.getProductId());
+            return null;
+        }
+        return newCartItem(ref, wanted.getItemType(), wanted.getProductId(), wanted.getQuantity(),
+                wanted.getRentalPeriod(), wanted.getRentalPeriodType());
+    }
+
+    private CartItem newCartItem(CartLineRef ref, CartItem.ItemType type, Long productId, Integer quantity,
+                                 Integer rentalPeriod, RentalService.RentalPeriodType periodType) {
+        BigDecimal unitPrice = cartPricing.price(type, productId, ref.getId(), periodType);
+        CartItem item = type == CartItem.ItemType.SERVICE
+                ? CartItem.builder()
+                        .itemType(CartItem.ItemType.SERVICE)
+                        .productId(-1L)
+                        .serviceId(ref.getId())
+                        .serviceName(ref.getName())
+                        .rentalPeriod(rentalPeriod)
+                        .rentalPeriodType(periodType)
+                        .unitPrice(unitPrice)
+                        .quantity(1)
+                        .build()
+                : CartItem.builder()
+                        .itemType(CartItem.ItemType.PRODUCT)
+                        .productId(productId)
+                        .productName(ref.getName())
+                        .productSku(ref.getSku() != null ? ref.getSku() : "N/A")
+                        .quantity(quantity)
+                        .unitPrice(unitPrice)
+                        .build();
+        item.calculateTotalPrice();
+        return item;
+    }
+
+    // Current catalog price; the line's stored price never outlives a change to it
+    private void reprice(CartItem item) {
+        item.setUnitPrice(cartPricing.price(item.getItemType(), item.getProductId(), item.getServiceId(),
+                item.getRentalPeriodType()));
+        item.calculateTotalPrice();
+    }
+
+    private static CartLineRef patchRef(CartPatchOperation operation, Map<Long, Optional<CartLineRef>> products,
+                                        Map<Long, Optional<CartLineRef>> services) {
+        if (operation.isService()) {
+            return services.get(operation.getServiceId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Service not found with ID: " + operation.getServiceId()));
+        }
+        return products.get(operation.getProductId())
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + operation.getProductId()));
+    }
+
+    // Lines never saved are just dropped; stored ones are deleted at the end of the patch
+    private static void removeLine(ShoppingCart cart, Map<String, CartItem> lines, String key,
+                                   Set<CartItem> touched, Map<String, CartItem> removed) {
+        CartItem item = lines.remove(key);
+        touched.remove(item);
+        cart.getCartItems().remove(item);
+        if (item.getId() != null) {
+            removed.put(key, item);
+        }
+    }
+
     private ShoppingCart createNewCart(Long customerId) {
         ShoppingCart cart = new ShoppingCart(); // use no-args constructor
         cart.setCustomerId(customerId);
+        cart.setItemCount(0);
+        cart.setSubtotal(BigDecimal.ZERO);
         return cartRepository.save(cart);
     }
 
+    private static CartItem findLine(ShoppingCart cart, CartItem.ItemType type, Long id) {
+        for (CartItem item : cart.getCartItems()) {
+            Long itemId = type == CartItem.ItemType.SERVICE ? item.getServiceId() : item.getProductId();
+            if (item.getItemType() == type && id.equals(itemId)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    // Leaves the collection first, so the cascade from the cart does not re-persist it
+    private void deleteLine(ShoppingCart cart, CartItem item) {
+        cart.getCartItems().removeIf(line -> line == item);
+        cartItemRepository.delete(item);
+    }
+
+    /**
+     * Recomputes the denormalized item count and subtotal from the cart's lines and
+     * flushes, which bumps the cart's @Version. Called by every mutation inside its
+     * transaction, on lines that are already loaded for the response, so it costs
+     * no extra query; a concurrent change to the same cart fails here and is retried
+     * by {@link RetryingCartOperations}.
+     */
+    private void updateTotals(ShoppingCart cart) {
+        int itemCount = 0;
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (CartItem item : cart.getCartItems()) {
+            itemCount += item.isService() ? 1 : item.getQuantity();
+            subtotal = subtotal.add(item.getTotalPrice());
+        }
+        cart.setItemCount(itemCount);
+        cart.setSubtotal(subtotal);
+        // Always dirty, so the version check runs even when the totals did not change
+        cart.setUpdatedAt(LocalDateTime.now());
+        cartRepository.saveAndFlush(cart);
+    }
+
     private CartDTO convertToDTO(ShoppingCart cart) {
         CartDTO dto = new CartDTO();
         dto.setId(cart.getId());
         dto.setCustomerId(cart.getCustomerId());
         dto.setCreatedAt(cart.getCreatedAt());
         dto.setUpdatedAt(cart.getUpdatedAt());
-
-        if (cart.getCartItems() != null) {
-            dto.setCartItems(cart.getCartItems().stream()
-                    .map(this::convertCartItemToDTO)
+        dto.setItemCount(cart.getItemCount());
+        dto.setSubtotal(cart.getSubtotal());
+        dto.setVersion(cart.getVersion());
+
+        List<CartItem> items = cart.getCartItems();
+        if (items != null) {
+            // One lookup per item type for the whole cart
+            Map<Long, Optional<CartLineRef>> products = cartLineResolver.products(items.stream()
+                    .filter(CartItem::isProduct)
+                    .map(CartItem::getProductId)
+                    .collect(Collectors.toSet()));
+            Map<Long, Optional<CartLineRef>> services = cartLineResolver.services(items.stream()
+                    .filter(CartItem::isService)
+                    .map(CartItem::getServiceId)
+                    .collect(Collectors.toSet()));
+            dto.setCartItems(items.stream()
+                    .map(item -> convertCartItemToDTO(item, products, services))
                     .collect(Collectors.toList()));
         }
 
         return dto;
     }
 
-    private CartItemDTO convertCartItemToDTO(CartItem cartItem) {
+    private CartItemDTO convertCartItemToDTO(CartItem cartItem, Map<Long, Optional<CartLineRef>> products,
+                                             Map<Long, Optional<CartLineRef>> services) {
         CartItemDTO dto = new CartItemDTO();
         dto.setId(cartItem.getId());
         dto.setItemType(cartItem.getItemType());
@@ -192,19 +544,11 @@ public class CartService {
             dto.setProductId(cartItem.getProductId());
             dto.setQuantity(cartItem.getQuantity());
 
-            // Fetch product details from ProductRepository
-            try {
-                Product product = productRepository.findById(cartItem.getProductId()).orElse(null);
-                if (product != null) {
-                    dto.setProductName(product.getProductName());
-                    // Use category name instead of toString() to avoid circular reference
-                    dto.setProductSku(product.getCategory() != null ? product.getCategory().getCategoryName() : "N/A");
-                } else {
-                    dto.setProductName("Unknown Product");
-                    dto.setProductSku("N/A");
-                }
-            } catch (Exception e) {
-                log.warn("Failed to fetch product details for productId: {}", cartItem.getProductId(), e);
+            CartLineRef product = products.getOrDefault(cartItem.getProductId(), Optional.empty()).orElse(null);
+            if (product != null) {
+                dto.setProductName(product.getName());
+                dto.setProductSku(product.getSku() != null ? product.getSku() : "N/A");
+            } else {
                 dto.setProductName("Unknown Product");
                 dto.setProductSku("N/A");
             }
@@ -214,18 +558,8 @@ public class CartService {
             dto.setRentalPeriod(cartItem.getRentalPeriod());
             dto.setRentalPeriodType(cartItem.getRentalPeriodType());
 
-            // Fetch service details from ServiceRepository
-            try {
-                RentalService service = serviceRepository.findById(cartItem.getServiceId()).orElse(null);
-                if (service != null) {
-                    dto.setServiceName(service.getServiceName());
-                } else {
-                    dto.setServiceName("Unknown Service");
-                }
-            } catch (Exception e) {
-                log.warn("Failed to fetch service details for serviceId: {}", cartItem.getServiceId(), e);
-                dto.setServiceName("Unknown Service");
-            }
+            CartLineRef service = services.getOrDefault(cartItem.getServiceId(), Optional.empty()).orElse(null);
+            dto.setServiceName(service != null ? service.getName() : "Unknown Service");
         }
 
         return dto;
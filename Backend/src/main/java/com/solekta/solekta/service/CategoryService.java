@@ -1,10 +1,21 @@
 package com.solekta.solekta.service;
 
+import com.solekta.solekta.cache.CatalogCache;
+import com.solekta.solekta.cache.ResourceVersions;
+import com.solekta.solekta.dto.CursorPage;
+import com.solekta.solekta.enums.CatalogSort;
+import com.solekta.solekta.event.CatalogChangedEvent;
 import com.solekta.solekta.model.Category;
+import com.solekta.solekta.repository.CatalogPageRepository;
 import com.solekta.solekta.repository.CategoryRepository;
+import com.solekta.solekta.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,20 +25,51 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CatalogPageRepository catalogPageRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    // Upper bound on rows returned by the unpaginated list endpoints
+    @Value("${app.catalog.max-list-size:500}")
+    private int maxListSize;
+
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return catalogCache.get(CatalogCache.Region.CATEGORY, "all", null,
+                () -> categoryRepository.findAllOrderById(PageRequest.of(0, maxListSize)));
+    }
+
+    public CursorPage<Category> getCategoryPage(String sortParam, String cursor, Integer size) {
+        return catalogCache.get(CatalogCache.Region.CATEGORY, "page", Arrays.asList(sortParam, cursor, size),
+                () -> loadCategoryPage(sortParam, cursor, size));
     }
 
+    private CursorPage<Category> loadCategoryPage(String sortParam, String cursor, Integer size) {
+        CatalogSort sort = CatalogSort.fromParam(sortParam);
+        int pageSize = CursorPage.clampSize(size);
+        List<Category> rows = catalogPageRepository.findCategoryPage(sort, KeysetCursor.decode(cursor, sort), pageSize + 1);
+        return CursorPage.of(rows, pageSize, last -> new KeysetCursor(sort,
+                sort == CatalogSort.NAME ? last.getCategoryName() : null, last.getCategoryId()));
+    }
+
+    // Cached and shared between requests: do not modify the returned category, use updateCategory
     public Optional<Category> getCategoryById(Long id) {
-        return categoryRepository.findById(id);
+        return catalogCache.getById(CatalogCache.Region.CATEGORY, id, () -> categoryRepository.findById(id));
     }
 
     public Optional<Category> getCategoryByName(String name) {
-        return categoryRepository.findByCategoryName(name);
+        return catalogCache.get(CatalogCache.Region.CATEGORY, "byName", name, () -> categoryRepository.findByCategoryName(name));
     }
 
     public Boolean categoryExists(String name) {
-        return categoryRepository.existsByCategoryName(name);
+        return catalogCache.get(CatalogCache.Region.CATEGORY, "exists", name, () -> categoryRepository.existsByCategoryName(name));
     }
 
     public Optional<Category> getCategoryWithProducts(Long id) {
@@ -35,15 +77,15 @@ public class CategoryService {
     }
 
     public List<Category> searchCategories(String keyword) {
-        return categoryRepository.searchCategories(keyword);
+        return catalogCache.get(CatalogCache.Region.CATEGORY, "search", keyword, () -> categoryRepository.searchCategories(keyword));
     }
 
     public List<Category> getCategoriesWithProducts() {
-        return categoryRepository.findCategoriesWithProducts();
+        return catalogCache.get(CatalogCache.Region.CATEGORY, "withProducts", null, () -> categoryRepository.findCategoriesWithProducts());
     }
 
     public List<Category> getCategoriesWithoutProducts() {
-        return categoryRepository.findCategoriesWithoutProducts();
+        return catalogCache.get(CatalogCache.Region.CATEGORY, "withoutProducts", null, () -> categoryRepository.findCategoriesWithoutProducts());
     }
 
     public Category saveCategory(Category category) {
@@ -51,7 +93,7 @@ public class CategoryService {
         if (category.getCategoryId() == null && categoryRepository.existsByCategoryName(category.getCategoryName())) {
             throw new RuntimeException("Category with name '" + category.getCategoryName() + "' already exists");
         }
-        return categoryRepository.save(category);
+        return publishChanged(categoryRepository.save(category));
     }
 
     public Category updateCategory(Long id, Category categoryDetails) {
@@ -68,7 +110,7 @@ public class CategoryService {
         category.setCategoryName(categoryDetails.getCategoryName());
         category.setDescription(categoryDetails.getDescription());
 
-        return categoryRepository.save(category);
+        return publishChanged(categoryRepository.save(category));
     }
 
     public void deleteCategory(Long id) {
@@ -81,10 +123,13 @@ public class CategoryService {
         }
 
         categoryRepository.deleteById(id);
+        catalogCache.invalidateCategory(id);
+        resourceVersions.categoryChanged(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.EntityType.CATEGORY, id));
     }
 
     public Long getCategoryCount() {
-        return categoryRepository.count();
+        return catalogCache.get(CatalogCache.Region.CATEGORY, "count", null, () -> categoryRepository.count());
     }
 
     public Long getCategoryCountBySearch(String keyword) {
@@ -99,5 +144,15 @@ public class CategoryService {
         // This will cascade delete if CascadeType.ALL is set in the relationship
         // Or you can manually handle product reassignment here
         categoryRepository.deleteById(id);
+        catalogCache.invalidateCategory(id);
+        resourceVersions.categoryChanged(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.EntityType.CATEGORY, id));
+    }
+
+    private Category publishChanged(Category category) {
+        catalogCache.invalidateCategory(category.getCategoryId());
+        resourceVersions.categoryChanged(category.getCategoryId());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.EntityType.CATEGORY, category.getCategoryId()));
+        return category;
     }
 }
\ No newline at end of file
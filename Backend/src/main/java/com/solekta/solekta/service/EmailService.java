@@ -12,6 +12,7 @@ import org.thymeleaf.context.Context;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
 
@@ -44,14 +45,12 @@ public class EmailService {
         @Value("${app.email.enabled:true}")
         private boolean emailEnabled;
 
-        @Value("${app.email.fallback.enabled:true}")
-        private boolean emailFallbackEnabled;
-
         @Value("${app.email.mock.enabled:true}")
         private boolean mockEmailEnabled;
 
         /**
-         * Send order confirmation email to customer
+         * Send order confirmation email to customer. Failures are thrown so the caller
+         * (the outbox dispatcher) can retry.
          */
         public void sendOrderConfirmationEmail(String customerEmail, OrderDTO order) {
                 if (!emailEnabled) {
@@ -93,47 +92,13 @@ public class EmailService {
                         }
                         helper.setText(htmlContent, true);
 
-                        // Send email with retry logic
-                        boolean emailSent = false;
-                        int maxRetries = 3;
-                        for (int attempt = 1; attempt <= maxRetries && !emailSent; attempt++) {
-                                try {
-                                        log.info("Email send attempt {} for order {}", attempt, order.getOrderNumber());
-                                        mailSender.send(message);
-                                        emailSent = true;
-                                        log.info("Order confirmation email sent successfully to {} for order {} on attempt {}",
-                                                        customerEmail, order.getOrderNumber(), attempt);
-                                } catch (Exception retryException) {
-                                        log.warn("Email send attempt {} failed for order {}: {}",
-                                                        attempt, order.getOrderNumber(), retryException.getMessage());
-                                        if (attempt < maxRetries) {
-                                                Thread.sleep(2000 * attempt); // Progressive delay
-                                        } else {
-                                                throw retryException;
-                                        }
-                                }
-                        }
-
-                } catch (MessagingException e) {
-                        log.error("Failed to send order confirmation email to {} for order {}: {}",
-                                        customerEmail, order.getOrderNumber(), e.getMessage(), e);
-
-                        if (emailFallbackEnabled) {
-                                log.info("Email fallback enabled - continuing with order processing despite email failure");
-                                // Don't throw exception - allow order to continue
-                        } else {
-                                throw new RuntimeException("Failed to send order confirmation email", e);
-                        }
-                } catch (Exception e) {
-                        log.error("Unexpected error sending order confirmation email to {} for order {}: {}",
-                                        customerEmail, order.getOrderNumber(), e.getMessage(), e);
+                        mailSender.send(message);
+                        log.info("Order confirmation email sent successfully to {} for order {}",
+                                        customerEmail, order.getOrderNumber());
 
-                        if (emailFallbackEnabled) {
-                                log.info("Email fallback enabled - continuing with order processing despite email failure");
-                                // Don't throw exception - allow order to continue
-                        } else {
-                                throw new RuntimeException("Failed to send order confirmation email", e);
-                        }
+                } catch (MessagingException | UnsupportedEncodingException e) {
+                        // Retried with backoff by the outbox dispatcher
+                        throw new RuntimeException("Failed to send order confirmation email", e);
                 }
         }
 
@@ -212,13 +177,8 @@ public class EmailService {
                         log.info("Admin order notification email sent successfully for order {} to {}",
                                         order.getOrderNumber(), adminEmail);
 
-                } catch (MessagingException e) {
-                        log.error("Failed to send admin order notification email for order {}: {}",
-                                        order.getOrderNumber(), e.getMessage(), e);
-                        // Don't throw exception - admin notifications shouldn't fail order creation
-                } catch (Exception e) {
-                        log.error("Unexpected error sending admin order notification email for order {}: {}",
-                                        order.getOrderNumber(), e.getMessage(), e);
+                } catch (MessagingException | UnsupportedEncodingException e) {
+                        throw new RuntimeException("Failed to send admin order notification email", e);
                 }
         }
 
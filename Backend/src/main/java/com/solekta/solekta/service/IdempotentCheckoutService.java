@@ -0,0 +1,131 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.dto.OrderDTO;
+import com.solekta.solekta.model.IdempotencyRecord;
+import com.solekta.solekta.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a checkout at most once per (customer, Idempotency-Key). A repeated key gets the
+ * order the first request created: from memory while the entry is fresh, otherwise from
+ * the idempotency_keys table. Duplicates arriving while the first request is still running
+ * on this node wait for it; on other nodes the unique key blocks them until it commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotentCheckoutService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final OrderService orderService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, CachedOrder> recent = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<OrderDTO>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${app.orders.idempotency.cache-ttl-ms:600000}")
+    private long cacheTtlMs;
+
+    @Value("${app.orders.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    private record CachedOrder(OrderDTO order, long expiresAt) {
+    }
+
+    public OrderDTO checkout(String idempotencyKey, Long customerId, Supplier<OrderDTO> checkout) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return checkout.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String scopedKey = customerId + ":" + idempotencyKey;
+
+        CachedOrder cached = recent.get(scopedKey);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.order();
+        }
+
+        CompletableFuture<OrderDTO> mine = new CompletableFuture<>();
+        CompletableFuture<OrderDTO> running = inFlight.putIfAbsent(scopedKey, mine);
+        if (running != null) {
+            log.debug("Waiting on in-flight checkout for idempotency key {}", scopedKey);
+            return await(running);
+        }
+        try {
+            OrderDTO order = execute(customerId, idempotencyKey, checkout);
+            recent.put(scopedKey, new CachedOrder(order, System.currentTimeMillis() + cacheTtlMs));
+            mine.complete(order);
+            return order;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    private OrderDTO execute(Long customerId, String idempotencyKey, Supplier<OrderDTO> checkout) {
+        Optional<OrderDTO> replay = recordedOrder(customerId, idempotencyKey);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                // Claim the key first; a concurrent claim on another node blocks here until we commit
+                IdempotencyRecord record = idempotencyRecordRepository.saveAndFlush(
+                        new IdempotencyRecord(customerId, idempotencyKey));
+                OrderDTO order = checkout.get();
+                record.setOrderId(order.getId());
+                return order;
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Idempotency key {} for customer {} was claimed by another request", idempotencyKey, customerId);
+            return recordedOrder(customerId, idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<OrderDTO> recordedOrder(Long customerId, String idempotencyKey) {
+        return idempotencyRecordRepository.findByCustomerIdAndIdempotencyKey(customerId, idempotencyKey)
+                .filter(record -> record.getOrderId() != null)
+                .map(record -> orderService.getOrderById(record.getOrderId()));
+    }
+
+    private static OrderDTO await(CompletableFuture<OrderDTO> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // The first request failed; a duplicate reports the same failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        recent.values().removeIf(cached -> cached.expiresAt() <= now);
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("Purged {} idempotency keys older than {} hours", purged, retentionHours);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.cache.CatalogCache;
+import com.solekta.solekta.cache.ResourceVersions;
+import com.solekta.solekta.dto.CartItemDTO;
+import com.solekta.solekta.event.StockReservedEvent;
+import com.solekta.solekta.exception.InsufficientStockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Takes product stock for a checkout. Each product is decremented with a conditional
+ * UPDATE, so concurrent checkouts cannot oversell: the row lock serialises them and the
+ * {@code quantity >= ?} guard turns a shortfall into a zero update count.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryService {
+
+    // is_available is assigned first: MySQL evaluates SET left to right, so a later
+    // reference to quantity would already see the decremented value
+    private static final String RESERVE =
+            "UPDATE product SET is_available = CASE WHEN quantity - ? <= 0 THEN FALSE ELSE is_available END, "
+                    + "quantity = quantity - ? WHERE product_id = ? AND quantity >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogCache catalogCache;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Decrements stock for every product line in the cart, in product-id order so two
+     * checkouts over the same products lock rows in the same order. Must run inside the
+     * checkout transaction; a shortfall throws and rolls back every decrement made so far.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(List<CartItemDTO> cartItems) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (CartItemDTO item : cartItems) {
+            if (item.isProduct()) {
+                quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> args.add(new Object[]{quantity, quantity, productId, quantity}));
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE, args);
+
+        int i = 0;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (updated[i++] == 0) {
+                log.info("Checkout rejected: product {} has fewer than {} in stock", line.getKey(), line.getValue());
+                throw new InsufficientStockException("Insufficient stock for product " + line.getKey());
+            }
+        }
+
+        // Stock and availability are part of the cached and indexed product views. The cache is
+        // dropped after commit, so a concurrent read cannot re-cache the old rows, and before the
+        // version bump (registered after it), so a new ETag never comes with a stale body
+        Set<Long> productIds = quantities.keySet();
+        afterCommit(() -> catalogCache.invalidateProducts(productIds));
+        for (Long productId : productIds) {
+            resourceVersions.productChanged(productId);
+        }
+        eventPublisher.publishEvent(new StockReservedEvent(quantities));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
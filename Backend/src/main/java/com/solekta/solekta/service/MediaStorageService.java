@@ -0,0 +1,307 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.dto.StoredMedia;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed media store. Uploads are streamed to disk under their
+ * SHA-256 hash (root/ab/cd/abcd...), so identical files are stored once and
+ * entities only keep the hash, size and content type.
+ *
+ * Bank transfer receipts live under a separate root with the same layout. /api/media
+ * only ever reads the public root, so a receipt is reachable solely through its
+ * order's endpoint. Receipts are staged during checkout and only moved into place
+ * once the order commits, so a rolled-back checkout leaves no file behind.
+ */
+@Service
+@Slf4j
+public class MediaStorageService {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    private static final String CONTENT_TYPE_SUFFIX = ".type";
+    private static final String TMP_DIR = "tmp";
+
+    /**
+     * An upload written and hashed under a temp name, not yet visible under its hash
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class StagedMedia {
+        private final StoredMedia media;
+        private final Path root;
+        private final Path tmp;
+    }
+
+    @Value("${app.media.root:./media}")
+    private String mediaRoot;
+
+    @Value("${app.media.receipt-root:./receipts}")
+    private String receiptRoot;
+
+    private Path root;
+    private Path receipts;
+
+    // Hashes are immutable, so a resolved content type never goes stale
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(mediaRoot).toAbsolutePath().normalize();
+        receipts = Paths.get(receiptRoot).toAbsolutePath().normalize();
+        if (receipts.startsWith(root) || root.startsWith(receipts)) {
+            throw new IllegalStateException("app.media.receipt-root must not overlap app.media.root");
+        }
+        // Temp files sit next to their targets so the final move is atomic
+        Files.createDirectories(root.resolve(TMP_DIR));
+        Files.createDirectories(receipts.resolve(TMP_DIR));
+        log.info("Media store initialised at {}, receipts at {}", root, receipts);
+    }
+
+    /**
+     * Store an uploaded file without buffering it in heap
+     */
+    public StoredMedia store(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return store(in, file.getContentType());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read uploaded file " + file.getOriginalFilename(), e);
+        }
+    }
+
+    /**
+     * Stream bytes to a temp file while hashing them, then move the file to its
+     * content address. If the address already exists the temp copy is discarded.
+     */
+    public StoredMedia store(InputStream in, String contentType) {
+        StagedMedia staged = stage(root, in, contentType);
+        publish(staged);
+        contentTypes.putIfAbsent(staged.getMedia().getHash(), staged.getMedia().getContentType());
+        return staged.getMedia();
+    }
+
+    /**
+     * Write a receipt under a temp name; {@link #publish} or {@link #discard} it once
+     * the order it belongs to has committed or rolled back
+     */
+    public StagedMedia stageReceipt(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return stage(receipts, in, file.getContentType());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read uploaded file " + file.getOriginalFilename(), e);
+        }
+    }
+
+    /**
+     * Store a receipt right away, for callers that are not part of a checkout
+     */
+    public StoredMedia storeReceipt(InputStream in, String contentType) {
+        StagedMedia staged = stage(receipts, in, contentType);
+        publish(staged);
+        return staged.getMedia();
+    }
+
+    /**
+     * Move a staged file to its content address. If the address already exists the
+     * temp copy is discarded.
+     */
+    public void publish(StagedMedia staged) {
+        String hash = staged.getMedia().getHash();
+        Path target = pathFor(staged.getRoot(), hash);
+        try {
+            if (Files.exists(target)) {
+                Files.deleteIfExists(staged.getTmp());
+                log.debug("Media {} already stored, reusing existing copy", hash);
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(staged.getTmp(), target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Another upload of the same bytes won the race
+                    Files.deleteIfExists(staged.getTmp());
+                }
+                log.info("Stored media {} ({} bytes)", hash, staged.getMedia().getSize());
+            }
+
+            Path typeFile = target.resolveSibling(hash + CONTENT_TYPE_SUFFIX);
+            if (!Files.exists(typeFile)) {
+                Files.writeString(typeFile, staged.getMedia().getContentType(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            deleteQuietly(staged.getTmp());
+            throw new UncheckedIOException("Failed to store media", e);
+        }
+    }
+
+    public void discard(StagedMedia staged) {
+        deleteQuietly(staged.getTmp());
+    }
+
+    // Moves an object stored in the public root before receipts had their own
+    public boolean moveToReceipts(String hash) {
+        if (!exists(hash)) {
+            return false;
+        }
+        Path source = pathFor(root, hash);
+        Path target = pathFor(receipts, hash);
+        try {
+            Files.createDirectories(target.getParent());
+            if (!Files.exists(target)) {
+                Files.copy(source, target.resolveSibling(hash + ".part"), StandardCopyOption.REPLACE_EXISTING);
+                Files.move(target.resolveSibling(hash + ".part"), target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Path typeFile = source.resolveSibling(hash + CONTENT_TYPE_SUFFIX);
+            if (Files.exists(typeFile)) {
+                Files.copy(typeFile, target.resolveSibling(hash + CONTENT_TYPE_SUFFIX),
+                        StandardCopyOption.REPLACE_EXISTING);
+                Files.delete(typeFile);
+            }
+            Files.delete(source);
+            contentTypes.remove(hash);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to move media " + hash + " to the receipt store", e);
+        }
+    }
+
+    public Optional<Resource> load(String hash) {
+        return load(root, hash);
+    }
+
+    public boolean exists(String hash) {
+        return isValidHash(hash) && Files.isRegularFile(pathFor(root, hash));
+    }
+
+    public String getContentType(String hash) {
+        return contentTypes.computeIfAbsent(hash, h -> {
+            try {
+                return Files.readString(pathFor(root, h).resolveSibling(h + CONTENT_TYPE_SUFFIX), StandardCharsets.UTF_8).trim();
+            } catch (IOException e) {
+                return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+            }
+        });
+    }
+
+    /**
+     * Build a streaming response for a stored object. The hash doubles as a strong
+     * ETag; Range and If-None-Match are handled by Spring MVC for Resource bodies.
+     * Content-addressed URLs can be cached forever, entity URLs must revalidate.
+     */
+    public ResponseEntity<Resource> serve(String hash, String contentType, String fileName, boolean immutable) {
+        return serve(load(hash), hash, contentType != null ? contentType : getContentType(hash), fileName,
+                immutable
+                        ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                        : CacheControl.noCache());
+    }
+
+    /**
+     * Build a response for a receipt; callers check that the requester may see the order.
+     * Shared caches must not keep it.
+     */
+    public ResponseEntity<Resource> serveReceipt(String hash, String contentType, String fileName) {
+        return serve(load(receipts, hash), hash,
+                contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE, fileName,
+                CacheControl.noCache().cachePrivate());
+    }
+
+    private ResponseEntity<Resource> serve(Optional<Resource> resource, String hash, String type, String fileName,
+                                           CacheControl cacheControl) {
+        if (resource.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag("\"" + hash + "\"")
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(type));
+
+        if (fileName != null) {
+            builder.header("Content-Disposition", ContentDisposition.inline().filename(fileName).build().toString());
+        }
+        return builder.body(resource.get());
+    }
+
+    public static String urlFor(String hash) {
+        return hash != null ? "/api/media/" + hash : null;
+    }
+
+    // Streams bytes to a temp file under the given root while hashing them
+    private StagedMedia stage(Path base, InputStream in, String contentType) {
+        Path tmp = null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            tmp = Files.createTempFile(base.resolve(TMP_DIR), "upload-", ".part");
+            long size;
+            try (DigestInputStream digestIn = new DigestInputStream(in, digest)) {
+                size = Files.copy(digestIn, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String type = contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+            return new StagedMedia(new StoredMedia(hash, size, type), base, tmp);
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new UncheckedIOException("Failed to store media", e);
+        } catch (NoSuchAlgorithmException e) {
+            deleteQuietly(tmp);
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Optional<Resource> load(Path base, String hash) {
+        if (!isValidHash(hash)) {
+            return Optional.empty();
+        }
+        Path path = pathFor(base, hash);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    private static Path pathFor(Path base, String hash) {
+        return base.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private boolean isValidHash(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp media file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -1,21 +1,30 @@
 package com.solekta.solekta.service;
 
+import com.solekta.solekta.cache.ResourceVersions;
+import com.solekta.solekta.cart.CartPricing;
 import com.solekta.solekta.dto.*;
+import com.solekta.solekta.enums.CatalogSort;
 import com.solekta.solekta.model.*;
+import com.solekta.solekta.outbox.OutboxService;
+import com.solekta.solekta.repository.OrderPageRepository;
 import com.solekta.solekta.repository.OrderRepository;
+import com.solekta.solekta.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,7 +34,17 @@ import java.util.stream.Collectors;
 public class OrderService {
 
     private final OrderRepository orderRepository;
-    private final CartService cartService;
+    private final CartOperations cartService;
+    private final ResourceVersions resourceVersions;
+    private final CartPricing cartPricing;
+    private final InventoryService inventoryService;
+    private final OutboxService outboxService;
+    private final MediaStorageService mediaStorageService;
+    private final OrderPageRepository orderPageRepository;
+
+    // Upper bound on rows returned by the unpaginated order lists (use /paginated or /page)
+    @Value("${app.orders.max-list-size:500}")
+    private int maxListSize;
 
     public OrderDTO createOrderFromCart(CheckoutRequest checkoutRequest) {
         // Get customer's cart
@@ -35,10 +54,11 @@ public class OrderService {
             throw new RuntimeException("Cart is empty");
         }
 
-        // Calculate totals
-        BigDecimal subtotal = cart.getCartItems().stream()
-                .map(CartItemDTO::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Re-price every line at the current database prices; the order uses these prices
+        BigDecimal subtotal = revalidatePrices(cart);
+
+        // Take stock before writing anything; a shortfall rolls the checkout back
+        inventoryService.reserve(cart.getCartItems());
 
         BigDecimal tax = subtotal.multiply(BigDecimal.valueOf(0.1)); // 10% tax
         BigDecimal shippingCost = BigDecimal.valueOf(500.00); // Fixed shipping cost
@@ -64,9 +84,6 @@ public class OrderService {
         order.setPaymentMethod(checkoutRequest.getPaymentMethod());
         order.setBankTransferReceiptFileName(checkoutRequest.getBankTransferReceiptFileName());
 
-        // Save order
-        order = orderRepository.save(order);
-
         // Create order items
         for (CartItemDTO cartItem : cart.getCartItems()) {
             OrderItem orderItem = new OrderItem();
@@ -111,29 +128,21 @@ public class OrderService {
 
         order.setPayment(payment);
 
-        // Save order with items and payment
-        order = orderRepository.save(order);
+        // Ids come from pooled sequences, so this one flush inserts the order, batches the items
+        // and inserts the payment, with no second pass over the order
+        order = orderRepository.saveAndFlush(order);
+        resourceVersions.orderChanged(order.getId());
 
-        // Clear cart after successful order creation
-        cartService.clearCart(checkoutRequest.getCustomerId());
+        // Empty the ordered cart; undone with the order if the checkout rolls back
+        cartService.clearOrderedCart(cart);
 
         log.info("Created order {} for customer {}", order.getOrderNumber(), checkoutRequest.getCustomerId());
 
         // Convert to DTO once and reuse
         OrderDTO orderDTO = convertToDTO(order);
 
-        // Send order confirmation email (async to avoid blocking)
-        try {
-            log.info("Order confirmation email sent for order {} to {}",
-                    order.getOrderNumber(), checkoutRequest.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to send order confirmation email for order {}: {}",
-                    order.getOrderNumber(), e.getMessage(), e);
-            // Don't fail the order creation if email fails
-        }
-
-        // Send admin notification email (async to avoid blocking)
-
+        // Emails go out from the outbox once this transaction commits
+        enqueueOrderEmails(order.getId());
 
         return orderDTO;
     }
@@ -146,10 +155,11 @@ public class OrderService {
             throw new RuntimeException("Cart is empty");
         }
 
-        // Calculate totals
-        BigDecimal subtotal = cart.getCartItems().stream()
-                .map(CartItemDTO::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Re-price every line at the current database prices; the order uses these prices
+        BigDecimal subtotal = revalidatePrices(cart);
+
+        // Take stock before writing anything; a shortfall rolls the checkout back
+        inventoryService.reserve(cart.getCartItems());
 
         BigDecimal tax = subtotal.multiply(BigDecimal.valueOf(0.1)); // 10% tax
         BigDecimal shippingCost = BigDecimal.valueOf(500.00); // Fixed shipping cost
@@ -174,22 +184,19 @@ public class OrderService {
         // Set payment method
         order.setPaymentMethod(checkoutRequest.getPaymentMethod());
         
-        // Handle receipt file upload for bank transfer
+        // Handle receipt file upload for bank transfer; streamed to the receipt store, not buffered,
+        // and only moved into place if the order commits
         if (receiptFile != null && !receiptFile.isEmpty()) {
-            try {
-                order.setBankTransferReceiptData(receiptFile.getBytes());
-                order.setBankTransferReceiptFileName(receiptFile.getOriginalFilename());
-                order.setBankTransferReceiptContentType(receiptFile.getContentType());
-                log.info("Bank transfer receipt uploaded: {}", receiptFile.getOriginalFilename());
-            } catch (IOException e) {
-                log.error("Failed to process receipt file: {}", e.getMessage());
-                throw new RuntimeException("Failed to process receipt file", e);
-            }
+            MediaStorageService.StagedMedia staged = mediaStorageService.stageReceipt(receiptFile);
+            publishOnCommit(staged);
+            StoredMedia receipt = staged.getMedia();
+            order.setBankTransferReceiptHash(receipt.getHash());
+            order.setBankTransferReceiptSize(receipt.getSize());
+            order.setBankTransferReceiptFileName(receiptFile.getOriginalFilename());
+            order.setBankTransferReceiptContentType(receipt.getContentType());
+            log.info("Bank transfer receipt uploaded: {} ({} bytes)", receiptFile.getOriginalFilename(), receipt.getSize());
         }
 
-        // Save order
-        order = orderRepository.save(order);
-
         // Create order items
         for (CartItemDTO cartItem : cart.getCartItems()) {
             OrderItem orderItem = new OrderItem();
@@ -234,11 +241,13 @@ public class OrderService {
 
         order.setPayment(payment);
 
-        // Save order with items and payment
-        order = orderRepository.save(order);
+        // Ids come from pooled sequences, so this one flush inserts the order, batches the items
+        // and inserts the payment, with no second pass over the order
+        order = orderRepository.saveAndFlush(order);
+        resourceVersions.orderChanged(order.getId());
 
-        // Clear cart after successful order creation
-        cartService.clearCart(checkoutRequest.getCustomerId());
+        // Empty the ordered cart; undone with the order if the checkout rolls back
+        cartService.clearOrderedCart(cart);
 
         log.info("Created order {} for customer {} with receipt: {}", 
                 order.getOrderNumber(), checkoutRequest.getCustomerId(), 
@@ -247,15 +256,8 @@ public class OrderService {
         // Convert to DTO
         OrderDTO orderDTO = convertToDTO(order);
 
-        // Send order confirmation email (async to avoid blocking)
-        try {
-            log.info("Order confirmation email sent for order {} to {}",
-                    order.getOrderNumber(), checkoutRequest.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to send order confirmation email for order {}: {}",
-                    order.getOrderNumber(), e.getMessage(), e);
-            // Don't fail the order creation if email fails
-        }
+        // Emails go out from the outbox once this transaction commits
+        enqueueOrderEmails(order.getId());
 
         return orderDTO;
     }
@@ -271,6 +273,10 @@ public class OrderService {
                 .orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
+    public Optional<Order> findOrderEntityById(Long orderId) {
+        return orderRepository.findById(orderId);
+    }
+
     public OrderDTO getOrderByOrderNumber(String orderNumber) {
         Order order = orderRepository.findByOrderNumber(orderNumber)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
@@ -278,14 +284,11 @@ public class OrderService {
     }
 
     public List<OrderDTO> getOrdersByCustomerId(Long customerId) {
-        List<Order> orders = orderRepository.findByCustomerIdOrderByCreatedAtDesc(customerId);
-        return orders.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return listOrders(new OrderPageRepository.Filter(customerId, null, null, null)).getItems();
     }
 
     public Page<OrderDTO> getOrdersByCustomerId(Long customerId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orders = orderRepository.findByCustomerIdOrderByCreatedAtDesc(customerId, pageable);
-        return orders.map(this::convertToDTO);
+        return getOrders(new OrderPageRepository.Filter(customerId, null, null, null), page, size);
     }
 
     public OrderDTO updateOrderStatus(Long orderId, Order.OrderStatus status) {
@@ -295,6 +298,7 @@ public class OrderService {
         Order.OrderStatus oldStatus = order.getStatus();
         order.setStatus(status);
         order = orderRepository.save(order);
+        resourceVersions.orderChanged(order.getId());
 
         log.info("Updated order {} status from {} to {}", order.getOrderNumber(), oldStatus, status);
 
@@ -302,18 +306,59 @@ public class OrderService {
     }
 
     public List<OrderDTO> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        return orders.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return listOrders(OrderPageRepository.Filter.NONE).getItems();
     }
 
     public List<OrderDTO> getOrdersByStatus(Order.OrderStatus status) {
-        List<Order> orders = orderRepository.findByStatusOrderByCreatedAtDesc(status);
-        return orders.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return listOrders(new OrderPageRepository.Filter(null, status, null, null)).getItems();
     }
 
     public List<OrderDTO> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Order> orders = orderRepository.findByDateRange(startDate, endDate);
-        return orders.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return listOrders(new OrderPageRepository.Filter(null, null, startDate, endDate)).getItems();
+    }
+
+    /**
+     * Offset-paginated orders, newest first. Three statements per page: ids, count, and
+     * the orders with their items and payments.
+     */
+    public Page<OrderDTO> getOrders(OrderPageRepository.Filter filter, int page, int size) {
+        Page<Long> ids = orderPageRepository.findIdPage(filter, PageRequest.of(page, CursorPage.clampSize(size)));
+        return new PageImpl<>(loadOrders(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    /**
+     * Keyset-paginated orders, newest first; pass nextCursor back as cursor. Skips the
+     * count, so deep pages cost the same as the first.
+     */
+    public CursorPage<OrderDTO> getOrderPage(OrderPageRepository.Filter filter, String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<OrderPageRepository.OrderKey> keys = orderPageRepository.findKeysAfter(
+                filter, KeysetCursor.decode(cursor, CatalogSort.NEWEST), pageSize + 1);
+        return orderPage(CursorPage.of(keys, pageSize, OrderService::cursorOf));
+    }
+
+    /**
+     * The newest maxListSize orders for the unpaginated lists. When there are more,
+     * hasMore is set and nextCursor continues the list on {@link #getOrderPage}.
+     */
+    public CursorPage<OrderDTO> listOrders(OrderPageRepository.Filter filter) {
+        List<OrderPageRepository.OrderKey> keys = orderPageRepository.findKeysAfter(filter, null, maxListSize + 1);
+        return orderPage(CursorPage.of(keys, maxListSize, OrderService::cursorOf));
+    }
+
+    private CursorPage<OrderDTO> orderPage(CursorPage<OrderPageRepository.OrderKey> keys) {
+        List<Long> ids = keys.getItems().stream().map(OrderPageRepository.OrderKey::id).toList();
+        return new CursorPage<>(loadOrders(ids), keys.getNextCursor(), keys.isHasMore());
+    }
+
+    private static KeysetCursor cursorOf(OrderPageRepository.OrderKey key) {
+        return new KeysetCursor(CatalogSort.NEWEST, OrderPageRepository.cursorKey(key), key.id());
+    }
+
+    private List<OrderDTO> loadOrders(List<Long> ids) {
+        return orderPageRepository.findWithItemsAndPayment(ids).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
     }
 
     private OrderDTO convertToDTO(Order order) {
@@ -374,4 +419,41 @@ public class OrderService {
         dto.setProcessedAt(payment.getProcessedAt());
         return dto;
     }
+
+    private void enqueueOrderEmails(Long orderId) {
+        outboxService.enqueue(OutboxEvent.EventType.ORDER_CONFIRMATION_EMAIL, orderId);
+        outboxService.enqueue(OutboxEvent.EventType.ADMIN_ORDER_NOTIFICATION, orderId);
+    }
+
+    private BigDecimal revalidatePrices(CartDTO cart) {
+        CartPricing.Revalidation pricing = cartPricing.revalidate(cart.getCartItems());
+        if (pricing.changedLines() > 0) {
+            log.info("Re-priced {} cart lines for customer {} at checkout",
+                    pricing.changedLines(), cart.getCustomerId());
+        }
+        return pricing.subtotal();
+    }
+
+    // A rolled-back checkout discards the staged receipt instead of leaving an orphaned file
+    private void publishOnCommit(MediaStorageService.StagedMedia receipt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            mediaStorageService.publish(receipt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    mediaStorageService.discard(receipt);
+                    return;
+                }
+                try {
+                    mediaStorageService.publish(receipt);
+                } catch (RuntimeException e) {
+                    log.error("Order committed but its receipt {} could not be stored: {}",
+                            receipt.getMedia().getHash(), e.getMessage(), e);
+                }
+            }
+        });
+    }
 }
@@ -1,5 +1,6 @@
 package com.solekta.solekta.service;
 
+import com.solekta.solekta.cache.ResourceVersions;
 import com.solekta.solekta.dto.PaymentDTO;
 import com.solekta.solekta.dto.PaymentRequest;
 import com.solekta.solekta.exception.ResourceNotFoundException;
@@ -25,6 +26,7 @@ public class PaymentService {
 
     private final PaymentTransactionRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final ResourceVersions resourceVersions;
 
     public PaymentDTO processPayment(PaymentRequest paymentRequest) {
         Order order = orderRepository.findById(paymentRequest.getOrderId())
@@ -65,6 +67,8 @@ public class PaymentService {
         }
 
         payment = paymentRepository.save(payment);
+        // Orders embed their payment status
+        resourceVersions.orderChanged(order.getId());
         return convertToDTO(payment);
     }
 
@@ -110,6 +114,7 @@ public class PaymentService {
         orderRepository.save(order);
 
         payment = paymentRepository.save(payment);
+        resourceVersions.orderChanged(order.getId());
         log.info("Payment refunded for order {}, reason: {}", order.getOrderNumber(), reason);
 
         return convertToDTO(payment);
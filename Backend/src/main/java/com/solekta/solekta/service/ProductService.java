@@ -1,15 +1,38 @@
 package com.solekta.solekta.service;
 
+import com.solekta.solekta.cache.CatalogCache;
+import com.solekta.solekta.cache.ResourceVersions;
+import com.solekta.solekta.dto.CursorPage;
+import com.solekta.solekta.dto.FacetedProductsDTO;
+import com.solekta.solekta.dto.ProductFilterRequest;
+import com.solekta.solekta.dto.ProductSummaryDTO;
+import com.solekta.solekta.dto.StoredMedia;
+import com.solekta.solekta.dto.SuggestionDTO;
+import com.solekta.solekta.enums.CatalogSort;
+import com.solekta.solekta.event.CatalogChangedEvent;
 import com.solekta.solekta.model.Product;
 import com.solekta.solekta.model.Category;
+import com.solekta.solekta.model.ProductSpec;
+import com.solekta.solekta.repository.CatalogPageRepository;
 import com.solekta.solekta.repository.ProductRepository;
 import com.solekta.solekta.repository.CategoryRepository;
+import com.solekta.solekta.repository.ProductSpecRepository;
+import com.solekta.solekta.search.CatalogIndexer;
+import com.solekta.solekta.search.FacetIndex;
+import com.solekta.solekta.search.LaptopSpecParser;
+import com.solekta.solekta.search.ProductSearchIndex;
+import com.solekta.solekta.search.SuggestionIndex;
+import com.solekta.solekta.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,12 +46,47 @@ public class ProductService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private CatalogPageRepository catalogPageRepository;
+
+    @Autowired
+    private ProductSpecRepository productSpecRepository;
+
+    // Upper bound on rows returned by the unpaginated list endpoints
+    @Value("${app.catalog.max-list-size:500}")
+    private int maxListSize;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private CatalogIndexer catalogIndexer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    // Cached and shared between requests: do not modify the returned product, use updateProduct
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return catalogCache.getById(CatalogCache.Region.PRODUCT, id, () -> productRepository.findById(id));
     }
 
     public Product saveProduct(Product product) {
@@ -36,7 +94,7 @@ public class ProductService {
         if (product.getIsAvailable() == null) {
             product.setIsAvailable(product.getQuantity() != null && product.getQuantity() > 0);
         }
-        return productRepository.save(product);
+        return publishChanged(saveWithSpec(product));
     }
 
     public Product createProduct(com.solekta.solekta.dto.ProductRequest request) {
@@ -66,7 +124,7 @@ public class ProductService {
             log.info("No categoryId provided in request");
         }
         
-        return productRepository.save(product);
+        return publishChanged(saveWithSpec(product));
     }
 
     public Product createProductWithImage(String productName, String productDescription, 
@@ -101,45 +159,131 @@ public class ProductService {
         // Handle image file upload
         if (imageFile != null && !imageFile.isEmpty()) {
             try {
-                product.setImageData(imageFile.getBytes());
+                StoredMedia media = mediaStorageService.store(imageFile);
+                product.setImageHash(media.getHash());
+                product.setImageSize(media.getSize());
                 product.setImageFileName(imageFile.getOriginalFilename());
-                product.setImageContentType(imageFile.getContentType());
-                log.info("Product image uploaded: {}", imageFile.getOriginalFilename());
-            } catch (IOException e) {
+                product.setImageContentType(media.getContentType());
+                log.info("Product image uploaded: {} ({})", imageFile.getOriginalFilename(), media.getHash());
+            } catch (UncheckedIOException e) {
                 log.error("Failed to process product image file: {}", e.getMessage());
                 throw new RuntimeException("Failed to process product image file", e);
             }
         }
         
-        return productRepository.save(product);
+        return publishChanged(saveWithSpec(product));
+    }
+
+    public Optional<Product> updateProduct(Long id, Product updatedProduct) {
+        return productRepository.findById(id)
+                .map(existing -> {
+                    // Update all fields except the ID
+                    existing.setProductName(updatedProduct.getProductName());
+                    existing.setProductDescription(updatedProduct.getProductDescription());
+                    existing.setLaptopSpec(updatedProduct.getLaptopSpec());
+                    existing.setQuantity(updatedProduct.getQuantity());
+                    existing.setIsAvailable(updatedProduct.getIsAvailable());
+                    existing.setPrice(updatedProduct.getPrice());
+                    existing.setImageUrls(updatedProduct.getImageUrls());
+                    existing.setCategory(updatedProduct.getCategory());
+                    return saveProduct(existing);
+                });
     }
 
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        productSpecRepository.deleteById(id);
+        catalogCache.invalidateProduct(id);
+        resourceVersions.productChanged(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.EntityType.PRODUCT, id));
     }
 
     // Additional service methods for the new endpoints
 
+    public Optional<ProductSpec> getProductSpec(Long productId) {
+        return productSpecRepository.findById(productId);
+    }
+
     public List<Product> getAvailableProducts() {
-        return productRepository.findByIsAvailableTrue();
+        return catalogCache.get(CatalogCache.Region.PRODUCT, "available", null,
+                () -> productRepository.findByIsAvailableTrue());
     }
 
     public List<Product> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategoryCategoryId(categoryId);
+        return catalogCache.get(CatalogCache.Region.PRODUCT, "byCategory", categoryId,
+                () -> productRepository.findByCategoryCategoryId(categoryId));
     }
 
     public List<Product> searchProducts(String keyword) {
-        return productRepository.findByProductNameContainingIgnoreCaseOrProductDescriptionContainingIgnoreCase(keyword, keyword);
+        return catalogCache.get(CatalogCache.Region.PRODUCT, "search", keyword,
+                () -> productRepository.findByProductNameContainingIgnoreCaseOrProductDescriptionContainingIgnoreCase(keyword, keyword));
     }
 
     // Additional useful service methods
 
+    // Listing projections (no image bytes) used by the catalog list endpoints
+
+    public List<ProductSummaryDTO> getAllProductSummaries() {
+        return catalogCache.get(CatalogCache.Region.PRODUCT, "summaries", null,
+                () -> productRepository.findAllSummaries(PageRequest.of(0, maxListSize)));
+    }
+
+    public List<ProductSummaryDTO> getAvailableProductSummaries() {
+        return catalogCache.get(CatalogCache.Region.PRODUCT, "availableSummaries", null,
+                () -> productRepository.findAvailableSummaries(PageRequest.of(0, maxListSize)));
+    }
+
+    public List<ProductSummaryDTO> getProductSummariesByCategory(Long categoryId) {
+        return catalogCache.get(CatalogCache.Region.PRODUCT, "summariesByCategory", categoryId,
+                () -> productRepository.findSummariesByCategoryId(categoryId, PageRequest.of(0, maxListSize)));
+    }
+
+    public CursorPage<ProductSummaryDTO> getProductPage(String sortParam, String cursor, Integer size,
+                                                        Boolean available, Long categoryId) {
+        return catalogCache.get(CatalogCache.Region.PRODUCT, "page",
+                Arrays.asList(sortParam, cursor, size, available, categoryId),
+                () -> loadProductPage(sortParam, cursor, size, available, categoryId));
+    }
+
+    private CursorPage<ProductSummaryDTO> loadProductPage(String sortParam, String cursor, Integer size,
+                                                          Boolean available, Long categoryId) {
+        CatalogSort sort = CatalogSort.fromParam(sortParam);
+        int pageSize = CursorPage.clampSize(size);
+        List<ProductSummaryDTO> rows = catalogPageRepository.findProductPage(
+                sort, available, categoryId, KeysetCursor.decode(cursor, sort), pageSize + 1);
+        return CursorPage.of(rows, pageSize, last -> new KeysetCursor(sort, switch (sort) {
+            case PRICE_ASC, PRICE_DESC -> String.valueOf(last.getPrice());
+            case NAME -> last.getProductName();
+            case NEWEST -> null;
+        }, last.getProductId()));
+    }
+
+    // Ranked in-memory search; falls back to the database until the index is built
+    public List<ProductSummaryDTO> searchProductSummaries(String keyword, int limit) {
+        int capped = Math.min(Math.max(limit, 1), maxListSize);
+        if (catalogIndexer.isReady()) {
+            return productSearchIndex.search(keyword, capped);
+        }
+        return productRepository.searchSummaries(keyword, PageRequest.of(0, capped));
+    }
+
+    public FacetedProductsDTO filterProducts(ProductFilterRequest request) {
+        return facetIndex.filter(request);
+    }
+
+    // Typeahead is served from memory only; before the first build there is nothing to suggest
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit);
+    }
+
     public List<Product> getProductsByBrand(String brand) {
-        return productRepository.findByBrandContainingIgnoreCase(brand);
+        return catalogCache.get(CatalogCache.Region.PRODUCT, "byBrand", brand,
+                () -> productRepository.findByBrandContainingIgnoreCase(brand));
     }
 
     public List<Product> getProductsByPriceRange(Double minPrice, Double maxPrice) {
-        return productRepository.findByPriceBetween(minPrice, maxPrice);
+        return catalogCache.get(CatalogCache.Region.PRODUCT, "byPriceRange", Arrays.asList(minPrice, maxPrice),
+                () -> productRepository.findByPriceBetween(minPrice, maxPrice));
     }
 
     public List<Product> getLowStockProducts(Integer threshold) {
@@ -153,7 +297,7 @@ public class ProductService {
             product.setQuantity(newQuantity);
             // Auto-update availability based on quantity
             product.setIsAvailable(newQuantity > 0);
-            return productRepository.save(product);
+            return publishChanged(productRepository.save(product));
         }
         return null;
     }
@@ -163,8 +307,22 @@ public class ProductService {
         if (productOpt.isPresent()) {
             Product product = productOpt.get();
             product.setIsAvailable(isAvailable);
-            return productRepository.save(product);
+            return publishChanged(productRepository.save(product));
         }
         return null;
     }
+
+    // For writes that may change the laptop spec text; stock-only writes leave product_spec alone
+    private Product saveWithSpec(Product product) {
+        Product saved = productRepository.save(product);
+        productSpecRepository.save(LaptopSpecParser.parse(saved.getProductId(), saved.getLaptopSpec()));
+        return saved;
+    }
+
+    private Product publishChanged(Product product) {
+        catalogCache.invalidateProduct(product.getProductId());
+        resourceVersions.productChanged(product.getProductId());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.EntityType.PRODUCT, product.getProductId()));
+        return product;
+    }
 }
\ No newline at end of file
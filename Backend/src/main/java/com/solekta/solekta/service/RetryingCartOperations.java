@@ -0,0 +1,146 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.dto.CartDTO;
+import com.solekta.solekta.dto.CartPatchRequest;
+import com.solekta.solekta.dto.CartSummaryDTO;
+import com.solekta.solekta.dto.SyncCartRequest;
+import com.solekta.solekta.model.CartItem;
+import com.solekta.solekta.model.RentalService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs each {@link CartService} call in its own transaction and retries it when it
+ * lost a race: another request bumped the cart's @Version first, or inserted the
+ * same line first (uk_cart_items_line). Retries are bounded and back off with full
+ * jitter, so two tabs hammering one cart converge without pessimistic row locks.
+ *
+ * Calls made inside a caller's transaction (e.g. checkout) are not retried here,
+ * since that transaction is already marked rollback-only.
+ */
+@Service
+@Primary
+@Slf4j
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "jpa", matchIfMissing = true)
+public class RetryingCartOperations implements CartOperations {
+
+    private final CartService cartService;
+
+    @Value("${app.cart.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${app.cart.retry.backoff-ms:20}")
+    private long backoffMs;
+
+    public RetryingCartOperations(CartService cartService) {
+        this.cartService = cartService;
+    }
+
+    @Override
+    public CartDTO getCartByCustomerId(Long customerId) {
+        return retry(() -> cartService.getCartByCustomerId(customerId));
+    }
+
+    @Override
+    public CartSummaryDTO getCartSummary(Long customerId) {
+        return retry(() -> cartService.getCartSummary(customerId));
+    }
+
+    @Override
+    public CartDTO addItemToCart(Long customerId, Long productId, Integer quantity) {
+        return retry(() -> cartService.addItemToCart(customerId, productId, quantity));
+    }
+
+    @Override
+    public CartDTO updateCartItem(Long customerId, Long productId, Integer quantity) {
+        return retry(() -> cartService.updateCartItem(customerId, productId, quantity));
+    }
+
+    @Override
+    public void removeItemFromCart(Long customerId, Long productId) {
+        retry(() -> {
+            cartService.removeItemFromCart(customerId, productId);
+            return null;
+        });
+    }
+
+    @Override
+    public CartDTO addServiceToCart(Long customerId, Long serviceId, Integer rentalPeriod,
+                                    RentalService.RentalPeriodType periodType) {
+        return retry(() -> cartService.addServiceToCart(customerId, serviceId, rentalPeriod, periodType));
+    }
+
+    @Override
+    public CartDTO removeServiceFromCart(Long customerId, Long serviceId) {
+        return retry(() -> cartService.removeServiceFromCart(customerId, serviceId));
+    }
+
+    @Override
+    public CartDTO syncCart(Long customerId, SyncCartRequest request) {
+        return retry(() -> cartService.syncCart(customerId, request));
+    }
+
+    @Override
+    public CartDTO patchCart(Long customerId, CartPatchRequest request) {
+        return retry(() -> cartService.patchCart(customerId, request));
+    }
+
+    @Override
+    public void clearCart(Long customerId) {
+        retry(() -> {
+            cartService.clearCart(customerId);
+            return null;
+        });
+    }
+
+    private <T> T retry(Supplier<T> call) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return call.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isConflict(e)) {
+                    throw e;
+                }
+                // Full jitter: anywhere between 0 and the exponential ceiling
+                long ceiling = backoffMs << Math.min(attempt - 1, 10);
+                long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+                log.debug("Cart update conflict (attempt {}), retrying in {} ms: {}", attempt, delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean isConflict(RuntimeException e) {
+        if (e instanceof OptimisticLockingFailureException) {
+            return true;
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof ConstraintViolationException violation) {
+                    String name = violation.getConstraintName();
+                    return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+                            || name != null && name.toLowerCase().contains(CartItem.LINE_CONSTRAINT);
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+package com.solekta.solekta.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cluster-wide lock for scheduled jobs, held as a row in scheduler_leases. A node
+ * takes the lease by a conditional UPDATE that only matches when the lease has
+ * expired or is already its own, or by inserting the row the first time, so at
+ * most one node wins even when all of them fire at the same moment.
+ *
+ * Leases expire on their own, so a node that dies mid-run blocks the job for at
+ * most the lease duration. Nodes compare against their own clocks; keep the lease
+ * well above any expected clock skew.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SchedulerLeaseService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String nodeId = nodeName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    /**
+     * True when this node now holds the named lease for the given duration.
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp until = Timestamp.valueOf(now.plus(duration));
+        int updated = jdbcTemplate.update(
+                "UPDATE scheduler_leases SET owner = ?, locked_until = ? " +
+                "WHERE name = ? AND (locked_until <= ? OR owner = ?)",
+                nodeId, until, name, Timestamp.valueOf(now), nodeId);
+        if (updated > 0) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO scheduler_leases (name, owner, locked_until) VALUES (?, ?, ?)",
+                    name, nodeId, until);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Another node holds it
+            return false;
+        }
+    }
+
+    /**
+     * Ends the lease early if this node still holds it.
+     */
+    public void release(String name) {
+        jdbcTemplate.update("UPDATE scheduler_leases SET locked_until = ? WHERE name = ? AND owner = ?",
+                Timestamp.valueOf(LocalDateTime.now()), name, nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String nodeName() {
+        try {
+            String host = InetAddress.getLocalHost().getHostName();
+            return host.length() > 100 ? host.substring(0, 100) : host;
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package com.solekta.solekta.service;
 
+import com.solekta.solekta.cache.CatalogCache;
+import com.solekta.solekta.cache.ResourceVersions;
+import com.solekta.solekta.dto.CursorPage;
+import com.solekta.solekta.dto.StoredMedia;
+import com.solekta.solekta.enums.CatalogSort;
+import com.solekta.solekta.event.CatalogChangedEvent;
 import com.solekta.solekta.model.RentalService;
+import com.solekta.solekta.repository.CatalogPageRepository;
 import com.solekta.solekta.repository.ServiceRepository;
+import com.solekta.solekta.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,9 +31,28 @@ public class ServiceService {
     @Autowired
     private ServiceRepository serviceRepository;
 
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private CatalogPageRepository catalogPageRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Upper bound on rows returned by the unpaginated list endpoints
+    @Value("${app.catalog.max-list-size:500}")
+    private int maxListSize;
+
     // CREATE - Add new service
     public RentalService createService(RentalService service) {
-        return serviceRepository.save(service);
+        return invalidate(serviceRepository.save(service));
     }
 
     public RentalService createServiceWithImage(String serviceName, String description,
@@ -42,47 +73,71 @@ public class ServiceService {
         // Handle image file upload
         if (imageFile != null && !imageFile.isEmpty()) {
             try {
-                service.setImageData(imageFile.getBytes());
+                StoredMedia media = mediaStorageService.store(imageFile);
+                service.setImageHash(media.getHash());
+                service.setImageSize(media.getSize());
                 service.setImageFileName(imageFile.getOriginalFilename());
-                service.setImageContentType(imageFile.getContentType());
-                log.info("Service image uploaded: {}", imageFile.getOriginalFilename());
-            } catch (IOException e) {
+                service.setImageContentType(media.getContentType());
+                log.info("Service image uploaded: {} ({})", imageFile.getOriginalFilename(), media.getHash());
+            } catch (UncheckedIOException e) {
                 log.error("Failed to process service image file: {}", e.getMessage());
                 throw new RuntimeException("Failed to process service image file", e);
             }
         }
         
-        return serviceRepository.save(service);
+        return invalidate(serviceRepository.save(service));
     }
 
     // READ - Get all services
     public List<RentalService> getAllServices() {
-        return serviceRepository.findAllOrderByName();
+        return catalogCache.get(CatalogCache.Region.SERVICE, "all", null,
+                () -> serviceRepository.findAllOrderByName(PageRequest.of(0, maxListSize)));
     }
 
     // READ - Get available services
     public List<RentalService> getAvailableServices() {
-        return serviceRepository.findByIsAvailableTrue();
+        return catalogCache.get(CatalogCache.Region.SERVICE, "available", null,
+                () -> serviceRepository.findAvailable(PageRequest.of(0, maxListSize)));
+    }
+
+    // READ - Keyset-paginated services
+    public CursorPage<RentalService> getServicePage(String sortParam, String cursor, Integer size, Boolean available) {
+        return catalogCache.get(CatalogCache.Region.SERVICE, "page", Arrays.asList(sortParam, cursor, size, available),
+                () -> loadServicePage(sortParam, cursor, size, available));
     }
 
-    // READ - Get service by ID
+    private CursorPage<RentalService> loadServicePage(String sortParam, String cursor, Integer size, Boolean available) {
+        CatalogSort sort = CatalogSort.fromParam(sortParam);
+        int pageSize = CursorPage.clampSize(size);
+        List<RentalService> rows = catalogPageRepository.findServicePage(
+                sort, available, KeysetCursor.decode(cursor, sort), pageSize + 1);
+        return CursorPage.of(rows, pageSize, last -> new KeysetCursor(sort, switch (sort) {
+            case PRICE_ASC, PRICE_DESC -> last.getPricePerDay().toPlainString();
+            case NAME -> last.getServiceName();
+            case NEWEST -> null;
+        }, last.getServiceId()));
+    }
+
+    // READ - Get service by ID (cached and shared between requests: do not modify the result)
     public Optional<RentalService> getServiceById(Long id) {
-        return serviceRepository.findById(id);
+        return catalogCache.getById(CatalogCache.Region.SERVICE, id, () -> serviceRepository.findById(id));
     }
 
     // READ - Search services by keyword
     public List<RentalService> searchServices(String keyword) {
-        return serviceRepository.searchServices(keyword);
+        return catalogCache.get(CatalogCache.Region.SERVICE, "search", keyword, () -> serviceRepository.searchServices(keyword));
     }
 
     // READ - Get services by category
     public List<RentalService> getServicesByCategory(String category) {
-        return serviceRepository.findByCategoryContainingIgnoreCase(category);
+        return catalogCache.get(CatalogCache.Region.SERVICE, "byCategory", category,
+                () -> serviceRepository.findByCategoryContainingIgnoreCase(category));
     }
 
     // READ - Get services by price range
     public List<RentalService> getServicesByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return serviceRepository.findByPricePerDayBetween(minPrice, maxPrice);
+        return catalogCache.get(CatalogCache.Region.SERVICE, "byPriceRange", Arrays.asList(minPrice, maxPrice),
+                () -> serviceRepository.findByPricePerDayBetween(minPrice, maxPrice));
     }
 
     // UPDATE - Update existing service
@@ -97,7 +152,7 @@ public class ServiceService {
                     service.setIsAvailable(updatedService.getIsAvailable());
                     service.setMinRentalPeriod(updatedService.getMinRentalPeriod());
                     service.setMaxRentalPeriod(updatedService.getMaxRentalPeriod());
-                    return serviceRepository.save(service);
+                    return invalidate(serviceRepository.save(service));
                 })
                 .orElseThrow(() -> new RuntimeException("Service not found with id: " + id));
     }
@@ -105,6 +160,9 @@ public class ServiceService {
     // DELETE - Delete service
     public void deleteService(Long id) {
         serviceRepository.deleteById(id);
+        catalogCache.invalidateService(id);
+        resourceVersions.serviceChanged(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.EntityType.SERVICE, id));
     }
 
     // CHECK - Service exists
@@ -114,7 +172,14 @@ public class ServiceService {
 
     // Helper method to save service
     public RentalService saveService(RentalService service) {
-        return serviceRepository.save(service);
+        return invalidate(serviceRepository.save(service));
+    }
+
+    private RentalService invalidate(RentalService service) {
+        catalogCache.invalidateService(service.getServiceId());
+        resourceVersions.serviceChanged(service.getServiceId());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.EntityType.SERVICE, service.getServiceId()));
+        return service;
     }
 }
 
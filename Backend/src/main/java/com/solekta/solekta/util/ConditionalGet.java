@@ -0,0 +1,76 @@
+package com.solekta.solekta.util;
+
+import com.solekta.solekta.cache.ResourceVersions;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET against a {@link ResourceVersions.Stamp}: answers 304 when the
+ * client's If-None-Match / If-Modified-Since still match, without calling the
+ * loader, and otherwise adds ETag, Last-Modified and Cache-Control: no-cache to
+ * successful responses so clients revalidate instead of refetching.
+ */
+public class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    public static <T> ResponseEntity<T> ok(WebRequest request, ResourceVersions.Stamp stamp, Supplier<T> loader) {
+        return respond(request, stamp, () -> ResponseEntity.ok(loader.get()));
+    }
+
+    public static <T> ResponseEntity<T> respond(WebRequest request, ResourceVersions.Stamp stamp,
+                                                Supplier<ResponseEntity<T>> loader) {
+        if (isNotModified(request, stamp)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(stamp.getEtag())
+                    .lastModified(stamp.getLastModified())
+                    .build();
+        }
+        ResponseEntity<T> response = loader.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .cacheControl(CacheControl.noCache())
+                .eTag(stamp.getEtag())
+                .lastModified(stamp.getLastModified())
+                .body(response.getBody());
+    }
+
+    // If-None-Match wins over If-Modified-Since (RFC 9110 13.2.2)
+    private static boolean isNotModified(WebRequest request, ResourceVersions.Stamp stamp) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String current = opaqueTag(stamp.getEtag());
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.equals("*") || opaqueTag(candidate).equals(current)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince != null) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+            long since = headers.getIfModifiedSince();
+            // HTTP dates have second precision
+            return since >= 0 && stamp.getLastModified() / 1000 <= since / 1000;
+        }
+        return false;
+    }
+
+    // Weak comparison: W/"x" and "x" match
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,54 @@
+package com.solekta.solekta.util;
+
+import com.solekta.solekta.enums.CatalogSort;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated listing: the sort order plus the sort key and id of
+ * the last row served. Handed to clients as an opaque URL-safe token, so the next page
+ * is a seek on (sortKey, id) instead of an OFFSET scan.
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+
+    private final CatalogSort sort;
+    // Sort key rendered as text; null when the order is by id alone
+    private final String key;
+    private final long id;
+
+    public String encode() {
+        String raw = sort.name() + "\n" + id + (key != null ? "\n" + key : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a client token. Returns null for the first page; rejects tokens that are
+     * malformed or were issued for a different sort order.
+     */
+    public static KeysetCursor decode(String token, CatalogSort expectedSort) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        KeysetCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\n", 3);
+            cursor = new KeysetCursor(CatalogSort.valueOf(parts[0]), parts.length > 2 ? parts[2] : null,
+                    Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (cursor.key == null && cursor.sort != CatalogSort.NEWEST) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (cursor.sort != expectedSort) {
+            throw new IllegalArgumentException("Cursor was issued for sort " + cursor.sort + ", not " + expectedSort);
+        }
+        return cursor;
+    }
+}
@@ -4,22 +4,15 @@ import com.solekta.solekta.model.Order;
 import com.solekta.solekta.model.Order.OrderStatus;
 
 import java.math.BigDecimal;
-import java.util.Random;
 
 public class OrderUtils {
 
-    private static final Random random = new Random();
-
     public static String generateOrderNumber() {
-        long timestamp = System.currentTimeMillis();
-        int randomNum = random.nextInt(1000);
-        return String.format("ORD-%d%03d", timestamp, randomNum);
+        return "ORD-" + SnowflakeIdGenerator.shared().nextId();
     }
 
     public static String generatePaymentNumber() {
-        long timestamp = System.currentTimeMillis();
-        int randomNum = random.nextInt(1000);
-        return String.format("PAY-%d%03d", timestamp, randomNum);
+        return "PAY-" + SnowflakeIdGenerator.shared().nextId();
     }
 
     public static BigDecimal calculateTax(BigDecimal subtotal, BigDecimal taxRate) {
@@ -0,0 +1,89 @@
+package com.solekta.solekta.util;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free 64-bit Snowflake ids: 41 bits of milliseconds since 2024-01-01, 10 bits
+ * of node id and a 12-bit per-millisecond sequence. The timestamp and sequence live
+ * in one AtomicLong advanced by CAS to max(now, last + 1), so ids are strictly
+ * increasing per node. When the clock steps back, or more than 4096 ids are taken in
+ * one millisecond, the generator keeps counting from its last value instead of
+ * waiting or repeating; it falls back in step with the clock once the clock passes it.
+ *
+ * Entities are not Spring beans, so the generator used by @PrePersist hooks is a
+ * process-wide instance configured at startup from app.ids.node-id.
+ */
+public class SnowflakeIdGenerator {
+
+    // 2024-01-01T00:00:00Z
+    public static final long EPOCH_MILLIS = 1704067200000L;
+
+    static final int SEQUENCE_BITS = 12;
+    static final int NODE_BITS = 10;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static volatile SnowflakeIdGenerator shared = new SnowflakeIdGenerator(defaultNodeId());
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            next = Math.max(now, previous + 1);
+        } while (!last.compareAndSet(previous, next));
+        return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+    }
+
+    public static SnowflakeIdGenerator shared() {
+        return shared;
+    }
+
+    public static void configureShared(int nodeId) {
+        shared = new SnowflakeIdGenerator(nodeId);
+    }
+
+    // Millisecond timestamp an id was generated at (or borrowed, see the class comment)
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeIdOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    /**
+     * Node id used when none is configured: a hash of host name and process id. Good
+     * enough for one instance; set app.ids.node-id explicitly when running several.
+     */
+    public static int defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        return Math.floorMod((host + "/" + ManagementFactory.getRuntimeMXBean().getName()).hashCode(), MAX_NODE_ID + 1);
+    }
+}
@@ -0,0 +1,133 @@
+package com.solekta.solekta.controller;
+
+import com.solekta.solekta.model.Category;
+import com.solekta.solekta.model.Product;
+import com.solekta.solekta.repository.CategoryRepository;
+import com.solekta.solekta.repository.ProductRepository;
+import com.solekta.solekta.support.SqlStatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.handler.WebRequestHandlerInterceptorAdapter;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the catalog read paths against N+1 regressions: every endpoint must
+ * stay within a fixed SQL statement budget no matter how many products exist.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogQueryBudgetTests {
+
+    private static final int PRODUCT_COUNT = 30;
+    private static final long STATEMENT_BUDGET = 1;
+
+    @Autowired
+    private ProductController productController;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MockMvc mockMvc;
+    private SqlStatementCounter counter;
+    private Long categoryId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Category[] categories = new Category[3];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = categoryRepository.save(Category.builder()
+                    .categoryName("Category " + i)
+                    .description("Test category " + i)
+                    .build());
+        }
+        categoryId = categories[0].getCategoryId();
+
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .productName("Laptop " + i)
+                    .productDescription("Test laptop number " + i)
+                    .laptopSpec("16GB RAM, 512GB SSD")
+                    .quantity(i % 4)
+                    .isAvailable(i % 4 != 0)
+                    .price(1000.0 + i)
+                    .brand(i % 2 == 0 ? "Dell" : "Lenovo")
+                    .category(categories[i % categories.length])
+                    .build());
+            productId = product.getProductId();
+        }
+
+        // Mirror open-session-in-view so lazy loads during serialization are counted
+        OpenEntityManagerInViewInterceptor openEntityManagerInView = new OpenEntityManagerInViewInterceptor();
+        openEntityManagerInView.setEntityManagerFactory(entityManagerFactory);
+        mockMvc = MockMvcBuilders.standaloneSetup(productController)
+                .addInterceptors(new WebRequestHandlerInterceptorAdapter(openEntityManagerInView))
+                .build();
+
+        counter = new SqlStatementCounter(entityManagerFactory);
+    }
+
+    @Test
+    void listEndpointsStayWithinStatementBudget() throws Exception {
+        assertEndpointWithinBudget("/api/products");
+        assertEndpointWithinBudget("/api/products/available");
+        assertEndpointWithinBudget("/api/products/category/" + categoryId);
+        assertEndpointWithinBudget("/api/products/search?keyword=laptop");
+    }
+
+    @Test
+    void detailEndpointLoadsCategoryWithProduct() throws Exception {
+        assertEndpointWithinBudget("/api/products/" + productId);
+    }
+
+    @Test
+    void entityFindersFetchCategoriesInOneQuery() {
+        assertFinderWithinBudget("findAll", () -> productRepository.findAll());
+        assertFinderWithinBudget("findByIsAvailableTrue", () -> productRepository.findByIsAvailableTrue());
+        assertFinderWithinBudget("findByCategoryCategoryId",
+                () -> productRepository.findByCategoryCategoryId(categoryId));
+        assertFinderWithinBudget("findProductsByFilters",
+                () -> productRepository.findProductsByFilters(null, "dell", null, null, null));
+    }
+
+    private void assertEndpointWithinBudget(String url) throws Exception {
+        counter.reset();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        counter.assertAtMost(STATEMENT_BUDGET, "GET " + url);
+    }
+
+    private void assertFinderWithinBudget(String name, Supplier<List<Product>> finder) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            counter.reset();
+            // Touch the category the same way Product's JSON getters do
+            finder.get().forEach(Product::getCategoryName);
+            counter.assertAtMost(STATEMENT_BUDGET, name);
+        });
+    }
+}
@@ -0,0 +1,214 @@
+package com.solekta.solekta.outbox;
+
+import com.solekta.solekta.model.OutboxEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the dispatcher against its own in-memory database with one worker, calling
+ * poll() directly: claims bump attempts and push next_attempt_at out, failures back off,
+ * polls never queue more than the workers finish within the claim timeout, and a worker
+ * skips an event whose claim was taken over while it waited in the queue.
+ */
+class OutboxDispatcherTests {
+
+    private static final long CLAIM_TIMEOUT_MS = 300_000;
+    private static final long BACKOFF_MS = 60_000;
+
+    private JdbcTemplate jdbcTemplate;
+    private OutboxDispatcher dispatcher;
+    private volatile Consumer<OutboxEvent> confirmation = event -> { };
+    private final AtomicInteger adminNotifications = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:outbox-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE outbox_events (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "event_type VARCHAR(50) NOT NULL, aggregate_id BIGINT NOT NULL, status VARCHAR(20) NOT NULL, "
+                + "attempts INT NOT NULL, next_attempt_at TIMESTAMP(6) NOT NULL, last_error VARCHAR(500), "
+                + "created_at TIMESTAMP(6) NOT NULL, processed_at TIMESTAMP(6))");
+
+        OutboxHandler confirmationHandler = handler(OutboxEvent.EventType.ORDER_CONFIRMATION_EMAIL,
+                event -> confirmation.accept(event));
+        OutboxHandler adminHandler = handler(OutboxEvent.EventType.ADMIN_ORDER_NOTIFICATION,
+                event -> adminNotifications.incrementAndGet());
+        dispatcher = new OutboxDispatcher(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                List.of(confirmationHandler, adminHandler), 1, 100);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffMs", BACKOFF_MS);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffMs", 3_600_000L);
+        ReflectionTestUtils.setField(dispatcher, "claimTimeoutMs", CLAIM_TIMEOUT_MS);
+        ReflectionTestUtils.setField(dispatcher, "maxEventMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void succeededEventIsMarkedSent() throws InterruptedException {
+        long id = insert(OutboxEvent.EventType.ORDER_CONFIRMATION_EMAIL, 0);
+
+        dispatcher.poll();
+        dispatcher.shutdown();
+
+        Map<String, Object> row = row(id);
+        assertEquals("SENT", row.get("status"));
+        assertEquals(1, ((Number) row.get("attempts")).intValue());
+        assertNotNull(row.get("processed_at"));
+    }
+
+    @Test
+    void failedAttemptIsRetriedWithBackoff() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        confirmation = event -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("SMTP down");
+        };
+        long id = insert(OutboxEvent.EventType.ORDER_CONFIRMATION_EMAIL, 0);
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.poll();
+        dispatcher.shutdown();
+
+        Map<String, Object> row = row(id);
+        assertEquals("PENDING", row.get("status"));
+        assertEquals(1, ((Number) row.get("attempts")).intValue());
+        assertEquals("IllegalStateException: SMTP down", row.get("last_error"));
+        LocalDateTime nextAttempt = ((Timestamp) row.get("next_attempt_at")).toLocalDateTime();
+        assertTrue(!nextAttempt.isBefore(before.plus(BACKOFF_MS / 2, ChronoUnit.MILLIS)),
+                "first retry waits at least half the base backoff, got " + nextAttempt);
+        assertTrue(!nextAttempt.isAfter(LocalDateTime.now().plus(BACKOFF_MS, ChronoUnit.MILLIS)),
+                "first retry waits at most the base backoff, got " + nextAttempt);
+
+        // Not due yet, so a second poll leaves it alone
+        dispatcher.poll();
+        assertEquals(1, calls.get());
+        assertEquals(1, ((Number) row(id).get("attempts")).intValue());
+    }
+
+    @Test
+    void lastFailedAttemptMarksEventFailed() throws InterruptedException {
+        confirmation = event -> {
+            throw new IllegalStateException("SMTP down");
+        };
+        long id = insert(OutboxEvent.EventType.ORDER_CONFIRMATION_EMAIL, 2);
+
+        dispatcher.poll();
+        dispatcher.shutdown();
+
+        Map<String, Object> row = row(id);
+        assertEquals("FAILED", row.get("status"));
+        assertEquals(3, ((Number) row.get("attempts")).intValue());
+        assertNotNull(row.get("processed_at"));
+    }
+
+    @Test
+    void pollClaimsNoMoreThanWorkersFinishBeforeTheClaimExpires() throws InterruptedException {
+        // Two events' worth of work per claim timeout leaves room for one in flight
+        ReflectionTestUtils.setField(dispatcher, "maxEventMs", CLAIM_TIMEOUT_MS / 2);
+        CountDownLatch release = new CountDownLatch(1);
+        confirmation = event -> await(release);
+        for (int i = 0; i < 3; i++) {
+            insert(OutboxEvent.EventType.ORDER_CONFIRMATION_EMAIL, 0);
+        }
+
+        dispatcher.poll();
+        dispatcher.poll();
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_events WHERE attempts > 0", Integer.class));
+
+        release.countDown();
+        dispatcher.shutdown();
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_events WHERE status = 'SENT'", Integer.class));
+    }
+
+    @Test
+    void queuedEventWhoseClaimWasTakenOverIsSkipped() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        confirmation = event -> {
+            started.countDown();
+            await(release);
+        };
+        long running = insert(OutboxEvent.EventType.ORDER_CONFIRMATION_EMAIL, 0);
+        long queued = insert(OutboxEvent.EventType.ADMIN_ORDER_NOTIFICATION, 0);
+
+        dispatcher.poll();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // Another node re-claimed the queued event after its claim expired
+        Timestamp otherClaim = Timestamp.valueOf(LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.MILLIS));
+        jdbcTemplate.update("UPDATE outbox_events SET next_attempt_at = ?, attempts = attempts + 1 WHERE id = ?",
+                otherClaim, queued);
+        release.countDown();
+        dispatcher.shutdown();
+
+        assertEquals("SENT", row(running).get("status"));
+        assertEquals(0, adminNotifications.get());
+        Map<String, Object> row = row(queued);
+        assertEquals("PENDING", row.get("status"));
+        assertEquals(2, ((Number) row.get("attempts")).intValue());
+        assertEquals(otherClaim, row.get("next_attempt_at"));
+    }
+
+    private long insert(OutboxEvent.EventType type, int attempts) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO outbox_events (event_type, aggregate_id, status, attempts, next_attempt_at, "
+                        + "created_at) VALUES (?, 1, 'PENDING', ?, ?, ?)",
+                type.name(), attempts, Timestamp.valueOf(now.minusSeconds(1)), Timestamp.valueOf(now));
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_events", Long.class);
+    }
+
+    private Map<String, Object> row(long id) {
+        return jdbcTemplate.queryForMap("SELECT * FROM outbox_events WHERE id = ?", id);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static OutboxHandler handler(OutboxEvent.EventType type, Consumer<OutboxEvent> body) {
+        return new OutboxHandler() {
+            @Override
+            public OutboxEvent.EventType type() {
+                return type;
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                body.accept(event);
+            }
+        };
+    }
+}
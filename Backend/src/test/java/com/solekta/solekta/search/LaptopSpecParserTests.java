@@ -0,0 +1,74 @@
+package com.solekta.solekta.search;
+
+import com.solekta.solekta.enums.StorageType;
+import com.solekta.solekta.model.ProductSpec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LaptopSpecParserTests {
+
+    @Test
+    void parsesThePlaceholderSpecFormat() {
+        ProductSpec spec = LaptopSpecParser.parse(1L, "Intel Core i7, 16GB RAM, 512GB SSD");
+
+        assertEquals(1L, spec.getProductId());
+        assertEquals(LaptopSpecParser.VERSION, spec.getParserVersion());
+        assertEquals("Intel Core i7", spec.getCpuFamily());
+        assertEquals(16, spec.getRamGb());
+        assertEquals(512, spec.getStorageGb());
+        assertEquals(StorageType.SSD, spec.getStorageType());
+        assertNull(spec.getGpu());
+        assertNull(spec.getScreenInches());
+    }
+
+    @Test
+    void parsesADetailedSpec() {
+        ProductSpec spec = LaptopSpecParser.parse(2L,
+                "Intel Core i7-1355U, 16GB DDR5 RAM, 512GB NVMe SSD, 15.6\" FHD, RTX 4050");
+
+        assertEquals("Intel Core i7", spec.getCpuFamily());
+        assertEquals(16, spec.getRamGb());
+        assertEquals(512, spec.getStorageGb());
+        assertEquals(StorageType.SSD, spec.getStorageType());
+        assertEquals("NVIDIA RTX 4050", spec.getGpu());
+        assertEquals(15.6, spec.getScreenInches());
+    }
+
+    @Test
+    void takesTheMediumNamedAfterALabelledSize() {
+        ProductSpec hdd = LaptopSpecParser.parse(3L, "Storage: 1TB HDD");
+        assertEquals(1024, hdd.getStorageGb());
+        assertEquals(StorageType.HDD, hdd.getStorageType());
+
+        ProductSpec nvme = LaptopSpecParser.parse(4L, "Storage - 512GB PCIe NVMe, 8GB RAM");
+        assertEquals(512, nvme.getStorageGb());
+        assertEquals(StorageType.SSD, nvme.getStorageType());
+        assertEquals(8, nvme.getRamGb());
+    }
+
+    @Test
+    void leavesTheMediumUnknownWhenOnlyTheSizeIsGiven() {
+        ProductSpec spec = LaptopSpecParser.parse(5L, "Storage: 256 GB");
+
+        assertEquals(256, spec.getStorageGb());
+        assertNull(spec.getStorageType());
+    }
+
+    @Test
+    void leavesUnrecognizedAttributesNull() {
+        for (String text : new String[]{"Great laptop for students", "", null}) {
+            ProductSpec spec = LaptopSpecParser.parse(6L, text);
+
+            assertEquals(6L, spec.getProductId());
+            assertEquals(LaptopSpecParser.VERSION, spec.getParserVersion());
+            assertNull(spec.getRamGb());
+            assertNull(spec.getStorageGb());
+            assertNull(spec.getStorageType());
+            assertNull(spec.getCpuFamily());
+            assertNull(spec.getGpu());
+            assertNull(spec.getScreenInches());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.cart.CartPricing;
+import com.solekta.solekta.dto.CartDTO;
+import com.solekta.solekta.dto.CartItemDTO;
+import com.solekta.solekta.dto.CartPatchOperation;
+import com.solekta.solekta.dto.CartPatchRequest;
+import com.solekta.solekta.model.CartItem;
+import com.solekta.solekta.repository.CartItemRepository;
+import com.solekta.solekta.repository.ProductRepository;
+import com.solekta.solekta.support.Fixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A patch that removes a line and adds the same line back must reuse the stored
+ * row: deleting it and inserting a new one would insert first and hit the
+ * uk_cart_items_line unique key.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartPatchTests {
+
+    private static final long CUSTOMER = 7000L;
+
+    @Autowired
+    private CartOperations cartOperations;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = Fixtures.seed(productRepository, cartPricing, Fixtures.laptop("Patched laptop", 10, 900.0)).get(0);
+        cartOperations.addItemToCart(CUSTOMER, productId, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartOperations.clearCart(CUSTOMER);
+        productRepository.deleteById(productId);
+    }
+
+    @Test
+    void removeThenAddSameLineReusesIt() {
+        CartDTO cart = cartOperations.patchCart(CUSTOMER, new CartPatchRequest(List.of(
+                operation(CartPatchOperation.Action.REMOVE, null),
+                operation(CartPatchOperation.Action.ADD, 3))));
+
+        assertSingleLine(cart, 3);
+    }
+
+    @Test
+    void updateToZeroThenAddSameLineReusesIt() {
+        CartDTO cart = cartOperations.patchCart(CUSTOMER, new CartPatchRequest(List.of(
+                operation(CartPatchOperation.Action.UPDATE, 0),
+                operation(CartPatchOperation.Action.ADD, 4))));
+
+        assertSingleLine(cart, 4);
+    }
+
+    private void assertSingleLine(CartDTO cart, int quantity) {
+        assertEquals(1, cart.getCartItems().size());
+        CartItemDTO line = cart.getCartItems().get(0);
+        assertEquals(productId, line.getProductId());
+        assertEquals(quantity, line.getQuantity());
+        assertEquals(quantity, cart.getItemCount());
+        assertEquals(1, cartItemRepository.findAll().stream()
+                .filter(item -> productId.equals(item.getProductId()))
+                .count());
+    }
+
+    private CartPatchOperation operation(CartPatchOperation.Action action, Integer quantity) {
+        return new CartPatchOperation(action, CartItem.ItemType.PRODUCT, productId, quantity, null, null, null);
+    }
+}
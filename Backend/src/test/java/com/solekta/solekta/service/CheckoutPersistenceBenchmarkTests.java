@@ -0,0 +1,128 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.cart.CartPricing;
+import com.solekta.solekta.dto.OrderDTO;
+import com.solekta.solekta.model.Product;
+import com.solekta.solekta.repository.OrderRepository;
+import com.solekta.solekta.repository.ProductRepository;
+import com.solekta.solekta.support.Fixtures;
+import com.solekta.solekta.support.SqlStatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.solekta.solekta.support.Fixtures.checkoutRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checkout writes the order, its lines and its payment in one flush. The SQL
+ * statement count must not depend on the number of cart lines (the lines go out
+ * as one JDBC batch). The timed run logs checkout latency for comparison across
+ * commits; it is tagged "benchmark" and only runs with the benchmark Maven profile.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutPersistenceBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutPersistenceBenchmarkTests.class);
+
+    private static final int PRODUCT_COUNT = 40;
+    private static final int WARMUP = 20;
+    private static final int RUNS = 100;
+    // Checkout reserves stock: the timed runs plus the statement-count checkouts buy one of each
+    private static final int STOCK = WARMUP + RUNS + 10;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartOperations cartOperations;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private SqlStatementCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        productIds.clear();
+        Product[] products = new Product[PRODUCT_COUNT];
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            products[i] = Fixtures.laptop("Checkout laptop " + i, STOCK, 1000.0 + i);
+        }
+        productIds.addAll(Fixtures.seed(productRepository, cartPricing, products));
+        counter = new SqlStatementCounter(entityManagerFactory);
+    }
+
+    @Test
+    void checkoutStatementsDoNotGrowWithCartLines() {
+        // First checkout also fetches the initial id blocks
+        checkoutStatements(1000L, 1);
+        long oneLine = checkoutStatements(1001L, 1);
+        long manyLines = checkoutStatements(1002L, PRODUCT_COUNT);
+        // Allows one order_items_seq block fetch when the lines cross a block of 50
+        assertTrue(manyLines <= oneLine + 1,
+                "checkout of " + PRODUCT_COUNT + " lines used " + manyLines + " statements, 1 line used " + oneLine);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void checkoutLatency() {
+        for (int i = 0; i < WARMUP; i++) {
+            fillCart(2000L + i, 10);
+            orderService.createOrderFromCart(checkoutRequest(2000L + i));
+        }
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long customerId = 3000L + i;
+            fillCart(customerId, 10);
+            long start = System.nanoTime();
+            OrderDTO order = orderService.createOrderFromCart(checkoutRequest(customerId));
+            nanos[i] = System.nanoTime() - start;
+            assertEquals(10, order.getOrderItems().size());
+        }
+        Arrays.sort(nanos);
+        log.info("Checkout of 10 lines over {} runs: p50 {} ms, p95 {} ms, max {} ms", RUNS,
+                millis(nanos[RUNS / 2]), millis(nanos[RUNS * 95 / 100]), millis(nanos[RUNS - 1]));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private long checkoutStatements(long customerId, int lines) {
+        fillCart(customerId, lines);
+        counter.reset();
+        orderService.createOrderFromCart(checkoutRequest(customerId));
+        return counter.count();
+    }
+
+    private void fillCart(long customerId, int lines) {
+        for (int i = 0; i < lines; i++) {
+            cartOperations.addItemToCart(customerId, productIds.get(i), 1);
+        }
+    }
+}
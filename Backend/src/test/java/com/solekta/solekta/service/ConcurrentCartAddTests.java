@@ -0,0 +1,97 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.cart.CartPricing;
+import com.solekta.solekta.dto.CartDTO;
+import com.solekta.solekta.model.CartItem;
+import com.solekta.solekta.repository.CartItemRepository;
+import com.solekta.solekta.repository.ProductRepository;
+import com.solekta.solekta.support.Fixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two requests adding the same product to one cart at once both insert its line; the
+ * uk_cart_items_line key rejects the second insert and the retry folds its quantity
+ * into the line the first one stored, so the cart converges on one line holding both.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ConcurrentCartAddTests {
+
+    private static final long CUSTOMER = 7100L;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private CartOperations cartOperations;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = Fixtures.seed(productRepository, cartPricing, Fixtures.laptop("Double-clicked laptop", 10, 700.0))
+                .get(0);
+        // The cart itself exists up front; only the line is contended
+        cartOperations.addItemToCart(CUSTOMER, productId, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartOperations.clearCart(CUSTOMER);
+        productRepository.deleteById(productId);
+    }
+
+    @Test
+    void concurrentAddsOfTheSameProductConvergeOnOneLine() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                cartOperations.clearCart(CUSTOMER);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<CartDTO>> adds = List.of(
+                        pool.submit(() -> {
+                            start.await();
+                            return cartOperations.addItemToCart(CUSTOMER, productId, 1);
+                        }),
+                        pool.submit(() -> {
+                            start.await();
+                            return cartOperations.addItemToCart(CUSTOMER, productId, 2);
+                        }));
+                start.countDown();
+                for (Future<CartDTO> add : adds) {
+                    add.get(30, TimeUnit.SECONDS);
+                }
+
+                List<CartItem> lines = cartItemRepository.findAll().stream()
+                        .filter(item -> productId.equals(item.getProductId()))
+                        .toList();
+                assertEquals(1, lines.size(), "round " + round);
+                assertEquals(3, lines.get(0).getQuantity(), "round " + round);
+                assertEquals(3, cartOperations.getCartByCustomerId(CUSTOMER).getItemCount(), "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.cart.CartPricing;
+import com.solekta.solekta.dto.OrderDTO;
+import com.solekta.solekta.model.IdempotencyRecord;
+import com.solekta.solekta.repository.IdempotencyRecordRepository;
+import com.solekta.solekta.repository.OrderRepository;
+import com.solekta.solekta.repository.ProductRepository;
+import com.solekta.solekta.support.Fixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.solekta.solekta.support.Fixtures.checkoutRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A checkout retried with the same Idempotency-Key creates one order, and every
+ * attempt gets that order back: a duplicate on this node waits for the running
+ * checkout, a duplicate that lost the key to another node reads the order it
+ * recorded, and so does a duplicate arriving after the in-memory entry expired.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotentCheckoutTests {
+
+    private static final long CUSTOMER = 7200L;
+
+    @Autowired
+    private IdempotentCheckoutService idempotentCheckoutService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartOperations cartOperations;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @MockitoSpyBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = Fixtures.seed(productRepository, cartPricing, Fixtures.laptop("Retried laptop", 10, 1200.0)).get(0);
+        cartOperations.addItemToCart(CUSTOMER, productId, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartOperations.clearCart(CUSTOMER);
+        orderRepository.deleteAll(orderRepository.findByCustomerId(CUSTOMER));
+        idempotencyRecordRepository.deleteAll(idempotencyRecordRepository.findAll().stream()
+                .filter(record -> record.getCustomerId() == CUSTOMER)
+                .toList());
+        productRepository.deleteById(productId);
+    }
+
+    @Test
+    void concurrentRequestsWithOneKeyCreateOneOrder() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        List<Future<OrderDTO>> checkouts;
+        try {
+            checkouts = List.of(pool.submit(() -> {
+                start.await();
+                return checkout("double-submit");
+            }), pool.submit(() -> {
+                start.await();
+                return checkout("double-submit");
+            }));
+            start.countDown();
+            for (Future<OrderDTO> checkout : checkouts) {
+                checkout.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, orderRepository.findByCustomerId(CUSTOMER).size());
+        assertEquals(checkouts.get(0).get().getId(), checkouts.get(1).get().getId());
+        assertEquals(9, productRepository.findById(productId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void duplicateWaitsForTheRunningCheckout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<OrderDTO> first = pool.submit(() -> idempotentCheckoutService.checkout("slow", CUSTOMER, () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return orderService.createOrderFromCart(checkoutRequest(CUSTOMER));
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Future<OrderDTO> duplicate = pool.submit(() -> idempotentCheckoutService.checkout("slow", CUSTOMER, () -> {
+                runs.incrementAndGet();
+                return orderService.createOrderFromCart(checkoutRequest(CUSTOMER));
+            }));
+            release.countDown();
+
+            assertEquals(first.get(30, TimeUnit.SECONDS).getId(), duplicate.get(30, TimeUnit.SECONDS).getId());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, runs.get());
+        assertEquals(1, orderRepository.findByCustomerId(CUSTOMER).size());
+    }
+
+    @Test
+    void keyClaimedByAnotherNodeReplaysItsOrder() {
+        OrderDTO order = orderService.createOrderFromCart(checkoutRequest(CUSTOMER));
+        IdempotencyRecord claimed = new IdempotencyRecord(CUSTOMER, "other-node");
+        claimed.setOrderId(order.getId());
+        idempotencyRecordRepository.save(claimed);
+        // The other node commits between this request's lookup and its own claim
+        doReturn(Optional.empty(), Optional.of(claimed))
+                .when(idempotencyRecordRepository).findByCustomerIdAndIdempotencyKey(CUSTOMER, "other-node");
+
+        OrderDTO replayed = idempotentCheckoutService.checkout("other-node", CUSTOMER,
+                () -> fail("the checkout must not run twice"));
+
+        assertEquals(order.getId(), replayed.getId());
+        assertEquals(1, orderRepository.findByCustomerId(CUSTOMER).size());
+    }
+
+    @Test
+    void duplicateAfterCacheExpiryReplaysFromTheDatabase() {
+        Object cacheTtlMs = ReflectionTestUtils.getField(idempotentCheckoutService, "cacheTtlMs");
+        ReflectionTestUtils.setField(idempotentCheckoutService, "cacheTtlMs", 0L);
+        try {
+            OrderDTO order = checkout("expired");
+            OrderDTO replayed = idempotentCheckoutService.checkout("expired", CUSTOMER,
+                    () -> fail("the checkout must not run twice"));
+
+            assertEquals(order.getId(), replayed.getId());
+            verify(idempotencyRecordRepository, times(2)).findByCustomerIdAndIdempotencyKey(CUSTOMER, "expired");
+        } finally {
+            ReflectionTestUtils.setField(idempotentCheckoutService, "cacheTtlMs", cacheTtlMs);
+        }
+        assertEquals(1, orderRepository.findByCustomerId(CUSTOMER).size());
+    }
+
+    private OrderDTO checkout(String key) {
+        return idempotentCheckoutService.checkout(key, CUSTOMER,
+                () -> orderService.createOrderFromCart(checkoutRequest(CUSTOMER)));
+    }
+}
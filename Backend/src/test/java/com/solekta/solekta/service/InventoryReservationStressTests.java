@@ -0,0 +1,114 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.cart.CartPricing;
+import com.solekta.solekta.exception.InsufficientStockException;
+import com.solekta.solekta.model.Product;
+import com.solekta.solekta.repository.OrderRepository;
+import com.solekta.solekta.repository.ProductRepository;
+import com.solekta.solekta.support.Fixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.solekta.solekta.support.Fixtures.checkoutRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Hundreds of customers check out the same SKU at once. Exactly as many orders as
+ * there was stock must succeed, every other checkout must fail with a shortfall, and
+ * the stock must end at zero rather than below it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryReservationStressTests {
+
+    private static final int STOCK = 50;
+    private static final int CUSTOMERS = 300;
+    private static final int THREADS = 32;
+    private static final long FIRST_CUSTOMER = 5000L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartOperations cartOperations;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        productId = Fixtures.seed(productRepository, cartPricing, Fixtures.laptop("Contended laptop", STOCK, 1500.0))
+                .get(0);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            cartOperations.addItemToCart(FIRST_CUSTOMER + i, productId, 1);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Customers who missed out still hold the product in their carts
+        for (int i = 0; i < CUSTOMERS; i++) {
+            cartOperations.clearCart(FIRST_CUSTOMER + i);
+        }
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CUSTOMERS; i++) {
+                long customerId = FIRST_CUSTOMER + i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.createOrderFromCart(checkoutRequest(customerId));
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertEquals(STOCK, succeeded.get());
+        assertEquals(CUSTOMERS - STOCK, rejected.get());
+        assertEquals(0, product.getQuantity());
+        assertFalse(product.getIsAvailable());
+        assertEquals(STOCK, orderRepository.count());
+    }
+}
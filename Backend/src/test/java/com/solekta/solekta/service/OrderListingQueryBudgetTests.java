@@ -0,0 +1,172 @@
+package com.solekta.solekta.service;
+
+import com.solekta.solekta.dto.CursorPage;
+import com.solekta.solekta.dto.OrderDTO;
+import com.solekta.solekta.model.Order;
+import com.solekta.solekta.model.OrderItem;
+import com.solekta.solekta.model.PaymentTransaction;
+import com.solekta.solekta.repository.OrderPageRepository;
+import com.solekta.solekta.repository.OrderRepository;
+import com.solekta.solekta.support.SqlStatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Order listings load ids first and then one join-fetch of orders, items and payments,
+ * so the statement count per page is fixed: it must not grow with the page size, the
+ * page number or the number of lines per order.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderListingQueryBudgetTests {
+
+    private static final int ORDER_COUNT = 120;
+    private static final int ITEMS_PER_ORDER = 3;
+    // ids + count + fetch
+    private static final long OFFSET_PAGE_BUDGET = 3;
+    // ids + fetch
+    private static final long KEYSET_PAGE_BUDGET = 2;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SqlStatementCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            orders.add(order(i));
+        }
+        orderRepository.saveAll(orders);
+        counter = new SqlStatementCounter(entityManagerFactory);
+    }
+
+    @Test
+    void offsetPagesUseFixedStatementCount() {
+        long small = statements(() -> orderService.getOrders(OrderPageRepository.Filter.NONE, 0, 10));
+        long large = statements(() -> orderService.getOrders(OrderPageRepository.Filter.NONE, 0, 100));
+        long deep = statements(() -> orderService.getOrders(OrderPageRepository.Filter.NONE, 5, 20));
+        assertTrue(small <= OFFSET_PAGE_BUDGET && large == small && deep == small,
+                "offset pages used " + small + ", " + large + " and " + deep + " statements");
+
+        counter.reset();
+        Page<OrderDTO> page = orderService.getOrders(
+                new OrderPageRepository.Filter(null, Order.OrderStatus.SHIPPED, null, null), 0, 25);
+        counter.assertAtMost(OFFSET_PAGE_BUDGET, "status-filtered order page");
+        assertEquals(ORDER_COUNT / 2, page.getTotalElements());
+        assertFullyLoaded(page.getContent());
+    }
+
+    @Test
+    void keysetPagesUseFixedStatementCount() {
+        List<OrderDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String current = cursor;
+            counter.reset();
+            CursorPage<OrderDTO> page = orderService.getOrderPage(OrderPageRepository.Filter.NONE, current, 25);
+            counter.assertAtMost(KEYSET_PAGE_BUDGET, "keyset order page " + pages);
+            assertFullyLoaded(page.getItems());
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(ORDER_COUNT, seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            OrderDTO previous = seen.get(i - 1);
+            OrderDTO order = seen.get(i);
+            int byTime = order.getCreatedAt().compareTo(previous.getCreatedAt());
+            assertTrue(byTime < 0 || byTime == 0 && order.getId() < previous.getId(),
+                    "keyset pages are not newest first");
+        }
+    }
+
+    @Test
+    void unpaginatedListsDoNotIssuePerOrderQueries() {
+        counter.reset();
+        List<OrderDTO> all = orderService.getAllOrders();
+        counter.assertAtMost(KEYSET_PAGE_BUDGET, "list of " + ORDER_COUNT + " orders");
+        assertEquals(ORDER_COUNT, all.size());
+        assertFullyLoaded(all);
+
+        counter.reset();
+        orderService.getOrdersByStatus(Order.OrderStatus.PENDING);
+        counter.assertAtMost(KEYSET_PAGE_BUDGET, "orders by status");
+
+        counter.reset();
+        orderService.getOrdersByCustomerId(1L);
+        counter.assertAtMost(KEYSET_PAGE_BUDGET, "orders by customer");
+    }
+
+    private long statements(Supplier<?> listing) {
+        counter.reset();
+        listing.get();
+        return counter.count();
+    }
+
+    private static void assertFullyLoaded(List<OrderDTO> orders) {
+        for (OrderDTO order : orders) {
+            assertEquals(ITEMS_PER_ORDER, order.getOrderItems().size());
+            assertNotNull(order.getPayment());
+        }
+    }
+
+    private static Order order(int i) {
+        BigDecimal price = BigDecimal.valueOf(1000 + i);
+        Order order = Order.builder()
+                .customerId((long) (i % 4))
+                .customerEmail("customer" + i + "@example.com")
+                .status(i % 2 == 0 ? Order.OrderStatus.PENDING : Order.OrderStatus.SHIPPED)
+                .subtotal(price.multiply(BigDecimal.valueOf(ITEMS_PER_ORDER)))
+                .tax(BigDecimal.ZERO)
+                .shippingCost(BigDecimal.ZERO)
+                .totalAmount(price.multiply(BigDecimal.valueOf(ITEMS_PER_ORDER)))
+                .shippingName("Test Customer")
+                .shippingAddress("1 Test Street")
+                .shippingCity("Colombo")
+                .shippingPostalCode("00100")
+                .shippingPhone("0771234567")
+                .paymentMethod(Order.PaymentMethod.CASH_ON_DELIVERY)
+                .build();
+        for (int line = 0; line < ITEMS_PER_ORDER; line++) {
+            order.getOrderItems().add(OrderItem.builder()
+                    .order(order)
+                    .productId((long) line + 1)
+                    .productName("Laptop " + line)
+                    .quantity(1)
+                    .unitPrice(price)
+                    .totalPrice(price)
+                    .build());
+        }
+        order.setPayment(PaymentTransaction.builder()
+                .order(order)
+                .amount(order.getTotalAmount())
+                .method(PaymentTransaction.PaymentMethod.CASH_ON_DELIVERY)
+                .build());
+        return order;
+    }
+}
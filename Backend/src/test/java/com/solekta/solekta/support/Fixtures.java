@@ -0,0 +1,58 @@
+package com.solekta.solekta.support;
+
+import com.solekta.solekta.cart.CartPricing;
+import com.solekta.solekta.dto.CheckoutRequest;
+import com.solekta.solekta.model.Order;
+import com.solekta.solekta.model.Product;
+import com.solekta.solekta.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared test data: available laptops seeded straight through the repository and a
+ * cash-on-delivery checkout to a fixed address.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    public static Product laptop(String name, int quantity, double price) {
+        return Product.builder()
+                .productName(name)
+                .productDescription(name + " for tests")
+                .laptopSpec("Intel Core i7, 16GB RAM, 512GB SSD")
+                .quantity(quantity)
+                .isAvailable(true)
+                .price(price)
+                .brand("Dell")
+                .build();
+    }
+
+    /**
+     * Saves the products and reloads the cart price snapshot, which no catalog event
+     * refreshes for repository writes. Returns their ids in order.
+     */
+    public static List<Long> seed(ProductRepository productRepository, CartPricing cartPricing, Product... products) {
+        List<Long> ids = new ArrayList<>(products.length);
+        for (Product product : products) {
+            ids.add(productRepository.save(product).getProductId());
+        }
+        cartPricing.load();
+        return ids;
+    }
+
+    public static CheckoutRequest checkoutRequest(long customerId) {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setCustomerId(customerId);
+        request.setEmail("customer" + customerId + "@example.com");
+        request.setShippingName("Test Customer");
+        request.setShippingAddress("1 Test Street");
+        request.setShippingCity("Colombo");
+        request.setShippingPostalCode("00100");
+        request.setShippingPhone("0771234567");
+        request.setPaymentMethod(Order.PaymentMethod.CASH_ON_DELIVERY);
+        return request;
+    }
+}
@@ -0,0 +1,34 @@
+package com.solekta.solekta.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts JDBC statements prepared by Hibernate so tests can enforce a fixed
+ * SQL budget per request and catch N+1 regressions.
+ */
+public class SqlStatementCounter {
+
+    private final Statistics statistics;
+
+    public SqlStatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.setStatisticsEnabled(true);
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    public long count() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    public void assertAtMost(long budget, String description) {
+        long used = count();
+        if (used > budget) {
+            throw new AssertionError(description + " used " + used + " SQL statements, budget is " + budget);
+        }
+    }
+}
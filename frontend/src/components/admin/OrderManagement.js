@@ -9,18 +9,28 @@ const OrderManagement = () => {
   const [searchTerm, setSearchTerm] = useState('');
   const [selectedOrder, setSelectedOrder] = useState(null);
   const [showOrderDetails, setShowOrderDetails] = useState(false);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   const orderStatuses = ['PENDING', 'CONFIRMED', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED'];
 
+  // Orders are loaded newest first, one keyset page at a time; the status filter runs on the server
+  const PAGE_SIZE = 100;
+
   useEffect(() => {
     fetchOrders();
-  }, []);
+  }, [filterStatus]);
+
+  const fetchPage = (cursor) => api.get('/orders/page', {
+    params: { status: filterStatus || undefined, size: PAGE_SIZE, cursor: cursor || undefined }
+  });
 
   const fetchOrders = async () => {
     try {
       setLoading(true);
-      const response = await api.get('/orders');
-      setOrders(response.data);
+      const response = await fetchPage(null);
+      setOrders(response.data.items);
+      setNextCursor(response.data.nextCursor);
       setError('');
     } catch (err) {
       setError('Failed to fetch orders');
@@ -30,6 +40,20 @@ const OrderManagement = () => {
     }
   };
 
+  const loadMoreOrders = async () => {
+    try {
+      setLoadingMore(true);
+      const response = await fetchPage(nextCursor);
+      setOrders(current => [...current, ...response.data.items]);
+      setNextCursor(response.data.nextCursor);
+    } catch (err) {
+      setError('Failed to fetch more orders');
+      console.error('Error fetching more orders:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const updateOrderStatus = async (orderId, newStatus) => {
     try {
       await api.put(`/orders/${orderId}/status?status=${newStatus}`);
@@ -49,6 +73,7 @@ const OrderManagement = () => {
     }
   };
 
+  // Search covers the orders loaded so far
   const filteredOrders = orders.filter(order => {
     const matchesStatus = !filterStatus || order.status === filterStatus;
     const matchesSearch = !searchTerm || 
@@ -242,6 +267,14 @@ const OrderManagement = () => {
             {searchTerm || filterStatus ? 'No orders match your search criteria.' : 'No orders found.'}
           </div>
         )}
+
+        {nextCursor && (
+          <div style={{textAlign: 'center', padding: '1rem'}}>
+            <button onClick={loadMoreOrders} className="btn-secondary" disabled={loadingMore}>
+              {loadingMore ? 'Loading...' : 'Load More Orders'}
+            </button>
+          </div>
+        )}
       </div>
 
       {/* Order Details Modal */}
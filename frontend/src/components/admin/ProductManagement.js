@@ -125,7 +125,14 @@ const ProductManagement = () => {
     }
   };
 
-  const handleEdit = (product) => {
+  const handleEdit = async (listedProduct) => {
+    // List endpoints return lightweight summaries; load the full record for editing
+    let product = listedProduct;
+    try {
+      product = await productService.getProduct(listedProduct.productId);
+    } catch (err) {
+      console.error('Error loading product details:', err);
+    }
     setEditingProduct(product);
     setFormData({
       productName: product.productName || '',
@@ -280,8 +287,7 @@ const ProductManagement = () => {
   const filteredProducts = products.filter(product => {
     const matchesSearch = !searchTerm || 
       product.productName.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      product.brand?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      product.productDescription?.toLowerCase().includes(searchTerm.toLowerCase());
+      product.brand?.toLowerCase().includes(searchTerm.toLowerCase());
     
     const matchesCategory = !filterCategory || 
       (product.categoryId && product.categoryId === parseInt(filterCategory)) ||
@@ -373,14 +379,6 @@ const ProductManagement = () => {
                     </div>
                     <div>
                       <strong>{product.productName}</strong>
-                      {product.productDescription && (
-                        <div className="product-description">
-                          {product.productDescription.length > 100 
-                            ? product.productDescription.substring(0, 100) + '...'
-                            : product.productDescription
-                          }
-                        </div>
-                      )}
                     </div>
                   </div>
                 </td>